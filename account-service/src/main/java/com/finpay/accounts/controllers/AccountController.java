@@ -5,11 +5,13 @@ import com.finpay.common.dto.accounts.AccountDto;
 import com.finpay.common.dto.accounts.CreateAccountRequest;
 import com.finpay.common.dto.accounts.CreditRequest;
 import com.finpay.common.dto.accounts.DebitRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for account management operations.
@@ -82,12 +84,15 @@ public class AccountController {
 
     /**
      * Retrieves account details by ID.
+     * The response may be cached for one second per user to absorb polling.
      *
      * @param id UUID of the account to retrieve
      * @return ResponseEntity with AccountDto
      */
     @GetMapping("/{id}")
     public ResponseEntity<AccountDto> getAccount(@PathVariable("id") UUID id) {
-        return ResponseEntity.ok(service.getAccount(id));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.SECONDS).cachePrivate())
+                .body(service.getAccount(id));
     }
 }
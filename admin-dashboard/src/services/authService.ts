@@ -27,6 +27,11 @@ export interface User {
   createdAt: string;
 }
 
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
 export const authService = {
   register: async (data: RegisterRequest): Promise<User> => {
     const response = await api.post('/auth-services/users', data);
@@ -39,7 +44,16 @@ export const authService = {
   },
 
   getUsers: async (): Promise<User[]> => {
-    const response = await api.get('/auth-services/users');
-    return response.data;
+    // The endpoint is cursor-paginated: follow nextCursor until the last page
+    const users: User[] = [];
+    let cursor: string | null = null;
+    do {
+      const response: { data: CursorPage<User> } = await api.get('/auth-services/users', {
+        params: { size: 500, cursor: cursor ?? undefined },
+      });
+      users.push(...response.data.items);
+      cursor = response.data.nextCursor;
+    } while (cursor);
+    return users;
   },
 };
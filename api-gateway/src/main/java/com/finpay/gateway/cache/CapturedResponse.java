@@ -0,0 +1,41 @@
+package com.finpay.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete upstream response held in memory so it can be replayed to other requests.
+ *
+ * @param status Response status
+ * @param headers Response headers, with a fixed Content-Length
+ * @param body Response body
+ * @param capturedAtNanos Capture time
+ */
+public record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long capturedAtNanos) {
+
+    /**
+     * Writes this response, with an Age header, to another exchange's response.
+     *
+     * @param response Response to write to
+     * @return Mono completing when the response is written
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().set("Age", Long.toString(ageSeconds()));
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * Time since the response was captured.
+     *
+     * @return Age in whole seconds
+     */
+    public long ageSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - capturedAtNanos);
+    }
+}
@@ -0,0 +1,73 @@
+package com.finpay.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Response decorator that keeps a copy of the body it writes, up to a size limit.
+ * Bodies are aggregated before being written, so it is meant for small JSON responses.
+ */
+public class CapturingResponse extends ServerHttpResponseDecorator {
+
+    private final int maxBodySize;
+    private byte[] body = new byte[0];
+    private boolean complete = true;
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate Response to write to
+     * @param maxBodySize Largest body that is captured
+     */
+    public CapturingResponse(ServerHttpResponse delegate, int maxBodySize) {
+        super(delegate);
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return DataBufferUtils.join(body)
+                .flatMap(joined -> {
+                    if (joined.readableByteCount() <= maxBodySize) {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        this.body = bytes;
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    }
+                    complete = false;
+                    return super.writeWith(Mono.just(joined));
+                });
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        // Streaming responses are passed through and not captured
+        complete = false;
+        return super.writeAndFlushWith(body);
+    }
+
+    /**
+     * Returns the captured response once it has been written.
+     *
+     * @return Captured response, or null if it was streamed, too large or has no status
+     */
+    public CapturedResponse toCapturedResponse() {
+        HttpStatusCode status = getStatusCode();
+        if (!complete || status == null) {
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(getHeaders());
+        // Replayed as a fixed-length body
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(body.length);
+        return new CapturedResponse(status, headers, body, System.nanoTime());
+    }
+}
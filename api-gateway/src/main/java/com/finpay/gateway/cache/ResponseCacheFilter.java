@@ -0,0 +1,294 @@
+package com.finpay.gateway.cache;
+
+import com.finpay.gateway.ratelimit.ClaimKeyResolver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Collapses identical in-flight GETs and caches their responses for a short time.
+ * <p>
+ * Requests are keyed by principal (the rate limit key: tier and user_id claim) and URI, so
+ * responses are never shared between users. Only requests with a principal take part: a
+ * bearer token, already verified by the JWT filter that runs before route filters, or an API
+ * key, whose principal is derived from the key so only holders of that key share entries.
+ * Requests without one go straight upstream, so anonymous callers never share a response. Because every key carries the principal, responses marked Cache-Control: private
+ * are stored too; the directive is honoured by never serving them to another principal.
+ * While a request for a key is in flight, further
+ * requests for the same key wait for its response instead of going upstream (single-flight).
+ * Successful responses are then kept for the configured TTL, capped by the upstream's
+ * Cache-Control max-age; responses marked no-store or no-cache, or setting cookies, are
+ * shared with concurrent waiters but never stored. Cached responses carry their upstream
+ * ETag, or a weak ETag computed from the body, and a matching If-None-Match gets a 304.
+ * A request with Cache-Control: no-cache bypasses the filter.
+ */
+public class ResponseCacheFilter implements GatewayFilter {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-)?max-age=(\\d+)");
+    /** Emitted to waiters when the leader's response cannot be shared */
+    private static final CachedResponse NOT_SHAREABLE = new CachedResponse(null, null, 0);
+
+    private final List<PathPattern> paths;
+    private final KeyResolver principalResolver;
+    private final long ttlNanos;
+    private final int maxBodySize;
+    private final Duration waitTimeout;
+    private final Cache<String, CachedResponse> cache;
+    private final ConcurrentMap<String, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    /**
+     * Creates the filter.
+     *
+     * @param paths Path patterns whose GETs are coalesced and cached
+     * @param principalResolver Resolver of the requesting principal
+     * @param ttl Maximum time a response is cached
+     * @param maxSizeBytes Total size of cached bodies before eviction
+     * @param maxBodySize Largest body that is cached
+     * @param waitTimeout Longest time a request waits for an identical in-flight request
+     * @param meterRegistry Registry for hit, miss and coalescing counters
+     */
+    public ResponseCacheFilter(List<String> paths,
+                               KeyResolver principalResolver,
+                               Duration ttl,
+                               long maxSizeBytes,
+                               int maxBodySize,
+                               Duration waitTimeout,
+                               MeterRegistry meterRegistry) {
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.principalResolver = principalResolver;
+        this.ttlNanos = ttl.toNanos();
+        this.maxBodySize = maxBodySize;
+        this.waitTimeout = waitTimeout;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((String key, CachedResponse cached) -> key.length() + cached.response().body().length)
+                .expireAfter(new UntilStale())
+                .build();
+
+        this.hits = outcomeCounter(meterRegistry, "hit");
+        this.misses = outcomeCounter(meterRegistry, "miss");
+        this.coalesced = outcomeCounter(meterRegistry, "coalesced");
+    }
+
+    /**
+     * Serves the request from the cache or an identical in-flight request, or routes it.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the response is written
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !matches(request) || requestsNoCache(request)) {
+            return chain.filter(exchange);
+        }
+        return principalResolver.resolve(exchange)
+                .defaultIfEmpty(ClaimKeyResolver.ANONYMOUS)
+                .flatMap(principal -> ClaimKeyResolver.ANONYMOUS.equals(principal)
+                        ? chain.filter(exchange)
+                        : serve(exchange, chain, key(principal, request)));
+    }
+
+    /**
+     * Builds the cache key of a request. It always starts with the principal, which is what
+     * allows private responses to be stored.
+     *
+     * @param principal Verified principal of the request
+     * @param request Current request
+     * @return Key made of principal and URI
+     */
+    private static String key(String principal, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return principal + ' ' + request.getURI().getRawPath() + (query != null ? "?" + query : "");
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, String key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return write(exchange, cached);
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Mono<CachedResponse> shared = sink.asMono();
+        Mono<CachedResponse> leader = inFlight.putIfAbsent(key, shared);
+        if (leader != null) {
+            coalesced.increment();
+            return leader
+                    .timeout(waitTimeout, Mono.just(NOT_SHAREABLE))
+                    .flatMap(response -> response == NOT_SHAREABLE
+                            ? chain.filter(exchange)
+                            : write(exchange, response));
+        }
+
+        misses.increment();
+        CapturingResponse capturing = new CapturingResponse(exchange.getResponse(), maxBodySize);
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doOnSuccess(v -> {
+                    CachedResponse response = toCachedResponse(capturing.toCapturedResponse());
+                    if (response != NOT_SHAREABLE && response.isStorable()) {
+                        cache.put(key, response);
+                    }
+                    inFlight.remove(key, shared);
+                    sink.tryEmitValue(response);
+                })
+                .doFinally(signal -> {
+                    // Error or cancellation: waiters go upstream themselves
+                    if (inFlight.remove(key, shared)) {
+                        sink.tryEmitValue(NOT_SHAREABLE);
+                    }
+                });
+    }
+
+    /**
+     * Writes a shared or cached response, answering 304 when the client already has it.
+     *
+     * @param exchange Current server exchange
+     * @param cached Response to replay
+     * @return Mono completing when the response is written
+     */
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (cached.etag() != null && cached.etag().equals(ifNoneMatch)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag());
+            response.getHeaders().set("Age", Long.toString(cached.response().ageSeconds()));
+            return response.setComplete();
+        }
+        return cached.response().writeTo(response);
+    }
+
+    private boolean matches(ServerHttpRequest request) {
+        for (PathPattern path : paths) {
+            if (path.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean requestsNoCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("no-cache");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("finpay.gateway.response.cache")
+                .description("GET requests by response cache outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Time a response may be stored: the filter TTL capped by the upstream max-age.
+     * Cache-Control: private does not prevent storage, as the key a response is stored under
+     * belongs to a single principal (see {@link #key}).
+     *
+     * @param response Captured upstream response
+     * @return Storage time in nanos, 0 if the response must not be stored
+     */
+    private long storeFor(CapturedResponse response) {
+        HttpHeaders headers = response.headers();
+        if (response.status().value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return ttlNanos;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        if (directives.contains("no-store") || directives.contains("no-cache")) {
+            return 0;
+        }
+        Matcher maxAge = MAX_AGE.matcher(directives);
+        return maxAge.find()
+                ? Math.min(ttlNanos, TimeUnit.SECONDS.toNanos(Long.parseLong(maxAge.group(1))))
+                : ttlNanos;
+    }
+
+    /**
+     * Wraps a captured response with its entity tag and storage time.
+     *
+     * @param captured Captured upstream response, null if it could not be captured
+     * @return Cached response, or NOT_SHAREABLE
+     */
+    private CachedResponse toCachedResponse(CapturedResponse captured) {
+        if (captured == null) {
+            return NOT_SHAREABLE;
+        }
+        String etag = captured.headers().getETag();
+        if (etag == null && captured.status().value() == HttpStatus.OK.value()) {
+            CRC32 crc = new CRC32();
+            crc.update(captured.body());
+            etag = "W/\"" + HexFormat.of().toHexDigits((int) crc.getValue()) + '-' + captured.body().length + '"';
+            captured.headers().setETag(etag);
+        }
+        return new CachedResponse(captured, etag, storeFor(captured));
+    }
+
+    /**
+     * A response captured from upstream, with its cache metadata.
+     *
+     * @param response Captured response
+     * @param etag Entity tag, upstream or computed, null if none
+     * @param ttlNanos How long the response may be stored, 0 if not storable
+     */
+    private record CachedResponse(CapturedResponse response, String etag, long ttlNanos) {
+        boolean isStorable() {
+            return ttlNanos > 0;
+        }
+    }
+
+    /**
+     * Keeps each cached response for its own TTL.
+     */
+    private static final class UntilStale implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            return response.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return response.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
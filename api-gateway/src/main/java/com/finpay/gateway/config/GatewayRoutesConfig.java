@@ -1,7 +1,10 @@
 package com.finpay.gateway.config;
 
+import com.finpay.gateway.cache.ResponseCacheFilter;
+import com.finpay.gateway.idempotency.IdempotencyFilter;
+import com.finpay.gateway.ratelimit.HybridRateLimiter;
+import com.finpay.gateway.resilience.RouteProtection;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,29 +13,47 @@ import org.springframework.cloud.gateway.route.RouteLocator;
 /**
  * Configuration class for API Gateway routes.
  * Defines routing rules for all microservices including circuit breakers,
- * rate limiting, and Swagger documentation aggregation.
+ * bulkheads, adaptive concurrency limits, rate limiting, and Swagger
+ * documentation aggregation.
  */
 @Configuration
 public class GatewayRoutesConfig {
-    private final RedisRateLimiter redisRateLimiter;
+    private final HybridRateLimiter rateLimiter;
     private final KeyResolver userKeyResolver;
+    private final RouteProtection routeProtection;
+    private final ResponseCacheFilter responseCache;
+    private final IdempotencyFilter idempotency;
 
     /**
      * Constructs the GatewayRoutesConfig with required dependencies.
      *
-     * @param redisRateLimiter Rate limiter for controlling request rates
+     * @param rateLimiter Rate limiter for controlling request rates
      * @param userKeyResolver Resolver for identifying users in rate limiting
+     * @param routeProtection Factory for per-route breaker, bulkhead and concurrency limit filters
+     * @param responseCache Filter coalescing and caching polled GETs
+     * @param idempotency Filter answering retried transfers by Idempotency-Key
      */
-    public GatewayRoutesConfig(RedisRateLimiter redisRateLimiter, KeyResolver userKeyResolver) {
-        this.redisRateLimiter = redisRateLimiter;
+    public GatewayRoutesConfig(HybridRateLimiter rateLimiter, KeyResolver userKeyResolver,
+                               RouteProtection routeProtection, ResponseCacheFilter responseCache,
+                               IdempotencyFilter idempotency) {
+        this.rateLimiter = rateLimiter;
         this.userKeyResolver = userKeyResolver;
+        this.routeProtection = routeProtection;
+        this.responseCache = responseCache;
+        this.idempotency = idempotency;
     }
     /**
      * Configures custom routes for all microservices.
+     * Every service route is protected by a circuit breaker, bulkhead and adaptive
+     * concurrency limit, with a fallback endpoint under /fallback, and is load balanced
+     * across the service's instance pool (lb:// URIs, see LoadBalancerConfig).
+     * Polled GETs on accounts, transactions and fraud checks are coalesced and
+     * briefly cached before any other filter runs, and transfers retried with the
+     * same Idempotency-Key are answered at the gateway.
      * Routes include:
      * - Auth Service: User authentication and JWT generation
      * - Account Service: Account management and balance operations
-     * - Transaction Service: Money transfers with circuit breaker
+     * - Transaction Service: Money transfers
      * - Notification Service: User notifications
      * - Fraud Service: Fraud detection with rate limiting
      * - Swagger documentation routes for all services
@@ -45,28 +66,36 @@ public class GatewayRoutesConfig {
         return builder.routes()
                 // Auth Service routes - handles authentication
                 .route("auth-service", r -> r.path("/auth-services/**")
-                        .uri("http://localhost:8081"))
+                        .filters(f -> f.filter(routeProtection.filter("auth-service", "authCB", "/fallback/auth")))
+                        .uri("lb://auth-service"))
                 // Account Service routes - manages accounts and balances
                 .route("account-service", r -> r.path("/accounts/**")
-                        .uri("http://localhost:8082"))
-                // Transaction Service routes - handles transfers with circuit breaker for resilience
+                        .filters(f -> f
+                                .filter(responseCache)
+                                .filter(routeProtection.filter("account-service", "accountCB", "/fallback/accounts")))
+                        .uri("lb://account-service"))
+                // Transaction Service routes - handles transfers
                 .route("transaction-service", r -> r.path("/transactions/**")
-                        .filters(f -> f.circuitBreaker(c -> c
-                                .setName("transactionCB")
-                                .setFallbackUri("forward:/fallback/transactions")))
-                        .uri("http://localhost:8083"))
+                        .filters(f -> f
+                                .filter(responseCache)
+                                .filter(idempotency)
+                                .filter(routeProtection.filter("transaction-service", "transactionCB", "/fallback/transactions")))
+                        .uri("lb://transaction-service"))
                 // Notification Service routes - sends user notifications
                 .route("notification-service", r -> r.path("/notifications/**")
-                        .uri("http://localhost:8084"))
+                        .filters(f -> f.filter(routeProtection.filter("notification-service", "notificationCB", "/fallback/notifications")))
+                        .uri("lb://notification-service"))
                 // Fraud Service routes - fraud detection with rate limiting
                 .route("fraud-service", r -> r.path("/frauds/**")
                         .filters(f -> f
+                                .filter(responseCache)
                                 .requestRateLimiter(c -> {
-                                    c.setRateLimiter(redisRateLimiter);
+                                    c.setRateLimiter(rateLimiter);
                                     c.setKeyResolver(userKeyResolver);
                                 })
+                                .filter(routeProtection.filter("fraud-service", "fraudCB", "/fallback/frauds"))
                         )
-                        .uri("http://localhost:8085")
+                        .uri("lb://fraud-service")
                 )
                 // Swagger API documentation aggregation routes
                 .route("api-gateway-docs", r -> r.path("/v3/api-docs/gateway")
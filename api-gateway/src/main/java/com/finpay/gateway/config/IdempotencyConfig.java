@@ -0,0 +1,62 @@
+package com.finpay.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.gateway.idempotency.IdempotencyFilter;
+import com.finpay.gateway.idempotency.RedisIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for Idempotency-Key handling at the gateway.
+ * Retried transfers are answered from the first attempt's response
+ * instead of reaching the transaction service again.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Creates the filter that deduplicates POSTs carrying an Idempotency-Key.
+     *
+     * @param userKeyResolver Resolver identifying the requesting principal
+     * @param redisTemplate Reactive Redis template for the shared store
+     * @param objectMapper Mapper used to serialize shared responses
+     * @param meterRegistry Registry for idempotency outcome metrics
+     * @param paths Path patterns whose POSTs honour Idempotency-Key
+     * @param retention How long completed responses are replayed
+     * @param maxEntries Maximum completed responses kept in memory
+     * @param maxBodySize Largest response body that is kept
+     * @param waitTimeout Longest time a duplicate waits for the first request
+     * @param redisEnabled Whether responses and locks are shared through Redis
+     * @param lockTtl How long an in-flight Redis lock survives a crashed instance
+     * @param pollInterval How often a duplicate checks Redis for the result
+     * @return IdempotencyFilter added to the transaction route
+     */
+    @Bean
+    public IdempotencyFilter idempotencyFilter(
+            KeyResolver userKeyResolver,
+            ReactiveStringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${finpay.gateway.idempotency.paths:/transactions/transfer}") List<String> paths,
+            @Value("${finpay.gateway.idempotency.retention:10m}") Duration retention,
+            @Value("${finpay.gateway.idempotency.max-entries:100000}") long maxEntries,
+            @Value("${finpay.gateway.idempotency.max-body-size:64KB}") DataSize maxBodySize,
+            @Value("${finpay.gateway.idempotency.wait-timeout:10s}") Duration waitTimeout,
+            @Value("${finpay.gateway.idempotency.redis.enabled:false}") boolean redisEnabled,
+            @Value("${finpay.gateway.idempotency.redis.lock-ttl:30s}") Duration lockTtl,
+            @Value("${finpay.gateway.idempotency.redis.poll-interval:50ms}") Duration pollInterval) {
+        RedisIdempotencyStore store = redisEnabled
+                ? new RedisIdempotencyStore(redisTemplate, objectMapper, retention, lockTtl, pollInterval)
+                : null;
+        return new IdempotencyFilter(paths, userKeyResolver, retention, maxEntries,
+                (int) maxBodySize.toBytes(), waitTimeout, store, meterRegistry);
+    }
+}
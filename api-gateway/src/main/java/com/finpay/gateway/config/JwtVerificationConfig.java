@@ -0,0 +1,94 @@
+package com.finpay.gateway.config;
+
+import com.finpay.gateway.security.JwksKeyStore;
+import com.finpay.gateway.security.JwtVerificationFilter;
+import com.nimbusds.jose.JOSEException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Configuration class for token verification at the API Gateway.
+ * Tokens are verified once here and downstream services trust the signed
+ * internal header the gateway forwards.
+ */
+@Configuration
+public class JwtVerificationConfig {
+
+    /**
+     * Creates the auth service's verification keys, fetched from its JWKS endpoint
+     * and refreshed in the background.
+     *
+     * @param webClientBuilder Builder of the client fetching the JWKS document
+     * @param jwksUri URL of the auth service's JWKS document
+     * @param publicKeyLocation Classpath location of the key used until the first fetch succeeds
+     * @param refreshInterval Interval of the background refresh
+     * @param minRefreshInterval Minimum time between refreshes triggered by unknown key ids
+     * @return JwksKeyStore used by the JWT filter
+     * @throws IOException If the public key cannot be read
+     * @throws GeneralSecurityException If the public key cannot be parsed
+     * @throws JOSEException If the key id cannot be computed
+     */
+    @Bean(destroyMethod = "close")
+    public JwksKeyStore jwksKeyStore(
+            WebClient.Builder webClientBuilder,
+            @Value("${finpay.security.jwt.jwks-uri:http://localhost:8081/.well-known/jwks.json}") String jwksUri,
+            @Value("${finpay.security.jwt.public-key-location:keys/public.pem}") String publicKeyLocation,
+            @Value("${finpay.security.jwt.jwks-refresh-interval:5m}") Duration refreshInterval,
+            @Value("${finpay.security.jwt.jwks-min-refresh-interval:30s}") Duration minRefreshInterval)
+            throws IOException, GeneralSecurityException, JOSEException {
+        return new JwksKeyStore(webClientBuilder, jwksUri,
+                List.of(JwksKeyStore.bootstrapKey(loadPublicKey(publicKeyLocation))),
+                refreshInterval, minRefreshInterval);
+    }
+
+    /**
+     * Creates the global filter that verifies bearer tokens and forwards their claims.
+     *
+     * @param jwksKeyStore Verification keys of the auth service
+     * @param internalAuthSecret Shared HMAC secret of the internal auth header
+     * @param cacheSize Maximum number of verified tokens cached
+     * @param meterRegistry Registry for verification metrics
+     * @return JwtVerificationFilter applied to every route
+     */
+    @Bean
+    public JwtVerificationFilter jwtVerificationFilter(
+            JwksKeyStore jwksKeyStore,
+            @Value("${finpay.security.internal-auth.secret:}") String internalAuthSecret,
+            @Value("${finpay.security.jwt.cache-size:50000}") long cacheSize,
+            MeterRegistry meterRegistry) {
+        return new JwtVerificationFilter(jwksKeyStore, internalAuthSecret, cacheSize, meterRegistry);
+    }
+
+    /**
+     * Loads an RSA public key from a PEM file on the classpath.
+     *
+     * @param path Classpath resource path to the public key PEM file
+     * @return RSAPublicKey for JWT validation
+     * @throws IOException If the file cannot be read
+     * @throws GeneralSecurityException If the key cannot be parsed
+     */
+    private static RSAPublicKey loadPublicKey(String path) throws IOException, GeneralSecurityException {
+        try (InputStream inputStream = new ClassPathResource(path).getInputStream()) {
+            String pem = new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII)
+                    .replaceAll("-----\\w+ PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+            X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(pem));
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(keySpec);
+        }
+    }
+}
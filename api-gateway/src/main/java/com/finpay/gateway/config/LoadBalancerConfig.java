@@ -0,0 +1,53 @@
+package com.finpay.gateway.config;
+
+import com.finpay.gateway.loadbalancer.UpstreamInstanceTracker;
+import com.finpay.gateway.loadbalancer.UpstreamLoadBalancerConfiguration;
+import com.finpay.gateway.loadbalancer.UpstreamReleaseFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for upstream load balancing in the API Gateway.
+ * Routes use lb://&lt;service-id&gt; URIs; each service resolves to a pool of
+ * health-checked instances balanced by least outstanding requests.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = UpstreamLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Creates the tracker of per-instance load, latency and outlier ejection.
+     * Registered as a load balancer lifecycle for every service.
+     *
+     * @param meterRegistry Registry for per-instance latency histograms
+     * @param consecutiveFailures Consecutive failures that eject an instance
+     * @param baseEjection Duration of the first ejection
+     * @param maxEjection Longest ejection
+     * @return UpstreamInstanceTracker shared by all services
+     */
+    @Bean
+    public UpstreamInstanceTracker upstreamInstanceTracker(
+            MeterRegistry meterRegistry,
+            @Value("${finpay.gateway.load-balancer.outlier.consecutive-failures:5}") int consecutiveFailures,
+            @Value("${finpay.gateway.load-balancer.outlier.base-ejection:30s}") Duration baseEjection,
+            @Value("${finpay.gateway.load-balancer.outlier.max-ejection:5m}") Duration maxEjection) {
+        return new UpstreamInstanceTracker(meterRegistry, consecutiveFailures, baseEjection, maxEjection);
+    }
+
+    /**
+     * Creates the filter that releases an upstream request's outstanding count when the
+     * exchange ends, including on cancellation.
+     *
+     * @param tracker Live statistics of upstream instances
+     * @return UpstreamReleaseFilter
+     */
+    @Bean
+    public UpstreamReleaseFilter upstreamReleaseFilter(UpstreamInstanceTracker tracker) {
+        return new UpstreamReleaseFilter(tracker);
+    }
+}
@@ -1,49 +1,102 @@
 package com.finpay.gateway.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.gateway.ratelimit.ClaimKeyResolver;
+import com.finpay.gateway.ratelimit.HybridRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import reactor.core.publisher.Mono;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration class for rate limiting in the API Gateway.
- * Uses Redis-based rate limiting to control request rates per user.
+ * Uses a hybrid limiter: decisions are made from tokens leased to this instance,
+ * and Redis holds the global bucket the leases are taken from.
  */
 @Configuration
 public class RateLimiterConfig {
 
     /**
-     * Creates a Redis-based rate limiter bean.
-     * Configures rate limiting to 1 request per second with a burst capacity of 10.
-     * This prevents API abuse and ensures fair resource allocation across users.
+     * Creates the hybrid local + Redis rate limiter bean.
+     * Defaults to 1 request per second with a burst capacity of 10 per user, leasing
+     * tokens from Redis in batches so most requests never touch Redis.
+     * Marked primary so it replaces the auto-configured RedisRateLimiter.
+     * Per-tier limits are read from finpay.gateway.rate-limiter.tiers.&lt;scope&gt;.*.
      *
-     * @return RedisRateLimiter configured with replenish rate and burst capacity
+     * @param environment Environment holding the tier limits
+     * @param redisTemplate Reactive Redis template
+     * @param configurationService Gateway configuration service
+     * @param meterRegistry Registry for rate limiter metrics
+     * @param replenishRate Tokens added to the global bucket per second
+     * @param burstCapacity Maximum tokens in the global bucket
+     * @param leaseSize Tokens leased from Redis per call
+     * @param degradedShare Share of the global limit each instance enforces when Redis is down
+     * @param redisTimeout Maximum wait for a Redis lease
+     * @param degradedRetry Time spent in local-only mode before retrying Redis
+     * @param maxBuckets Maximum local buckets kept in memory
+     * @param bucketIdleExpiry Idle time after which a local bucket is dropped
+     * @return HybridRateLimiter configured with the default route limits
      */
     @Bean
-    public RedisRateLimiter redisRateLimiter() {
-        // Allow 1 request per second with burst capacity of 10
-        return new RedisRateLimiter(1, 10);
+    @Primary
+    public HybridRateLimiter hybridRateLimiter(
+            Environment environment,
+            ReactiveStringRedisTemplate redisTemplate,
+            ConfigurationService configurationService,
+            MeterRegistry meterRegistry,
+            @Value("${finpay.gateway.rate-limiter.replenish-rate:1}") int replenishRate,
+            @Value("${finpay.gateway.rate-limiter.burst-capacity:10}") int burstCapacity,
+            @Value("${finpay.gateway.rate-limiter.lease-size:5}") int leaseSize,
+            @Value("${finpay.gateway.rate-limiter.degraded-share:0.5}") double degradedShare,
+            @Value("${finpay.gateway.rate-limiter.redis-timeout:50ms}") Duration redisTimeout,
+            @Value("${finpay.gateway.rate-limiter.degraded-retry:5s}") Duration degradedRetry,
+            @Value("${finpay.gateway.rate-limiter.max-buckets:100000}") long maxBuckets,
+            @Value("${finpay.gateway.rate-limiter.bucket-idle-expiry:10m}") Duration bucketIdleExpiry) {
+        RedisScript<Long> leaseScript = RedisScript.of(
+                new ClassPathResource("scripts/token_lease.lua"), Long.class);
+        HybridRateLimiter.Config defaults = new HybridRateLimiter.Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity)
+                .setLeaseSize(leaseSize);
+        Map<String, HybridRateLimiter.Config> tiers = Binder.get(environment)
+                .bind("finpay.gateway.rate-limiter.tiers", Bindable.mapOf(String.class, HybridRateLimiter.Config.class))
+                .orElse(Map.of());
+        return new HybridRateLimiter(redisTemplate, leaseScript, configurationService, defaults, tiers,
+                degradedShare, redisTimeout, degradedRetry, maxBuckets, bucketIdleExpiry, meterRegistry);
     }
 
     /**
      * Creates a key resolver for rate limiting based on user authentication.
-     * Extracts the JWT token from the Authorization header to identify users.
-     * Anonymous users share a common rate limit.
+     * Keys buckets by the user_id claim of the JWT, prefixed with the user's tier,
+     * so a user keeps one bucket across token refreshes.
+     * API key requests get one bucket per key; anonymous users share a common rate limit.
      *
-     * @return KeyResolver that identifies users by their JWT token
+     * @param objectMapper Mapper used to read token payloads
+     * @param tierScopes Scopes with their own rate limit tier, highest priority first
+     * @param cacheSize Maximum number of resolved tokens cached
+     * @param cacheTtl How long a resolved token is cached
+     * @return KeyResolver that identifies users by their user_id claim
      */
     @Bean
-    public KeyResolver userKeyResolver() {
-        return exchange -> {
-            String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                // Use JWT token as the rate limiting key for authenticated users
-                return Mono.just(authHeader.substring(7));
-            }
-            // All anonymous requests share the same rate limit
-            return Mono.just("anonymous");
-        };
+    public KeyResolver userKeyResolver(
+            ObjectMapper objectMapper,
+            @Value("${finpay.gateway.rate-limiter.tier-scopes:}") List<String> tierScopes,
+            @Value("${finpay.gateway.rate-limiter.key-cache-size:50000}") long cacheSize,
+            @Value("${finpay.gateway.rate-limiter.key-cache-ttl:30m}") Duration cacheTtl) {
+        return new ClaimKeyResolver(objectMapper, tierScopes, cacheSize, cacheTtl);
     }
 }
 
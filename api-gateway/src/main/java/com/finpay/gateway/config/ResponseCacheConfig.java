@@ -0,0 +1,46 @@
+package com.finpay.gateway.config;
+
+import com.finpay.gateway.cache.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for the gateway's short-lived GET response cache.
+ * Absorbs polling of single transactions, accounts and fraud checks
+ * so tight client loops do not each reach the database.
+ */
+@Configuration
+public class ResponseCacheConfig {
+
+    /**
+     * Creates the filter that coalesces and caches hot GETs per principal.
+     *
+     * @param userKeyResolver Resolver identifying the requesting principal
+     * @param meterRegistry Registry for cache outcome metrics
+     * @param paths Path patterns whose GETs are coalesced and cached
+     * @param ttl Maximum time a response is cached
+     * @param maxSize Total size of cached bodies before eviction
+     * @param maxBodySize Largest body that is cached
+     * @param waitTimeout Longest time a request waits for an identical in-flight request
+     * @return ResponseCacheFilter added to the polled routes
+     */
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(
+            KeyResolver userKeyResolver,
+            MeterRegistry meterRegistry,
+            @Value("${finpay.gateway.response-cache.paths:/transactions/{id},/accounts/{id},/frauds/transactions/{id}}") List<String> paths,
+            @Value("${finpay.gateway.response-cache.ttl:1s}") Duration ttl,
+            @Value("${finpay.gateway.response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${finpay.gateway.response-cache.max-body-size:256KB}") DataSize maxBodySize,
+            @Value("${finpay.gateway.response-cache.wait-timeout:5s}") Duration waitTimeout) {
+        return new ResponseCacheFilter(paths, userKeyResolver, ttl, maxSize.toBytes(),
+                (int) maxBodySize.toBytes(), waitTimeout, meterRegistry);
+    }
+}
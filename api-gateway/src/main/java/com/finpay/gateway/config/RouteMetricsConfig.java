@@ -0,0 +1,76 @@
+package com.finpay.gateway.config;
+
+import com.finpay.gateway.metrics.RouteLatencyEndpoint;
+import com.finpay.gateway.metrics.RouteMetrics;
+import com.finpay.gateway.metrics.RouteMetricsFilter;
+import com.finpay.gateway.metrics.TraceExemplars;
+import com.finpay.gateway.metrics.UpstreamTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.prometheus.client.exemplars.tracer.common.SpanContextSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for per-route latency and size histograms.
+ * Separates time spent in the gateway from time spent waiting on upstream services.
+ */
+@Configuration
+public class RouteMetricsConfig {
+
+    /**
+     * Creates the per-route, per-status histograms.
+     *
+     * @param meterRegistry Registry the histograms are registered with
+     * @return RouteMetrics shared by the filters and the endpoint
+     */
+    @Bean
+    public RouteMetrics routeMetrics(MeterRegistry meterRegistry) {
+        return new RouteMetrics(meterRegistry);
+    }
+
+    /**
+     * Creates the global filter recording every routed request.
+     *
+     * @param routeMetrics Route histograms
+     * @return RouteMetricsFilter running before all other gateway filters
+     */
+    @Bean
+    public RouteMetricsFilter routeMetricsFilter(RouteMetrics routeMetrics) {
+        return new RouteMetricsFilter(routeMetrics);
+    }
+
+    /**
+     * Creates the global filter timing the upstream call.
+     *
+     * @return UpstreamTimingFilter running just before the routing filter
+     */
+    @Bean
+    public UpstreamTimingFilter upstreamTimingFilter() {
+        return new UpstreamTimingFilter();
+    }
+
+    /**
+     * Creates the actuator endpoint with percentile snapshots of the histograms.
+     *
+     * @param routeMetrics Route histograms
+     * @return RouteLatencyEndpoint exposed as /actuator/routelatency
+     */
+    @Bean
+    public RouteLatencyEndpoint routeLatencyEndpoint(RouteMetrics routeMetrics) {
+        return new RouteLatencyEndpoint(routeMetrics);
+    }
+
+    /**
+     * Supplies trace exemplars for Prometheus histograms, replacing Boot's tracer-only
+     * supplier so requests completing on event loop threads are linked to their trace.
+     *
+     * @param tracer Tracer used for meters recorded outside the route filter
+     * @return SpanContextSupplier used by the Prometheus exemplar sampler
+     */
+    @Bean
+    public SpanContextSupplier spanContextSupplier(ObjectProvider<Tracer> tracer) {
+        return new TraceExemplars(tracer);
+    }
+}
@@ -0,0 +1,50 @@
+package com.finpay.gateway.config;
+
+import com.finpay.gateway.resilience.RouteProtection;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.DispatcherHandler;
+
+/**
+ * Configuration class for per-route protection in the API Gateway.
+ * Every service route gets a circuit breaker, a bulkhead and an adaptive
+ * concurrency limit so a slow backend cannot pile up unbounded requests.
+ */
+@Configuration
+public class RouteProtectionConfig {
+
+    /**
+     * Creates the route protection factory used by GatewayRoutesConfig.
+     * Settings are read from finpay.gateway.protection.defaults, overridden
+     * per route by finpay.gateway.protection.routes.&lt;route-id&gt;.
+     *
+     * @param environment Environment holding the protection settings
+     * @param circuitBreakerRegistry Registry of resilience4j circuit breakers
+     * @param timeLimiterRegistry Registry of resilience4j time limiters
+     * @param dispatcherHandler Handler used to forward to fallback endpoints (resolved lazily)
+     * @param meterRegistry Registry for route protection metrics
+     * @return RouteProtection factory
+     */
+    @Bean
+    public RouteProtection routeProtection(Environment environment,
+                                           CircuitBreakerRegistry circuitBreakerRegistry,
+                                           TimeLimiterRegistry timeLimiterRegistry,
+                                           ObjectProvider<DispatcherHandler> dispatcherHandler,
+                                           MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        RouteProtection.Settings defaults = binder
+                .bind("finpay.gateway.protection.defaults", RouteProtection.Settings.class)
+                .orElseGet(RouteProtection.Settings::new);
+        return new RouteProtection(circuitBreakerRegistry, timeLimiterRegistry, dispatcherHandler, meterRegistry,
+                routeId -> binder
+                        .bind("finpay.gateway.protection.routes." + routeId, Bindable.ofInstance(defaults.copy()))
+                        .orElseGet(defaults::copy));
+    }
+}
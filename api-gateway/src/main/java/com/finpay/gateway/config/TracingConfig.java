@@ -0,0 +1,110 @@
+package com.finpay.gateway.config;
+
+import brave.TracingCustomizer;
+import brave.handler.SpanHandler;
+import brave.sampler.Sampler;
+import com.finpay.gateway.tracing.EndpointSampler;
+import com.finpay.gateway.tracing.EndpointSamplingReceiverHandler;
+import com.finpay.gateway.tracing.TailSamplingSpanHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.MicrometerTracingAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class for distributed tracing.
+ * Configures Brave sampling of the traces started at the gateway: per-endpoint
+ * traces-per-second budgets, by default decided at the tail like in the services.
+ */
+@Configuration
+public class TracingConfig {
+
+    /** Sampling mode recording every trace and exporting only interesting ones */
+    private static final String TAIL_MODE = "tail";
+
+    /**
+     * Creates the per-endpoint traces-per-second budgets.
+     *
+     * @param rules Endpoint rules, "METHOD /path/pattern=tracesPerSecond"
+     * @param defaultRate Traces per second of requests matching no rule
+     * @return EndpointSampler used for head decisions and as tail keep budget
+     */
+    @Bean
+    public EndpointSampler endpointSampler(
+            @Value("${finpay.tracing.sampling.endpoints:}") List<String> rules,
+            @Value("${finpay.tracing.sampling.default-rate:10}") int defaultRate) {
+        return new EndpointSampler(rules, defaultRate);
+    }
+
+    /**
+     * Creates the Brave sampler deciding which traces starting at the gateway are recorded,
+     * replacing Spring Boot's probability sampler.
+     * In tail mode every trace is recorded, so the services downstream also see every trace
+     * and take their own tail decision (failed and slow requests are always kept); in head
+     * mode the endpoint budgets decide up front for the whole trace.
+     *
+     * @param endpointSampler Per-endpoint budgets
+     * @param mode Sampling mode, head or tail
+     * @return Sampler used by Brave
+     */
+    @Bean
+    @Primary
+    public Sampler braveSampler(EndpointSampler endpointSampler,
+                                @Value("${finpay.tracing.sampling.mode:tail}") String mode) {
+        return TAIL_MODE.equals(mode) ? Sampler.ALWAYS_SAMPLE : endpointSampler;
+    }
+
+    /**
+     * In tail mode, puts the tail sampling handler in front of the exporting span handlers
+     * (Zipkin), so only kept traces are exported.
+     *
+     * @param endpointSampler Per-endpoint budgets for traces that are neither failed nor slow
+     * @param mode Sampling mode, head or tail
+     * @param slowThreshold Root span duration from which a trace is always exported
+     * @param maxPendingTraces Maximum number of traces buffered while waiting for their root span
+     * @param meterRegistry Registry for span export counters
+     * @return TracingCustomizer applied by Spring Boot when building Brave's Tracing
+     */
+    @Bean
+    public TracingCustomizer tailSamplingCustomizer(
+            EndpointSampler endpointSampler,
+            @Value("${finpay.tracing.sampling.mode:tail}") String mode,
+            @Value("${finpay.tracing.sampling.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${finpay.tracing.sampling.max-pending-traces:10000}") long maxPendingTraces,
+            MeterRegistry meterRegistry) {
+        return builder -> {
+            if (!TAIL_MODE.equals(mode)) {
+                return;
+            }
+            List<SpanHandler> exporters = new ArrayList<>(builder.spanHandlers());
+            builder.clearSpanHandlers();
+            builder.addSpanHandler(new TailSamplingSpanHandler(exporters, endpointSampler, slowThreshold,
+                    maxPendingTraces, meterRegistry));
+        };
+    }
+
+    /**
+     * Creates the receiver tracing handler binding each request's budget while its server
+     * span starts, replacing Spring Boot's handler.
+     *
+     * @param tracer Tracer creating the server spans
+     * @param propagator Propagator extracting incoming trace context
+     * @param endpointSampler Per-endpoint budgets
+     * @return EndpointSamplingReceiverHandler in the receiver handler's position
+     */
+    @Bean
+    @Order(MicrometerTracingAutoConfiguration.RECEIVER_TRACING_OBSERVATION_HANDLER_ORDER)
+    public EndpointSamplingReceiverHandler propagatingReceiverTracingObservationHandler(
+            Tracer tracer, Propagator propagator, EndpointSampler endpointSampler) {
+        return new EndpointSamplingReceiverHandler(tracer, propagator, endpointSampler);
+    }
+}
@@ -1,24 +1,90 @@
 package com.finpay.gateway.controller;
 
+import com.finpay.gateway.resilience.RouteProtectionFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 
 /**
  * Fallback controller for handling circuit breaker failures.
  * Provides fallback responses when downstream services are unavailable.
+ * Responses are 503 with a Retry-After header so clients back off instead of retrying at once.
  */
 @RestController
 public class FallbackController {
+
+    /**
+     * Fallback endpoint for Auth Service failures.
+     *
+     * @param exchange Current exchange, carrying the fallback reason
+     * @return ResponseEntity with fallback message
+     */
+    @RequestMapping("/fallback/auth")
+    public ResponseEntity<String> authFallback(ServerWebExchange exchange) {
+        return unavailable("Auth Service", exchange);
+    }
+
+    /**
+     * Fallback endpoint for Account Service failures.
+     *
+     * @param exchange Current exchange, carrying the fallback reason
+     * @return ResponseEntity with fallback message
+     */
+    @RequestMapping("/fallback/accounts")
+    public ResponseEntity<String> accountFallback(ServerWebExchange exchange) {
+        return unavailable("Account Service", exchange);
+    }
+
     /**
      * Fallback endpoint for Transaction Service failures.
      * Returns a user-friendly message when the transaction service is down
      * or not responding due to circuit breaker activation.
      *
+     * @param exchange Current exchange, carrying the fallback reason
      * @return ResponseEntity with fallback message
      */
     @RequestMapping("/fallback/transactions")
-    public ResponseEntity<String> transactionFallback() {
-        return ResponseEntity.ok("Transaction Service is currently unavailable. Please try again later.");
+    public ResponseEntity<String> transactionFallback(ServerWebExchange exchange) {
+        return unavailable("Transaction Service", exchange);
+    }
+
+    /**
+     * Fallback endpoint for Notification Service failures.
+     *
+     * @param exchange Current exchange, carrying the fallback reason
+     * @return ResponseEntity with fallback message
+     */
+    @RequestMapping("/fallback/notifications")
+    public ResponseEntity<String> notificationFallback(ServerWebExchange exchange) {
+        return unavailable("Notification Service", exchange);
+    }
+
+    /**
+     * Fallback endpoint for Fraud Service failures.
+     *
+     * @param exchange Current exchange, carrying the fallback reason
+     * @return ResponseEntity with fallback message
+     */
+    @RequestMapping("/fallback/frauds")
+    public ResponseEntity<String> fraudFallback(ServerWebExchange exchange) {
+        return unavailable("Fraud Service", exchange);
+    }
+
+    /**
+     * Builds the fallback response for a service.
+     *
+     * @param service Human-readable service name
+     * @param exchange Current exchange
+     * @return 503 response with Retry-After and the reason the route is unavailable
+     */
+    private ResponseEntity<String> unavailable(String service, ServerWebExchange exchange) {
+        String reason = exchange.getAttributeOrDefault(RouteProtectionFilter.FALLBACK_REASON_ATTRIBUTE, "unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .header("X-FinPay-Fallback-Reason", reason)
+                .body(service + " is currently unavailable. Please try again later.");
     }
 }
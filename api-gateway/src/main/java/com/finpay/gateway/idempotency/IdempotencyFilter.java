@@ -0,0 +1,240 @@
+package com.finpay.gateway.idempotency;
+
+import com.finpay.gateway.cache.CapturedResponse;
+import com.finpay.gateway.cache.CapturingResponse;
+import com.finpay.gateway.ratelimit.ClaimKeyResolver;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Answers retried requests carrying an Idempotency-Key at the gateway.
+ * <p>
+ * Keys are tracked per principal and path. The principal is a bearer token's user, verified
+ * by the JWT filter before route filters run, or an API key. Requests without one are
+ * forwarded untouched, so anonymous callers never see each other's responses. While the first request for a key is in flight,
+ * concurrent duplicates wait for its response instead of reaching the backend. Once it
+ * completes with a terminal response, that response is replayed to later retries from a
+ * bounded cache (marked with {@code Idempotent-Replayed: true}) until it expires.
+ * <p>
+ * Terminal means 2xx, or 4xx other than auth, timeout, conflict and rate limit errors,
+ * unless the backend marks the result retryable with {@code Idempotency-Retryable: true}
+ * (e.g. a failed transfer it will retry). 5xx responses are shared with waiting duplicates
+ * but never replayed later.
+ * <p>
+ * With a {@link RedisIdempotencyStore}, completed responses are shared between gateway
+ * instances and a Redis lock makes duplicates arriving at other instances wait too.
+ */
+public class IdempotencyFilter implements GatewayFilter {
+
+    /** Request header carrying the client's idempotency key */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /** Response header marking a replayed response */
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    /** Response header by which the backend marks a result as safe to retry */
+    public static final String RETRYABLE = "Idempotency-Retryable";
+
+    private static final Set<Integer> NON_TERMINAL_4XX = Set.of(401, 403, 408, 409, 425, 429);
+    private static final CapturedResponse NONE = new CapturedResponse(HttpStatusCode.valueOf(500), null, null, 0);
+
+    private final List<PathPattern> paths;
+    private final KeyResolver principalResolver;
+    private final int maxBodySize;
+    private final Duration waitTimeout;
+    private final RedisIdempotencyStore store;
+    private final Cache<String, CapturedResponse> completed;
+    private final ConcurrentMap<String, Mono<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter forwarded;
+    private final Counter replayed;
+    private final Counter joined;
+
+    /**
+     * Creates the filter.
+     *
+     * @param paths Path patterns whose requests honour Idempotency-Key
+     * @param principalResolver Resolver of the requesting principal
+     * @param retention How long completed responses are replayed
+     * @param maxEntries Maximum completed responses kept in memory
+     * @param maxBodySize Largest response body that is kept
+     * @param waitTimeout Longest time a duplicate waits for the first request
+     * @param store Shared Redis store, or null to track keys in memory only
+     * @param meterRegistry Registry for forwarded, replayed and joined counters
+     */
+    public IdempotencyFilter(List<String> paths,
+                             KeyResolver principalResolver,
+                             Duration retention,
+                             long maxEntries,
+                             int maxBodySize,
+                             Duration waitTimeout,
+                             RedisIdempotencyStore store,
+                             MeterRegistry meterRegistry) {
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.principalResolver = principalResolver;
+        this.maxBodySize = maxBodySize;
+        this.waitTimeout = waitTimeout;
+        this.store = store;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(retention)
+                .build();
+
+        this.forwarded = outcomeCounter(meterRegistry, "forwarded");
+        this.replayed = outcomeCounter(meterRegistry, "replayed");
+        this.joined = outcomeCounter(meterRegistry, "joined");
+    }
+
+    /**
+     * Replays, joins or forwards a request carrying an Idempotency-Key.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the response is written
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String idempotencyKey = request.getHeaders().getFirst(IDEMPOTENCY_KEY);
+        if (idempotencyKey == null || request.getMethod() != HttpMethod.POST || !matches(request)) {
+            return chain.filter(exchange);
+        }
+        return principalResolver.resolve(exchange)
+                .defaultIfEmpty(ClaimKeyResolver.ANONYMOUS)
+                .flatMap(principal -> ClaimKeyResolver.ANONYMOUS.equals(principal)
+                        ? chain.filter(exchange)
+                        : serve(exchange, chain, principal + ' ' + request.getPath().value() + ' ' + idempotencyKey));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, String key) {
+        CapturedResponse done = completed.getIfPresent(key);
+        if (done != null) {
+            return replay(exchange, done);
+        }
+
+        Sinks.One<CapturedResponse> sink = Sinks.one();
+        Mono<CapturedResponse> shared = sink.asMono();
+        Mono<CapturedResponse> first = inFlight.putIfAbsent(key, shared);
+        if (first != null) {
+            joined.increment();
+            return first
+                    .timeout(waitTimeout, Mono.just(NONE))
+                    .flatMap(response -> response == NONE
+                            ? chain.filter(exchange)
+                            : replay(exchange, response));
+        }
+
+        Mono<Void> handled = store == null
+                ? forward(exchange, chain, key, sink)
+                : fromStore(exchange, chain, key, sink);
+        return handled.doFinally(signal -> {
+            // Error, cancellation or uncaptured response: duplicates go upstream themselves
+            if (inFlight.remove(key, shared)) {
+                sink.tryEmitValue(NONE);
+            }
+        });
+    }
+
+    /**
+     * Looks the key up in Redis, waiting for another instance that holds its lock,
+     * before forwarding the request. A lock taken here is released however the forwarded
+     * request ends: completion, error or cancellation.
+     */
+    private Mono<Void> fromStore(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                                 Sinks.One<CapturedResponse> sink) {
+        return store.find(key)
+                .switchIfEmpty(Mono.defer(() -> store.tryLock(key)
+                        .flatMap(locked -> locked
+                                ? Mono.usingWhen(Mono.just(key),
+                                                lockedKey -> forward(exchange, chain, lockedKey, sink),
+                                                store::unlock,
+                                                (lockedKey, error) -> store.unlock(lockedKey),
+                                                store::unlock)
+                                        .then(Mono.<CapturedResponse>empty())
+                                : store.await(key, waitTimeout)
+                                        .switchIfEmpty(Mono.defer(() -> forward(exchange, chain, key, sink)
+                                                .then(Mono.empty()))))))
+                .flatMap(response -> {
+                    completed.put(key, response);
+                    publish(key, sink, response);
+                    return replay(exchange, response);
+                });
+    }
+
+    /**
+     * Sends the request upstream and records its response for duplicates and retries.
+     */
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                               Sinks.One<CapturedResponse> sink) {
+        forwarded.increment();
+        CapturingResponse capturing = new CapturingResponse(exchange.getResponse(), maxBodySize);
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .then(Mono.defer(() -> {
+                    CapturedResponse response = capturing.toCapturedResponse();
+                    if (response == null) {
+                        return Mono.empty();
+                    }
+                    publish(key, sink, response);
+                    if (!isTerminal(response)) {
+                        return Mono.empty();
+                    }
+                    completed.put(key, response);
+                    return store != null ? store.save(key, response) : Mono.empty();
+                }));
+    }
+
+    private void publish(String key, Sinks.One<CapturedResponse> sink, CapturedResponse response) {
+        inFlight.remove(key, sink.asMono());
+        sink.tryEmitValue(response);
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, CapturedResponse response) {
+        replayed.increment();
+        exchange.getResponse().getHeaders().set(REPLAYED, "true");
+        return response.writeTo(exchange.getResponse());
+    }
+
+    private static boolean isTerminal(CapturedResponse response) {
+        if (Boolean.parseBoolean(response.headers().getFirst(RETRYABLE))) {
+            return false;
+        }
+        HttpStatusCode status = response.status();
+        return status.is2xxSuccessful()
+                || (status.is4xxClientError() && !NON_TERMINAL_4XX.contains(status.value()));
+    }
+
+    private boolean matches(ServerHttpRequest request) {
+        for (PathPattern path : paths) {
+            if (path.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("finpay.gateway.idempotency")
+                .description("Requests with an Idempotency-Key by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
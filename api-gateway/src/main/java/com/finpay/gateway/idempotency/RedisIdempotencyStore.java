@@ -0,0 +1,170 @@
+package com.finpay.gateway.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.gateway.cache.CapturedResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares idempotent responses and in-flight locks between gateway instances through Redis.
+ * <p>
+ * Redis errors are treated as a miss (or a granted lock) so an unavailable Redis
+ * degrades to per-instance deduplication instead of failing transfers.
+ */
+public class RedisIdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisIdempotencyStore.class);
+
+    private static final String RESULT_PREFIX = "idempotency:result:";
+    private static final String LOCK_PREFIX = "idempotency:lock:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration lockTtl;
+    private final Duration pollInterval;
+
+    /**
+     * Creates the store.
+     *
+     * @param redisTemplate Reactive Redis template
+     * @param objectMapper Mapper used to serialize responses
+     * @param retention How long completed responses are kept
+     * @param lockTtl How long an in-flight lock survives a crashed instance
+     * @param pollInterval How often waiting duplicates check for the result
+     */
+    public RedisIdempotencyStore(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                 Duration retention, Duration lockTtl, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.lockTtl = lockTtl;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Looks up a completed response.
+     *
+     * @param key Idempotency key
+     * @return Mono with the stored response, empty if none
+     */
+    public Mono<CapturedResponse> find(String key) {
+        return redisTemplate.opsForValue().get(RESULT_PREFIX + key)
+                .mapNotNull(this::deserialize)
+                .onErrorResume(e -> {
+                    log.warn("Idempotency lookup failed, treating as miss: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Takes the in-flight lock of a key.
+     *
+     * @param key Idempotency key
+     * @return Mono with true if this instance should forward the request
+     */
+    public Mono<Boolean> tryLock(String key) {
+        return redisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + key, "1", lockTtl)
+                .onErrorResume(e -> {
+                    log.warn("Idempotency lock failed, forwarding: {}", e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Releases the in-flight lock of a key.
+     *
+     * @param key Idempotency key
+     * @return Mono completing when the lock is released
+     */
+    public Mono<Void> unlock(String key) {
+        return redisTemplate.delete(LOCK_PREFIX + key)
+                .onErrorResume(e -> Mono.just(0L))
+                .then();
+    }
+
+    /**
+     * Stores a completed response.
+     *
+     * @param key Idempotency key
+     * @param response Terminal response
+     * @return Mono completing when the response is stored
+     */
+    public Mono<Void> save(String key, CapturedResponse response) {
+        String json = serialize(response);
+        if (json == null) {
+            return Mono.empty();
+        }
+        return redisTemplate.opsForValue().set(RESULT_PREFIX + key, json, retention)
+                .onErrorResume(e -> {
+                    log.warn("Idempotency save failed: {}", e.getMessage());
+                    return Mono.just(false);
+                })
+                .then();
+    }
+
+    /**
+     * Waits for another instance holding the lock to store its response.
+     *
+     * @param key Idempotency key
+     * @param timeout Longest time to wait
+     * @return Mono with the stored response, empty if the lock is released without one or on timeout
+     */
+    public Mono<CapturedResponse> await(String key, Duration timeout) {
+        return Flux.interval(pollInterval)
+                .concatMap(tick -> find(key)
+                        .switchIfEmpty(redisTemplate.hasKey(LOCK_PREFIX + key)
+                                .onErrorReturn(false)
+                                .flatMap(locked -> locked ? Mono.empty() : Mono.just(StoredResult.RELEASED))))
+                .next()
+                .filter(response -> response != StoredResult.RELEASED)
+                .timeout(timeout, Mono.empty());
+    }
+
+    private String serialize(CapturedResponse response) {
+        try {
+            return objectMapper.writeValueAsString(new StoredResult(response.status().value(),
+                    response.headers(), Base64.getEncoder().encodeToString(response.body())));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize idempotent response: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CapturedResponse deserialize(String json) {
+        try {
+            StoredResult stored = objectMapper.readValue(json, StoredResult.class);
+            HttpHeaders headers = new HttpHeaders();
+            stored.headers().forEach(headers::addAll);
+            return new CapturedResponse(HttpStatusCode.valueOf(stored.status()), headers,
+                    Base64.getDecoder().decode(stored.body()), System.nanoTime());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable idempotent response: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Serialized form of a stored response.
+     *
+     * @param status Status code
+     * @param headers Response headers
+     * @param body Base64 encoded body
+     */
+    private record StoredResult(int status, Map<String, List<String>> headers, String body) {
+
+        /** Marker for a lock released without a stored result */
+        static final CapturedResponse RELEASED = new CapturedResponse(HttpStatusCode.valueOf(500), null, null, 0);
+    }
+}
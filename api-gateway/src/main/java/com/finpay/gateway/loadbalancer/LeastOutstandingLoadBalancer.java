@@ -0,0 +1,136 @@
+package com.finpay.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load balancer that sends each request to the instance with the fewest outstanding requests.
+ * <p>
+ * In {@link Strategy#POWER_OF_TWO_CHOICES} mode it compares two random instances, which
+ * avoids herding onto the single least-loaded instance when many gateways decide at once;
+ * {@link Strategy#LEAST_OUTSTANDING} compares all of them. Ties go to the instance with the
+ * lower average latency, so traffic drifts away from slow instances even at low load.
+ * Instances ejected as outliers are skipped unless every instance is ejected.
+ */
+public class LeastOutstandingLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    /**
+     * Instance selection strategy.
+     */
+    public enum Strategy {
+        /** Pick the better of two random instances */
+        POWER_OF_TWO_CHOICES,
+        /** Pick the best of all instances */
+        LEAST_OUTSTANDING
+    }
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final UpstreamInstanceTracker tracker;
+    private final Strategy strategy;
+
+    /**
+     * Creates the load balancer of one service.
+     *
+     * @param supplierProvider Provider of the service's instance list supplier
+     * @param serviceId Service id
+     * @param tracker Live statistics of upstream instances
+     * @param strategy Instance selection strategy
+     */
+    public LeastOutstandingLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                        String serviceId,
+                                        UpstreamInstanceTracker tracker,
+                                        Strategy strategy) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.tracker = tracker;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Chooses an instance for a request.
+     *
+     * @param request Load balancer request
+     * @return Mono emitting the selected instance, or an empty response if none is available
+     */
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::select);
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> candidates = available(instances);
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        ServiceInstance selected;
+        if (strategy == Strategy.POWER_OF_TWO_CHOICES) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            selected = better(candidates.get(first), candidates.get(second));
+        } else {
+            selected = candidates.get(0);
+            for (int i = 1; i < candidates.size(); i++) {
+                selected = better(selected, candidates.get(i));
+            }
+        }
+        return new DefaultResponse(selected);
+    }
+
+    /**
+     * Drops ejected instances, unless that would leave none.
+     *
+     * @param instances Healthy instances of the service
+     * @return Instances eligible for selection
+     */
+    private List<ServiceInstance> available(List<ServiceInstance> instances) {
+        List<ServiceInstance> available = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!tracker.stats(instance).isEjected()) {
+                available.add(instance);
+            }
+        }
+        return available.isEmpty() ? instances : available;
+    }
+
+    private ServiceInstance better(ServiceInstance a, ServiceInstance b) {
+        UpstreamInstanceTracker.InstanceStats statsA = tracker.stats(a);
+        UpstreamInstanceTracker.InstanceStats statsB = tracker.stats(b);
+        int outstandingA = statsA.getOutstanding();
+        int outstandingB = statsB.getOutstanding();
+        if (outstandingA != outstandingB) {
+            return outstandingA < outstandingB ? a : b;
+        }
+        return statsA.getAverageLatencyNanos() <= statsB.getAverageLatencyNanos() ? a : b;
+    }
+
+    /**
+     * Service this load balancer selects instances for.
+     *
+     * @return Service id
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+}
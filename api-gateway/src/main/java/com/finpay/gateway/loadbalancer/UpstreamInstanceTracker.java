@@ -0,0 +1,273 @@
+package com.finpay.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks live statistics of every upstream instance the gateway routes to.
+ * <p>
+ * Registered as a load balancer lifecycle, it sees each request start and complete on its
+ * selected instance and keeps per instance: outstanding requests, a latency moving average,
+ * a latency histogram ({@code finpay.gateway.upstream.latency}, tagged by service and
+ * instance) and consecutive failures. After too many consecutive failures (errors or 5xx)
+ * the instance is ejected for a while; each further ejection doubles the time, up to a cap.
+ * <p>
+ * The load balancer client filter reports completion only on success or error, not when the
+ * client goes away. Each started request therefore leaves a {@link Lease} in the exchange
+ * attributes, which {@link UpstreamReleaseFilter} releases once the exchange finishes for any
+ * reason; releasing is idempotent, so the outstanding count is decremented exactly once.
+ */
+public class UpstreamInstanceTracker
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamInstanceTracker.class);
+
+    /** Exchange attribute holding the {@link Lease} of the request's selected instance */
+    public static final String LEASE_ATTRIBUTE = UpstreamInstanceTracker.class.getName() + ".lease";
+
+    /** Weight of a sample in the latency moving average */
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final MeterRegistry meterRegistry;
+    private final int consecutiveFailures;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final ConcurrentMap<String, InstanceStats> instances = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the tracker.
+     *
+     * @param meterRegistry Registry for per-instance latency histograms
+     * @param consecutiveFailures Consecutive failures that eject an instance
+     * @param baseEjection Duration of the first ejection
+     * @param maxEjection Longest ejection
+     */
+    public UpstreamInstanceTracker(MeterRegistry meterRegistry, int consecutiveFailures,
+                                   Duration baseEjection, Duration maxEjection) {
+        this.meterRegistry = meterRegistry;
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionNanos = baseEjection.toNanos();
+        this.maxEjectionNanos = maxEjection.toNanos();
+    }
+
+    /**
+     * Returns the statistics of an instance, creating them on first use.
+     *
+     * @param instance Upstream instance
+     * @return Live statistics of the instance
+     */
+    public InstanceStats stats(ServiceInstance instance) {
+        return instances.computeIfAbsent(key(instance), k -> new InstanceStats(
+                Timer.builder("finpay.gateway.upstream.latency")
+                        .description("Response time of an upstream instance")
+                        .tag("service", instance.getServiceId())
+                        .tag("instance", instance.getHost() + ':' + instance.getPort())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)));
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    /**
+     * Counts a request as outstanding on its selected instance.
+     *
+     * @param request Load balancer request
+     * @param lbResponse Selected instance
+     */
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        InstanceStats stats = stats(lbResponse.getServer());
+        stats.outstanding.incrementAndGet();
+        Map<String, Object> attributes = attributes(request);
+        if (attributes != null) {
+            attributes.put(LEASE_ATTRIBUTE, new Lease(stats));
+        }
+    }
+
+    /**
+     * Releases the outstanding request an exchange holds, if it still holds one.
+     *
+     * @param attributes Exchange attributes
+     */
+    public void release(Map<String, Object> attributes) {
+        if (attributes.get(LEASE_ATTRIBUTE) instanceof Lease lease) {
+            lease.release();
+        }
+    }
+
+    /**
+     * Records the outcome and latency of a request on its instance.
+     *
+     * @param completionContext Completed request
+     */
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats stats = stats(lbResponse.getServer());
+        Map<String, Object> attributes = attributes(completionContext.getLoadBalancerRequest());
+        if (attributes != null && attributes.get(LEASE_ATTRIBUTE) instanceof Lease lease) {
+            lease.release();
+        } else {
+            stats.outstanding.decrementAndGet();
+        }
+
+        long start = completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+                ? timed.getRequestStartTime() : 0;
+        if (start > 0) {
+            long latency = System.nanoTime() - start;
+            stats.latency.record(latency, TimeUnit.NANOSECONDS);
+            stats.recordLatency(latency);
+        }
+
+        ResponseData response = completionContext.getClientResponse();
+        HttpStatusCode status = response != null ? response.getHttpStatus() : null;
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (status != null && status.is5xxServerError());
+        if (failed) {
+            onFailure(lbResponse.getServer(), stats);
+        } else {
+            stats.onSuccess();
+        }
+    }
+
+    private void onFailure(ServiceInstance instance, InstanceStats stats) {
+        if (stats.failures.incrementAndGet() < consecutiveFailures) {
+            return;
+        }
+        stats.failures.set(0);
+        long ejection;
+        synchronized (stats) {
+            ejection = Math.min(maxEjectionNanos, baseEjectionNanos << Math.min(stats.ejections, 20));
+            stats.ejections++;
+            stats.ejectedUntilNanos = System.nanoTime() + ejection;
+        }
+        log.warn("Ejecting upstream {} {}:{} for {} ms after {} consecutive failures",
+                instance.getServiceId(), instance.getHost(), instance.getPort(),
+                TimeUnit.NANOSECONDS.toMillis(ejection), consecutiveFailures);
+    }
+
+    private static Map<String, Object> attributes(Request<RequestDataContext> request) {
+        RequestData clientRequest = request.getContext() != null ? request.getContext().getClientRequest() : null;
+        return clientRequest != null ? clientRequest.getAttributes() : null;
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+    }
+
+    /**
+     * One outstanding request on an instance, released at most once.
+     */
+    static final class Lease {
+        private final InstanceStats stats;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(InstanceStats stats) {
+            this.stats = stats;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                stats.outstanding.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Live statistics of one upstream instance.
+     */
+    public static final class InstanceStats {
+        private final Timer latency;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile double averageLatencyNanos;
+        // Guarded by this
+        private int ejections;
+        private volatile long ejectedUntilNanos;
+
+        private InstanceStats(Timer latency) {
+            this.latency = latency;
+        }
+
+        /**
+         * Requests sent to the instance and not yet completed.
+         *
+         * @return Outstanding request count
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * Moving average of the instance's response time.
+         *
+         * @return Average latency in nanos, 0 before the first response
+         */
+        public double getAverageLatencyNanos() {
+            return averageLatencyNanos;
+        }
+
+        /**
+         * Whether the instance is currently ejected as an outlier.
+         *
+         * @return true while the ejection lasts
+         */
+        public boolean isEjected() {
+            long until = ejectedUntilNanos;
+            return until != 0 && System.nanoTime() - until < 0;
+        }
+
+        private synchronized void recordLatency(long latencyNanos) {
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latencyNanos
+                    : averageLatencyNanos + (latencyNanos - averageLatencyNanos) * LATENCY_WEIGHT;
+        }
+
+        private synchronized void onSuccess() {
+            failures.set(0);
+            // A healthy response after the ejection ended resets the backoff
+            if (ejections > 0 && !isEjected()) {
+                ejections = 0;
+            }
+        }
+    }
+}
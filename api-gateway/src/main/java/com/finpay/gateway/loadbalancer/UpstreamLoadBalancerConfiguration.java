@@ -0,0 +1,59 @@
+package com.finpay.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer configuration, instantiated in each service's child context.
+ * <p>
+ * Instances come from the DiscoveryClient, which is the discovery SPI: the static
+ * spring.cloud.discovery.client.simple.instances list by default, or any registry whose
+ * discovery starter is added to the gateway. Instances failing the active health check
+ * are removed; the rest are balanced by {@link LeastOutstandingLoadBalancer}.
+ * <p>
+ * Deliberately not annotated with @Configuration so it is not picked up by component scan
+ * and applied to the main context.
+ */
+public class UpstreamLoadBalancerConfiguration {
+
+    /**
+     * Creates the health-checked instance list of the service.
+     *
+     * @param context Child context of the service
+     * @return ServiceInstanceListSupplier backed by the DiscoveryClient with health checks
+     */
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+    }
+
+    /**
+     * Creates the least-outstanding-requests load balancer of the service.
+     *
+     * @param environment Child context environment, holding the service id
+     * @param context Child context of the service
+     * @return ReactorLoadBalancer selecting among the service's instances
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                   ConfigurableApplicationContext context) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        LeastOutstandingLoadBalancer.Strategy strategy = environment.getProperty(
+                "finpay.gateway.load-balancer.strategy",
+                LeastOutstandingLoadBalancer.Strategy.class,
+                LeastOutstandingLoadBalancer.Strategy.POWER_OF_TWO_CHOICES);
+        return new LeastOutstandingLoadBalancer(
+                context.getBeanProvider(ServiceInstanceListSupplier.class),
+                serviceId,
+                context.getBean(UpstreamInstanceTracker.class),
+                strategy);
+    }
+}
@@ -0,0 +1,55 @@
+package com.finpay.gateway.loadbalancer;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Releases the outstanding request of an exchange once it finishes, including when the
+ * client cancels it.
+ * <p>
+ * Runs just before the load balancer client filter, which only reports success and error
+ * to {@link UpstreamInstanceTracker}; without this filter a cancelled request would count
+ * as outstanding on its instance forever.
+ */
+public class UpstreamReleaseFilter implements GlobalFilter, Ordered {
+
+    /** Runs immediately before the load balancer client filter */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    private final UpstreamInstanceTracker tracker;
+
+    /**
+     * Creates the filter.
+     *
+     * @param tracker Live statistics of upstream instances
+     */
+    public UpstreamReleaseFilter(UpstreamInstanceTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    /**
+     * Releases the exchange's outstanding request when the rest of the chain terminates.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the rest of the chain completes
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doFinally(signal -> tracker.release(exchange.getAttributes()));
+    }
+
+    /**
+     * Order of this filter.
+     *
+     * @return {@link #ORDER}
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
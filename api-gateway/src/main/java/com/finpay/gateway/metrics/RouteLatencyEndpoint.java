@@ -0,0 +1,72 @@
+package com.finpay.gateway.metrics;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint dumping percentile snapshots of the route histograms
+ * ({@code /actuator/routelatency}).
+ * Times are in milliseconds, sizes in bytes; snapshots cover the histograms'
+ * rolling window.
+ */
+@Endpoint(id = "routelatency")
+public class RouteLatencyEndpoint {
+
+    private final RouteMetrics metrics;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param metrics Route histograms
+     */
+    public RouteLatencyEndpoint(RouteMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Snapshots of every route.
+     *
+     * @return Route id to status to snapshots
+     */
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> routes() {
+        Map<String, Map<String, Map<String, Object>>> routes = new TreeMap<>();
+        metrics.all().forEach((routeId, byStatus) -> routes.put(routeId, snapshots(byStatus)));
+        return routes;
+    }
+
+    private static Map<String, Map<String, Object>> snapshots(Map<String, RouteMetrics.StatusMeters> byStatus) {
+        Map<String, Map<String, Object>> snapshots = new TreeMap<>();
+        byStatus.forEach((status, meters) -> {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("gatewayMs", summary(meters.gateway.takeSnapshot(), true));
+            snapshot.put("upstreamMs", summary(meters.upstream.takeSnapshot(), true));
+            snapshot.put("responseBytes", summary(meters.size.takeSnapshot(), false));
+            snapshots.put(status, snapshot);
+        });
+        return snapshots;
+    }
+
+    private static Map<String, Object> summary(HistogramSnapshot snapshot, boolean time) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.count());
+        summary.put("mean", time ? snapshot.mean(TimeUnit.MILLISECONDS) : snapshot.mean());
+        summary.put("max", time ? snapshot.max(TimeUnit.MILLISECONDS) : snapshot.max());
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + formatPercentile(percentile.percentile()),
+                    time ? percentile.value(TimeUnit.MILLISECONDS) : percentile.value());
+        }
+        return summary;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return Double.toString(percentile * 100).replaceAll("\\.0$", "").replace(".", "_");
+    }
+}
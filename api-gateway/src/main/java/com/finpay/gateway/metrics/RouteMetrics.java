@@ -0,0 +1,135 @@
+package com.finpay.gateway.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-route, per-status histograms of gateway time, upstream time and response size.
+ * <p>
+ * Meters are created on first use of a route and status and then looked up by route id
+ * and an array index, so {@link #record} itself allocates nothing once the meters exist
+ * (the per-request wrappers of {@link RouteMetricsFilter} are separate). Micrometer keeps the
+ * distributions in lock-free HdrHistogram recorders, published both as percentiles and
+ * as Prometheus histogram buckets (which carry the trace exemplars).
+ */
+public class RouteMetrics {
+
+    /** Status tag used when the exchange ended without a status, e.g. a cancelled request */
+    static final String NO_STATUS = "none";
+
+    private static final int MIN_STATUS = 100;
+    private static final int STATUS_SLOTS = 500;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicReferenceArray<StatusMeters>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the route metrics.
+     *
+     * @param meterRegistry Registry the histograms are registered with
+     */
+    public RouteMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records one completed exchange.
+     *
+     * @param routeId Id of the matched route
+     * @param status Response status, or 0 if there is none
+     * @param gatewayNanos Time spent in the gateway itself
+     * @param upstreamNanos Time until upstream response headers, or a negative value if not routed upstream
+     * @param responseBytes Response body size
+     */
+    public void record(String routeId, int status, long gatewayNanos, long upstreamNanos, long responseBytes) {
+        StatusMeters meters = meters(routeId, status);
+        meters.gateway.record(gatewayNanos, TimeUnit.NANOSECONDS);
+        if (upstreamNanos >= 0) {
+            meters.upstream.record(upstreamNanos, TimeUnit.NANOSECONDS);
+        }
+        meters.size.record(responseBytes);
+    }
+
+    /**
+     * Meters of every route and status recorded so far.
+     *
+     * @return Route id to status tag to meters
+     */
+    Map<String, Map<String, StatusMeters>> all() {
+        Map<String, Map<String, StatusMeters>> all = new TreeMap<>();
+        routes.forEach((routeId, slots) -> {
+            Map<String, StatusMeters> byStatus = new TreeMap<>();
+            for (int i = 0; i < slots.length(); i++) {
+                StatusMeters meters = slots.get(i);
+                if (meters != null) {
+                    byStatus.put(meters.status, meters);
+                }
+            }
+            all.put(routeId, byStatus);
+        });
+        return all;
+    }
+
+    private StatusMeters meters(String routeId, int status) {
+        AtomicReferenceArray<StatusMeters> slots = routes.get(routeId);
+        if (slots == null) {
+            slots = routes.computeIfAbsent(routeId, id -> new AtomicReferenceArray<>(STATUS_SLOTS + 1));
+        }
+        int slot = status >= MIN_STATUS && status < MIN_STATUS + STATUS_SLOTS ? status - MIN_STATUS : STATUS_SLOTS;
+        StatusMeters meters = slots.get(slot);
+        if (meters == null) {
+            String tag = slot == STATUS_SLOTS ? NO_STATUS : Integer.toString(status);
+            slots.compareAndSet(slot, null, new StatusMeters(routeId, tag));
+            meters = slots.get(slot);
+        }
+        return meters;
+    }
+
+    /**
+     * Histograms of one route and status.
+     */
+    final class StatusMeters {
+        final String status;
+        final Timer gateway;
+        final Timer upstream;
+        final DistributionSummary size;
+
+        private StatusMeters(String routeId, String status) {
+            this.status = status;
+            this.gateway = Timer.builder("finpay.gateway.route.gateway.time")
+                    .description("Time spent in the gateway, excluding waiting for upstream response headers")
+                    .tags("route", routeId, "status", status)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry);
+            this.upstream = Timer.builder("finpay.gateway.route.upstream.time")
+                    .description("Time from forwarding a request until the upstream response headers arrive")
+                    .tags("route", routeId, "status", status)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(60))
+                    .register(meterRegistry);
+            this.size = DistributionSummary.builder("finpay.gateway.route.response.size")
+                    .description("Response body size")
+                    .baseUnit("bytes")
+                    .tags("route", routeId, "status", status)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(64.0)
+                    .maximumExpectedValue(16.0 * 1024 * 1024)
+                    .register(meterRegistry);
+        }
+    }
+}
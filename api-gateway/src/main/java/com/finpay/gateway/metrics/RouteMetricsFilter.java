@@ -0,0 +1,132 @@
+package com.finpay.gateway.metrics;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records gateway time, upstream time and response size of every routed request.
+ * <p>
+ * Runs before all other gateway filters. Gateway time is the whole exchange minus the
+ * upstream time measured by {@link UpstreamTimingFilter}, so it covers filters, JWT
+ * verification, load balancing and writing the response body. The exchange's span is
+ * bound while recording so histogram buckets get trace exemplars.
+ * <p>
+ * Each request costs three small allocations: its {@link Timing}, the byte-counting
+ * response decorator and the mutated exchange that carries it.
+ */
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    /** Runs first, before JWT verification */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    /** Exchange attribute holding the {@link Timing} of a request */
+    static final String TIMING_ATTRIBUTE = RouteMetricsFilter.class.getName() + ".timing";
+
+    private final RouteMetrics metrics;
+
+    /**
+     * Creates the filter.
+     *
+     * @param metrics Histograms the requests are recorded in
+     */
+    public RouteMetricsFilter(RouteMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Times the exchange and counts response bytes.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the exchange is handled
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Timing timing = new Timing(System.nanoTime());
+        exchange.getAttributes().put(TIMING_ATTRIBUTE, timing);
+        ServerWebExchange counted = exchange.mutate()
+                .response(new CountingResponse(exchange.getResponse(), timing))
+                .build();
+        return chain.filter(counted).doFinally(signal -> record(exchange, timing));
+    }
+
+    /**
+     * Order of this filter.
+     *
+     * @return {@link #ORDER}
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private void record(ServerWebExchange exchange, Timing timing) {
+        long total = System.nanoTime() - timing.start;
+        long upstream = timing.upstreamEnd > 0 ? timing.upstreamEnd - timing.upstreamStart : -1;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+
+        TraceExemplars.bind(TraceExemplars.spanOf(exchange));
+        try {
+            metrics.record(route != null ? route.getId() : "unmatched",
+                    status != null ? status.value() : 0,
+                    upstream >= 0 ? total - upstream : total,
+                    upstream,
+                    timing.bytes);
+        } finally {
+            TraceExemplars.unbind();
+        }
+    }
+
+    /**
+     * Timestamps and byte count of one exchange. Only touched by the exchange's own
+     * signals, which are serialized, so plain fields suffice.
+     */
+    static final class Timing {
+        final long start;
+        long upstreamStart;
+        long upstreamEnd;
+        long bytes;
+
+        Timing(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Response decorator counting the body bytes written.
+     */
+    private static final class CountingResponse extends ServerHttpResponseDecorator {
+        private final Timing timing;
+
+        CountingResponse(ServerHttpResponse delegate, Timing timing) {
+            super(delegate);
+            this.timing = timing;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(part -> Flux.from(part).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            timing.bytes += buffer.readableByteCount();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.finpay.gateway.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.prometheus.client.exemplars.tracer.common.SpanContextSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Supplies the trace and span ids attached as exemplars to Prometheus histogram buckets.
+ * <p>
+ * Gateway requests complete on Netty event loop threads where no span is current, so
+ * {@link RouteMetricsFilter} binds the exchange's span for the duration of a recording.
+ * Other meters fall back to the tracer's current span.
+ */
+public class TraceExemplars implements SpanContextSupplier {
+
+    private static final ThreadLocal<Span[]> BOUND = ThreadLocal.withInitial(() -> new Span[1]);
+
+    private final ObjectProvider<Tracer> tracer;
+
+    /**
+     * Creates the supplier.
+     *
+     * @param tracer Tracer used when no exchange span is bound
+     */
+    public TraceExemplars(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Finds the span of the server observation of an exchange.
+     *
+     * @param exchange Current server exchange
+     * @return Span of the request, or null if it is not traced
+     */
+    public static Span spanOf(ServerWebExchange exchange) {
+        Object context = exchange.getAttribute(ServerRequestObservationContext.CURRENT_OBSERVATION_CONTEXT_ATTRIBUTE);
+        if (context instanceof Observation.Context observationContext) {
+            TracingObservationHandler.TracingContext tracing =
+                    observationContext.get(TracingObservationHandler.TracingContext.class);
+            return tracing != null ? tracing.getSpan() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Makes a span the exemplar source of recordings on this thread until {@link #unbind()}.
+     *
+     * @param span Span of the exchange being recorded, may be null
+     */
+    static void bind(Span span) {
+        BOUND.get()[0] = span;
+    }
+
+    /**
+     * Clears the span bound to this thread.
+     */
+    static void unbind() {
+        BOUND.get()[0] = null;
+    }
+
+    /**
+     * Trace id of the bound or current span.
+     *
+     * @return Trace id, or null if there is no span
+     */
+    @Override
+    public String getTraceId() {
+        Span span = span();
+        return span != null ? span.context().traceId() : null;
+    }
+
+    /**
+     * Span id of the bound or current span.
+     *
+     * @return Span id, or null if there is no span
+     */
+    @Override
+    public String getSpanId() {
+        Span span = span();
+        return span != null ? span.context().spanId() : null;
+    }
+
+    /**
+     * Whether the bound or current span is sampled; unsampled traces make no exemplars.
+     *
+     * @return True if the span is sampled
+     */
+    @Override
+    public boolean isSampled() {
+        Span span = span();
+        return span != null && Boolean.TRUE.equals(span.context().sampled());
+    }
+
+    private Span span() {
+        Span bound = BOUND.get()[0];
+        if (bound != null) {
+            return bound;
+        }
+        Tracer current = tracer.getIfAvailable();
+        return current != null ? current.currentSpan() : null;
+    }
+}
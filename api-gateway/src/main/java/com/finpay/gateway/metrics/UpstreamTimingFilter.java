@@ -0,0 +1,47 @@
+package com.finpay.gateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures upstream time: from just before the routing filter forwards a request
+ * until it has received the upstream response headers.
+ * <p>
+ * Runs as the last filter before NettyRoutingFilter and stores the measurement in the
+ * exchange's {@link RouteMetricsFilter.Timing}.
+ */
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    /** Runs immediately before the routing filters, which have the lowest precedence */
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    /**
+     * Times the rest of the chain, i.e. the upstream call.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the upstream response headers are received
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RouteMetricsFilter.Timing timing = exchange.getAttribute(RouteMetricsFilter.TIMING_ATTRIBUTE);
+        if (timing == null) {
+            return chain.filter(exchange);
+        }
+        timing.upstreamStart = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> timing.upstreamEnd = System.nanoTime());
+    }
+
+    /**
+     * Order of this filter.
+     *
+     * @return {@link #ORDER}
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
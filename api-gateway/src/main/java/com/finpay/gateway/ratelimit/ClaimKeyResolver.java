@@ -0,0 +1,150 @@
+package com.finpay.gateway.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Rate limit key resolver that keys buckets by the user_id claim of the bearer token.
+ * <p>
+ * The key has the form {@code <tier>:<user_id>}, where the tier is the first configured
+ * tier scope found in the token's scope claim, or {@code user} if none matches. A user
+ * therefore keeps the same bucket across token refreshes and re-logins.
+ * <p>
+ * Requests without a bearer token but with an {@code X-API-Key} header are keyed
+ * {@code apikey:<id>}, where the id is a truncated SHA-256 of the key. Each key thus gets its
+ * own bucket (and its own response cache and idempotency entries), without the raw key being
+ * kept in the gateway. The key itself is verified by the services.
+ * <p>
+ * The token payload is decoded once per token; resolved keys are cached by token (Caffeine
+ * hashes the token string) as ready-made Monos, so a cache hit allocates nothing and never
+ * blocks the event loop. The signature is not checked here: a forged token can only select
+ * another user's bucket, and is rejected further down the chain anyway.
+ */
+public class ClaimKeyResolver implements KeyResolver {
+
+    /** Key shared by requests without a usable bearer token or API key */
+    public static final String ANONYMOUS = "anonymous";
+
+    /** Tier of API key requests; configure a tier of this name to give API keys their own limits */
+    public static final String API_KEY_TIER = "apikey";
+
+    /** Tier used when none of the configured tier scopes is present */
+    public static final String DEFAULT_TIER = "user";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String API_KEY_HEADER = "X-API-Key";
+    /** Bytes of the key's SHA-256 kept in its rate limit key */
+    private static final int API_KEY_ID_BYTES = 16;
+    private static final Mono<String> ANONYMOUS_KEY = Mono.just(ANONYMOUS);
+
+    private final ObjectMapper objectMapper;
+    private final List<String> tierScopes;
+    private final Cache<String, Mono<String>> keys;
+
+    /**
+     * Creates the resolver.
+     *
+     * @param objectMapper Mapper used to read the token payload
+     * @param tierScopes Scopes that select their own rate limit tier, highest priority first
+     * @param maxTokens Maximum number of tokens kept in the cache
+     * @param tokenTtl How long a resolved token is cached (should not exceed the token lifetime)
+     */
+    public ClaimKeyResolver(ObjectMapper objectMapper, List<String> tierScopes, long maxTokens, Duration tokenTtl) {
+        this.objectMapper = objectMapper;
+        this.tierScopes = List.copyOf(tierScopes);
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxTokens)
+                .expireAfterWrite(tokenTtl)
+                .build();
+    }
+
+    /**
+     * Resolves the rate limit key of a request.
+     *
+     * @param exchange Current server exchange
+     * @return Mono emitting {@code <tier>:<user_id>}, {@code apikey:<id>}, or {@code anonymous}
+     */
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            String apiKey = headers.getFirst(API_KEY_HEADER);
+            return apiKey == null || apiKey.isBlank() ? ANONYMOUS_KEY : keys.get(apiKey, ClaimKeyResolver::apiKeyFor);
+        }
+        return keys.get(authHeader.substring(BEARER_PREFIX.length()), this::keyFor);
+    }
+
+    /**
+     * Decodes a token payload and builds its rate limit key.
+     *
+     * @param token Raw JWT
+     * @return Mono emitting the key, or the anonymous key if the token is unusable
+     */
+    private Mono<String> keyFor(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (second < 0) {
+            return ANONYMOUS_KEY;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(first + 1, second));
+            JsonNode claims = objectMapper.readTree(payload);
+            JsonNode userId = claims.get("user_id");
+            if (userId == null || userId.isNull()) {
+                return ANONYMOUS_KEY;
+            }
+            return Mono.just(tierOf(claims.path("scope").asText("")) + ':' + userId.asText());
+        } catch (Exception e) {
+            return ANONYMOUS_KEY;
+        }
+    }
+
+    /**
+     * Builds the rate limit key of an API key from its hash.
+     *
+     * @param apiKey Raw API key
+     * @return Mono emitting {@code apikey:<id>}
+     */
+    private static Mono<String> apiKeyFor(String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return Mono.just(API_KEY_TIER + ':' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, API_KEY_ID_BYTES)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Picks the rate limit tier from a space-separated scope claim.
+     *
+     * @param scope Scope claim value
+     * @return First configured tier scope present in the claim, or the default tier
+     */
+    private String tierOf(String scope) {
+        if (!scope.isEmpty()) {
+            List<String> granted = List.of(scope.split(" "));
+            for (String tier : tierScopes) {
+                if (granted.contains(tier)) {
+                    return tier;
+                }
+            }
+        }
+        return DEFAULT_TIER;
+    }
+}
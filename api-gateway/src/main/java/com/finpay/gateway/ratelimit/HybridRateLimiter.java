@@ -0,0 +1,399 @@
+package com.finpay.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier token-bucket rate limiter.
+ * <p>
+ * Each gateway instance keeps an in-memory bucket per (route, key) holding tokens leased
+ * from a global Redis token bucket. Requests are decided locally; Redis is only called to
+ * lease a batch of tokens, and the next lease is prefetched asynchronously before the local
+ * bucket runs dry. Redis cost is therefore roughly one script call per lease batch instead
+ * of one per request, and Redis latency stays off the request path in steady state.
+ * <p>
+ * If Redis fails or times out, the limiter switches to a degraded local-only mode for a
+ * while: every instance enforces its configured share of the global rate on its own, and
+ * Redis is retried once the degraded period expires.
+ * <p>
+ * Keys of the form {@code <tier>:<id>} (see {@link ClaimKeyResolver}) use the limits of their
+ * tier when one is configured, instead of the route limits.
+ */
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    /** Configuration property prefix for YAML-defined routes */
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final Logger log = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<Long> leaseScript;
+    private final Config defaultConfig;
+    private final Map<String, Config> tierConfigs;
+    private final double degradedShare;
+    private final Duration redisTimeout;
+    private final long degradedRetryNanos;
+    private final Cache<String, LocalBucket> buckets;
+    private final AtomicLong degradedUntil;
+
+    private final Counter redisOps;
+    private final Counter allowedLeased;
+    private final Counter deniedLeased;
+    private final Counter allowedDegraded;
+    private final Counter deniedDegraded;
+    private final Timer localDecision;
+    private final Timer leaseWaitDecision;
+    private final Timer degradedDecision;
+
+    /**
+     * Creates the limiter.
+     *
+     * @param redisTemplate Reactive Redis template used to lease tokens
+     * @param leaseScript Lua token-lease script
+     * @param configurationService Gateway configuration service for YAML route arguments
+     * @param defaultConfig Limits used by routes that do not configure their own
+     * @param tierConfigs Limits per key tier, overriding route limits
+     * @param degradedShare Fraction of the global limit each instance enforces when Redis is down
+     * @param redisTimeout Maximum time to wait for a lease before treating Redis as unavailable
+     * @param degradedRetry How long to stay in local-only mode before retrying Redis
+     * @param maxBuckets Maximum number of local buckets kept in memory
+     * @param bucketIdleExpiry How long an unused local bucket is kept
+     * @param meterRegistry Registry for Redis op, decision and latency metrics
+     */
+    public HybridRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             RedisScript<Long> leaseScript,
+                             ConfigurationService configurationService,
+                             Config defaultConfig,
+                             Map<String, Config> tierConfigs,
+                             double degradedShare,
+                             Duration redisTimeout,
+                             Duration degradedRetry,
+                             long maxBuckets,
+                             Duration bucketIdleExpiry,
+                             MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.leaseScript = leaseScript;
+        this.defaultConfig = defaultConfig;
+        this.tierConfigs = Map.copyOf(tierConfigs);
+        this.degradedShare = degradedShare;
+        this.redisTimeout = redisTimeout;
+        this.degradedRetryNanos = degradedRetry.toNanos();
+        // Already elapsed: nanoTime may be negative, so 0 would read as degraded until it passes zero
+        this.degradedUntil = new AtomicLong(System.nanoTime() - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(bucketIdleExpiry)
+                .build();
+
+        this.redisOps = Counter.builder("finpay.gateway.ratelimit.redis.ops")
+                .description("Redis token lease calls made by the rate limiter")
+                .register(meterRegistry);
+        this.allowedLeased = decisionCounter(meterRegistry, "allowed", "leased");
+        this.deniedLeased = decisionCounter(meterRegistry, "denied", "leased");
+        this.allowedDegraded = decisionCounter(meterRegistry, "allowed", "degraded");
+        this.deniedDegraded = decisionCounter(meterRegistry, "denied", "degraded");
+        this.localDecision = decisionTimer(meterRegistry, "local");
+        this.leaseWaitDecision = decisionTimer(meterRegistry, "lease-wait");
+        this.degradedDecision = decisionTimer(meterRegistry, "degraded");
+        meterRegistry.gauge("finpay.gateway.ratelimit.degraded", degradedUntil,
+                until -> System.nanoTime() - until.get() < 0 ? 1 : 0);
+    }
+
+    /**
+     * Decides whether a request identified by the key may pass on the given route.
+     *
+     * @param routeId Gateway route id
+     * @param id Rate limit key produced by the route's KeyResolver
+     * @return Mono emitting the decision and rate limit headers
+     */
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        long start = System.nanoTime();
+        Config config = configFor(routeId, id);
+        LocalBucket bucket = buckets.get(routeId + ':' + id, k -> new LocalBucket());
+
+        if (start - degradedUntil.get() < 0) {
+            return Mono.just(degradedDecision(bucket, config, start));
+        }
+
+        Mono<Long> lease;
+        Mono<Long> prefetch = null;
+        long remaining = 0;
+        synchronized (bucket) {
+            if (bucket.leased > 0) {
+                remaining = --bucket.leased;
+                if (remaining <= config.lowWaterMark() && bucket.pendingLease == null) {
+                    bucket.pendingLease = newLease(routeId, id, bucket, config);
+                    prefetch = bucket.pendingLease;
+                }
+                lease = null;
+            } else {
+                if (bucket.pendingLease == null) {
+                    bucket.pendingLease = newLease(routeId, id, bucket, config);
+                }
+                lease = bucket.pendingLease;
+            }
+        }
+
+        if (lease == null) {
+            if (prefetch != null) {
+                // Refill in the background; this request is already served from local tokens
+                prefetch.subscribe(granted -> { }, error -> { });
+            }
+            return Mono.just(allowed(remaining, config, localDecision, start));
+        }
+
+        // Local bucket is empty: wait for the lease (shared with concurrent requests)
+        return lease
+                .map(granted -> {
+                    synchronized (bucket) {
+                        if (bucket.leased > 0) {
+                            return allowed(--bucket.leased, config, leaseWaitDecision, start);
+                        }
+                    }
+                    deniedLeased.increment();
+                    leaseWaitDecision.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return new Response(false, headers(0, config));
+                })
+                .onErrorResume(error -> Mono.just(degradedDecision(bucket, config, start)));
+    }
+
+    /**
+     * Returns the limits for a key: its tier limits if configured, else the route limits.
+     *
+     * @param routeId Gateway route id
+     * @param id Rate limit key
+     * @return Limits to apply
+     */
+    private Config configFor(String routeId, String id) {
+        if (!tierConfigs.isEmpty()) {
+            int separator = id.indexOf(':');
+            if (separator > 0) {
+                for (Map.Entry<String, Config> tier : tierConfigs.entrySet()) {
+                    String name = tier.getKey();
+                    if (name.length() == separator && id.startsWith(name)) {
+                        return tier.getValue();
+                    }
+                }
+            }
+        }
+        return getConfig().getOrDefault(routeId, defaultConfig);
+    }
+
+    /**
+     * Creates a cached lease call that adds the granted tokens to the local bucket.
+     * Must be called while holding the bucket lock.
+     *
+     * @param routeId Gateway route id
+     * @param id Rate limit key
+     * @param bucket Local bucket to refill
+     * @param config Route limits
+     * @return Cached Mono emitting the number of tokens granted
+     */
+    private Mono<Long> newLease(String routeId, String id, LocalBucket bucket, Config config) {
+        String prefix = "finpay_rate_limiter.{" + routeId + ':' + id + '}';
+        List<String> keys = List.of(prefix + ".tokens", prefix + ".timestamp");
+        List<String> args = List.of(
+                Integer.toString(config.getReplenishRate()),
+                Integer.toString(config.getBurstCapacity()),
+                Double.toString(System.currentTimeMillis() / 1000.0),
+                Integer.toString(Math.min(config.getLeaseSize(), config.getBurstCapacity())));
+
+        return Mono.defer(() -> {
+                    redisOps.increment();
+                    return redisTemplate.execute(leaseScript, keys, args).next();
+                })
+                .timeout(redisTimeout)
+                .defaultIfEmpty(0L)
+                .doOnNext(granted -> {
+                    synchronized (bucket) {
+                        bucket.leased += granted;
+                    }
+                })
+                .doOnError(this::enterDegradedMode)
+                .doFinally(signal -> {
+                    synchronized (bucket) {
+                        bucket.pendingLease = null;
+                    }
+                })
+                .cache();
+    }
+
+    /**
+     * Switches the limiter to local-only mode after a Redis failure.
+     *
+     * @param error Failure returned by the lease call
+     */
+    private void enterDegradedMode(Throwable error) {
+        long until = System.nanoTime() + degradedRetryNanos;
+        long previous = degradedUntil.getAndSet(until);
+        if (System.nanoTime() - previous >= 0) {
+            log.warn("Redis unavailable for rate limiting, using local-only limits: {}", error.toString());
+        }
+    }
+
+    /**
+     * Decides locally using this instance's share of the route limits.
+     *
+     * @param bucket Local bucket
+     * @param config Route limits
+     * @param start Decision start time in nanos
+     * @return Rate limit response
+     */
+    private Response degradedDecision(LocalBucket bucket, Config config, long start) {
+        double rate = config.getReplenishRate() * degradedShare;
+        double capacity = Math.max(1.0, config.getBurstCapacity() * degradedShare);
+        boolean allowed;
+        long remaining;
+        synchronized (bucket) {
+            long now = System.nanoTime();
+            if (bucket.lastRefillNanos == 0) {
+                bucket.localTokens = capacity;
+            } else {
+                bucket.localTokens = Math.min(capacity,
+                        bucket.localTokens + (now - bucket.lastRefillNanos) / 1e9 * rate);
+            }
+            bucket.lastRefillNanos = now;
+            allowed = bucket.localTokens >= 1.0;
+            if (allowed) {
+                bucket.localTokens -= 1.0;
+            }
+            remaining = (long) bucket.localTokens;
+        }
+        (allowed ? allowedDegraded : deniedDegraded).increment();
+        degradedDecision.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Response(allowed, headers(remaining, config));
+    }
+
+    /**
+     * Builds an allowed response and records its metrics.
+     *
+     * @param remaining Tokens left in the local bucket
+     * @param config Route limits
+     * @param timer Decision latency timer for the path taken
+     * @param start Decision start time in nanos
+     * @return Allowed rate limit response
+     */
+    private Response allowed(long remaining, Config config, Timer timer, long start) {
+        allowedLeased.increment();
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Response(true, headers(remaining, config));
+    }
+
+    /**
+     * Builds the standard rate limit response headers.
+     *
+     * @param remaining Tokens left in the local bucket
+     * @param config Route limits
+     * @return Header map
+     */
+    private Map<String, String> headers(long remaining, Config config) {
+        return Map.of(
+                "X-RateLimit-Remaining", Long.toString(remaining),
+                "X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()),
+                "X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()));
+    }
+
+    private static Counter decisionCounter(MeterRegistry registry, String outcome, String mode) {
+        return Counter.builder("finpay.gateway.ratelimit.decisions")
+                .description("Rate limiter decisions")
+                .tag("outcome", outcome)
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    private static Timer decisionTimer(MeterRegistry registry, String path) {
+        return Timer.builder("finpay.gateway.ratelimit.decision.latency")
+                .description("Time taken by the rate limiter to reach a decision")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Per-instance state of one (route, key) bucket. Guarded by its own monitor.
+     */
+    private static final class LocalBucket {
+        /** Tokens leased from Redis and not yet spent */
+        long leased;
+        /** In-flight lease shared by concurrent requests, null when idle */
+        Mono<Long> pendingLease;
+        /** Local-only tokens used in degraded mode */
+        double localTokens;
+        /** Last degraded-mode refill time in nanos, 0 before first use */
+        long lastRefillNanos;
+    }
+
+    /**
+     * Per-route limits of the hybrid rate limiter.
+     */
+    @Validated
+    public static class Config {
+        /** Tokens added to the global bucket per second */
+        @Min(1)
+        private int replenishRate = 1;
+
+        /** Maximum tokens the global bucket can hold */
+        @Min(1)
+        private int burstCapacity = 1;
+
+        /** Tokens requested from Redis per lease */
+        @Min(1)
+        private int leaseSize = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getLeaseSize() {
+            return leaseSize;
+        }
+
+        public Config setLeaseSize(int leaseSize) {
+            this.leaseSize = leaseSize;
+            return this;
+        }
+
+        /**
+         * Local token count at which the next lease is prefetched.
+         *
+         * @return Low-water mark, a quarter of the lease size
+         */
+        int lowWaterMark() {
+            return Math.min(leaseSize, burstCapacity) / 4;
+        }
+    }
+}
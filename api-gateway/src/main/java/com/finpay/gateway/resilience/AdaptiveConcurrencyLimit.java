@@ -0,0 +1,134 @@
+package com.finpay.gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that tunes itself from observed latency (gradient algorithm).
+ * <p>
+ * A slow moving average of response time tracks the backend's normal latency and a fast
+ * one tracks its current latency. While current latency stays within tolerance of normal,
+ * the limit grows by roughly the square root of itself; once latency rises (requests start
+ * queueing in the backend) the limit shrinks in proportion. Dropped requests (errors and
+ * timeouts) cut the limit by 10%. The limit never leaves [minLimit, maxLimit].
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /** Ratio of current to normal latency accepted before the limit shrinks */
+    private static final double RTT_TOLERANCE = 1.5;
+    /** Weight of a sample in the normal (long-term) latency average */
+    private static final double LONG_RTT_WEIGHT = 1.0 / 600;
+    /** Weight of a sample in the current (short-term) latency average */
+    private static final double SHORT_RTT_WEIGHT = 1.0 / 10;
+    /** Factor applied to the limit when a request is dropped */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRtt;
+    private double shortRtt;
+
+    /**
+     * Creates the limit.
+     *
+     * @param initialLimit Limit used until latency samples arrive
+     * @param minLimit Lowest limit the algorithm may choose
+     * @param maxLimit Highest limit the algorithm may choose
+     * @param smoothing Weight of each new estimate, between 0 and 1
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a slot if fewer than limit requests are in flight.
+     *
+     * @return true if the request may proceed and must later call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the request outcome into the limit.
+     *
+     * @param rttNanos Response time of the request
+     * @param inFlightAtStart Requests in flight when this one started
+     * @param dropped true if the request failed or timed out
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart, dropped);
+    }
+
+    /**
+     * Releases a slot without updating the limit (e.g. cancelled requests).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+            limit = (int) estimatedLimit;
+            return;
+        }
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+        } else {
+            longRtt += (rttNanos - longRtt) * LONG_RTT_WEIGHT;
+            shortRtt += (rttNanos - shortRtt) * SHORT_RTT_WEIGHT;
+        }
+        // Let the normal latency catch up after a sustained shift so the limit can recover
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // Not enough load to tell whether a higher limit would hold
+        if (inFlightAtStart * 2 < estimatedLimit) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Current concurrency limit.
+     *
+     * @return Maximum requests allowed in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Requests currently in flight.
+     *
+     * @return In-flight count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.finpay.gateway.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.web.reactive.DispatcherHandler;
+
+import java.util.function.Function;
+
+/**
+ * Creates {@link RouteProtectionFilter}s for gateway routes.
+ * Circuit breaker and timeout settings come from the resilience4j registries (configured
+ * under resilience4j.* by breaker name); bulkhead and adaptive limit settings come from
+ * the per-route {@link Settings}.
+ */
+public class RouteProtection {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final ObjectProvider<DispatcherHandler> dispatcherHandler;
+    private final MeterRegistry meterRegistry;
+    private final Function<String, Settings> settings;
+
+    /**
+     * Creates the factory.
+     *
+     * @param circuitBreakerRegistry Registry of resilience4j circuit breakers
+     * @param timeLimiterRegistry Registry of resilience4j time limiters
+     * @param dispatcherHandler Handler used to forward to fallback endpoints
+     * @param meterRegistry Registry for route protection metrics
+     * @param settings Settings lookup by route id
+     */
+    public RouteProtection(CircuitBreakerRegistry circuitBreakerRegistry,
+                           TimeLimiterRegistry timeLimiterRegistry,
+                           ObjectProvider<DispatcherHandler> dispatcherHandler,
+                           MeterRegistry meterRegistry,
+                           Function<String, Settings> settings) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.dispatcherHandler = dispatcherHandler;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the protection filter of a route.
+     *
+     * @param routeId Route id
+     * @param circuitBreakerName resilience4j circuit breaker and time limiter name
+     * @param fallbackPath Local path served when the route is unavailable
+     * @return GatewayFilter to add to the route
+     */
+    public GatewayFilter filter(String routeId, String circuitBreakerName, String fallbackPath) {
+        Settings route = settings.apply(routeId);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                route.getInitialLimit(), route.getMinLimit(), route.getMaxLimit(), route.getSmoothing());
+        return new RouteProtectionFilter(
+                routeId,
+                circuitBreakerRegistry.circuitBreaker(circuitBreakerName),
+                limit,
+                route.getMaxConcurrent(),
+                timeLimiterRegistry.timeLimiter(circuitBreakerName).getTimeLimiterConfig().getTimeoutDuration(),
+                fallbackPath,
+                dispatcherHandler,
+                meterRegistry);
+    }
+
+    /**
+     * Bulkhead and adaptive limit settings of a route.
+     */
+    public static class Settings {
+        /** Bulkhead size: hard cap on in-flight requests */
+        private int maxConcurrent = 200;
+        /** Adaptive limit before latency samples arrive */
+        private int initialLimit = 20;
+        /** Lowest adaptive limit */
+        private int minLimit = 5;
+        /** Highest adaptive limit */
+        private int maxLimit = 200;
+        /** Weight of each new limit estimate */
+        private double smoothing = 0.2;
+
+        /**
+         * Copies these settings, e.g. as the base for route overrides.
+         *
+         * @return New Settings with the same values
+         */
+        public Settings copy() {
+            Settings copy = new Settings();
+            copy.maxConcurrent = maxConcurrent;
+            copy.initialLimit = initialLimit;
+            copy.minLimit = minLimit;
+            copy.maxLimit = maxLimit;
+            copy.smoothing = smoothing;
+            return copy;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.finpay.gateway.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.DispatcherHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-route protection combining a circuit breaker, a bulkhead and an adaptive concurrency limit.
+ * <p>
+ * A request must get a permit from all three before it is routed:
+ * <ul>
+ *   <li>circuit breaker open: forwarded to the route's fallback endpoint</li>
+ *   <li>bulkhead (hard cap on in-flight requests) or adaptive limit full: fast 503 with Retry-After</li>
+ * </ul>
+ * Upstream errors, 5xx responses and timeouts are recorded as breaker failures and shrink the
+ * adaptive limit; errors and timeouts are answered by the fallback endpoint.
+ * <p>
+ * The timeout bounds the time to the first response byte only, so streamed bodies (such as the
+ * NDJSON user export) are not cut off once the upstream has started answering.
+ */
+public class RouteProtectionFilter implements GatewayFilter {
+
+    /** Exchange attribute holding why the request was sent to the fallback endpoint */
+    public static final String FALLBACK_REASON_ATTRIBUTE = RouteProtectionFilter.class.getName() + ".fallbackReason";
+
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxConcurrent;
+    private final AtomicInteger bulkheadInFlight = new AtomicInteger();
+    private final Duration timeout;
+    private final String fallbackPath;
+    private final ObjectProvider<DispatcherHandler> dispatcherHandler;
+
+    private final Counter rejectedOpen;
+    private final Counter rejectedBulkhead;
+    private final Counter rejectedLimit;
+
+    /**
+     * Creates the filter for one route.
+     *
+     * @param routeId Route id, used as metric tag
+     * @param circuitBreaker Circuit breaker of the route
+     * @param limit Adaptive concurrency limit of the route
+     * @param maxConcurrent Bulkhead size: hard cap on in-flight requests
+     * @param timeout Maximum time to wait for the upstream response to start
+     * @param fallbackPath Local path requests are forwarded to when the route is unavailable
+     * @param dispatcherHandler Handler used to forward to the fallback path
+     * @param meterRegistry Registry for limit, in-flight and rejection metrics
+     */
+    public RouteProtectionFilter(String routeId,
+                                 CircuitBreaker circuitBreaker,
+                                 AdaptiveConcurrencyLimit limit,
+                                 int maxConcurrent,
+                                 Duration timeout,
+                                 String fallbackPath,
+                                 ObjectProvider<DispatcherHandler> dispatcherHandler,
+                                 MeterRegistry meterRegistry) {
+        this.circuitBreaker = circuitBreaker;
+        this.limit = limit;
+        this.maxConcurrent = maxConcurrent;
+        this.timeout = timeout;
+        this.fallbackPath = fallbackPath;
+        this.dispatcherHandler = dispatcherHandler;
+
+        this.rejectedOpen = rejectedCounter(meterRegistry, routeId, "circuit_open");
+        this.rejectedBulkhead = rejectedCounter(meterRegistry, routeId, "bulkhead");
+        this.rejectedLimit = rejectedCounter(meterRegistry, routeId, "limit");
+        Gauge.builder("finpay.gateway.route.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("finpay.gateway.route.inflight", bulkheadInFlight, AtomicInteger::get)
+                .description("Requests in flight to the route's backend")
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits, routes and records a request, or sheds it.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the request has been handled
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedOpen.increment();
+            return fallback(exchange, "circuit_open");
+        }
+        if (bulkheadInFlight.incrementAndGet() > maxConcurrent) {
+            bulkheadInFlight.decrementAndGet();
+            circuitBreaker.releasePermission();
+            rejectedBulkhead.increment();
+            return shed(exchange);
+        }
+        if (!limit.tryAcquire()) {
+            bulkheadInFlight.decrementAndGet();
+            circuitBreaker.releasePermission();
+            rejectedLimit.increment();
+            return shed(exchange);
+        }
+
+        int inFlightAtStart = limit.getInFlight();
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        AtomicBoolean responseStarted = new AtomicBoolean();
+        exchange.getResponse().beforeCommit(() -> {
+            responseStarted.set(true);
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .timeout(Mono.delay(timeout).flatMap(tick -> responseStarted.get() ? Mono.never() : Mono.just(tick)))
+                .doOnSuccess(v -> {
+                    if (released.compareAndSet(false, true)) {
+                        long rtt = System.nanoTime() - start;
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        boolean failed = status != null && status.is5xxServerError();
+                        bulkheadInFlight.decrementAndGet();
+                        limit.release(rtt, inFlightAtStart, failed);
+                        if (failed) {
+                            circuitBreaker.onError(rtt, TimeUnit.NANOSECONDS,
+                                    new IllegalStateException("Upstream responded " + status.value()));
+                        } else {
+                            circuitBreaker.onSuccess(rtt, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                })
+                .onErrorResume(error -> {
+                    if (released.compareAndSet(false, true)) {
+                        long rtt = System.nanoTime() - start;
+                        bulkheadInFlight.decrementAndGet();
+                        limit.release(rtt, inFlightAtStart, true);
+                        circuitBreaker.onError(rtt, TimeUnit.NANOSECONDS, error);
+                    }
+                    if (exchange.getResponse().isCommitted()) {
+                        return Mono.error(error);
+                    }
+                    return fallback(exchange, error instanceof TimeoutException ? "timeout" : "error");
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL && released.compareAndSet(false, true)) {
+                        bulkheadInFlight.decrementAndGet();
+                        limit.release();
+                        circuitBreaker.releasePermission();
+                    }
+                });
+    }
+
+    /**
+     * Rejects an excess request immediately.
+     *
+     * @param exchange Current server exchange
+     * @return Mono completing when the 503 response is written
+     */
+    private Mono<Void> shed(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+
+    /**
+     * Forwards the request to the route's fallback endpoint.
+     *
+     * @param exchange Current server exchange
+     * @param reason Why the route is unavailable
+     * @return Mono completing when the fallback response is written
+     */
+    private Mono<Void> fallback(ServerWebExchange exchange, String reason) {
+        exchange.getResponse().setStatusCode(null);
+        ServerWebExchangeUtils.reset(exchange);
+        ServerWebExchangeUtils.removeAlreadyRouted(exchange);
+        exchange.getAttributes().put(FALLBACK_REASON_ATTRIBUTE, reason);
+
+        URI fallbackUri = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                .replacePath(fallbackPath)
+                .replaceQuery(null)
+                .build()
+                .toUri();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, fallbackUri);
+        ServerHttpRequest request = exchange.getRequest().mutate().uri(fallbackUri).build();
+        return dispatcherHandler.getObject().handle(exchange.mutate().request(request).build());
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String routeId, String reason) {
+        return Counter.builder("finpay.gateway.route.rejected")
+                .description("Requests rejected by route protection")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,153 @@
+package com.finpay.gateway.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verification keys of the auth service, fetched from its JWKS endpoint in the background.
+ * <p>
+ * Verifiers (RSA for RS256, P-256 for ES256) are prebuilt per key id, so the JWT filter resolves a token's key with one map
+ * lookup and never fetches on the event loop. The set is refreshed on a fixed interval; a
+ * token with an unknown key id triggers an early, rate-limited refresh so a key rotation is
+ * picked up without a redeploy. The classpath key is used until the first fetch succeeds,
+ * and a failed refresh keeps the last known keys.
+ */
+public class JwksKeyStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyStore.class);
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebClient webClient;
+    private final long minRefreshIntervalNanos;
+    private final AtomicLong lastRefreshNanos = new AtomicLong(System.nanoTime());
+    private final Disposable schedule;
+    private volatile Map<String, JWSVerifier> verifiers;
+
+    /**
+     * Creates the key store and starts the background refresh.
+     *
+     * @param webClientBuilder Builder of the client fetching the JWKS document
+     * @param jwksUri URL of the auth service's JWKS document
+     * @param bootstrapKeys Keys used until the first successful fetch
+     * @param refreshInterval Interval of the regular background refresh
+     * @param minRefreshInterval Minimum time between refreshes triggered by unknown key ids
+     */
+    public JwksKeyStore(WebClient.Builder webClientBuilder, String jwksUri, List<JWK> bootstrapKeys,
+                        Duration refreshInterval, Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.baseUrl(jwksUri).build();
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.verifiers = index(bootstrapKeys);
+        this.schedule = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    /**
+     * Builds the bootstrap key from an RSA public key.
+     * Its key id is the RFC 7638 thumbprint, which is how the auth service names its keys.
+     *
+     * @param publicKey RSA public key of the auth service
+     * @return RSA JWK of the key
+     * @throws JOSEException If the thumbprint cannot be computed
+     */
+    public static JWK bootstrapKey(RSAPublicKey publicKey) throws JOSEException {
+        return new RSAKey.Builder(publicKey).keyIDFromThumbprint().build();
+    }
+
+    /**
+     * Looks up the verifier of a key id.
+     * An unknown key id schedules an early background refresh.
+     *
+     * @param keyId Key id from the token header
+     * @return Verifier of the key, or null if the key is unknown
+     */
+    public JWSVerifier verifier(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        JWSVerifier verifier = verifiers.get(keyId);
+        if (verifier == null) {
+            requestRefresh();
+        }
+        return verifier;
+    }
+
+    /**
+     * Stops the background refresh.
+     */
+    @Override
+    public void close() {
+        schedule.dispose();
+    }
+
+    private void requestRefresh() {
+        long now = System.nanoTime();
+        long last = lastRefreshNanos.get();
+        if (now - last >= minRefreshIntervalNanos && lastRefreshNanos.compareAndSet(last, now)) {
+            refresh().subscribe();
+        }
+    }
+
+    private Mono<Void> refresh() {
+        lastRefreshNanos.set(System.nanoTime());
+        return webClient.get()
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(FETCH_TIMEOUT)
+                .doOnNext(body -> {
+                    try {
+                        Map<String, JWSVerifier> fetched = index(JWKSet.parse(body).getKeys());
+                        if (!fetched.keySet().equals(verifiers.keySet())) {
+                            log.info("JWKS key ids changed to {}", fetched.keySet());
+                        }
+                        verifiers = fetched;
+                    } catch (ParseException e) {
+                        log.warn("Ignoring unparseable JWKS document: {}", e.getMessage());
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("JWKS refresh failed; keeping {} known keys: {}", verifiers.size(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static Map<String, JWSVerifier> index(List<JWK> keys) {
+        Map<String, JWSVerifier> byKeyId = new HashMap<>();
+        for (JWK key : keys) {
+            if (key.getKeyID() == null) {
+                continue;
+            }
+            try {
+                if (key instanceof RSAKey rsaKey) {
+                    byKeyId.put(key.getKeyID(), new RSASSAVerifier(rsaKey));
+                } else if (key instanceof ECKey ecKey) {
+                    byKeyId.put(key.getKeyID(), new ECDSAVerifier(ecKey));
+                }
+            } catch (JOSEException e) {
+                log.warn("Skipping unusable JWK {}: {}", key.getKeyID(), e.getMessage());
+            }
+        }
+        return Map.copyOf(byKeyId);
+    }
+}
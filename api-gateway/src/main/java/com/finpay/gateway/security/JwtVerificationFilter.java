@@ -0,0 +1,259 @@
+package com.finpay.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens once at the gateway and forwards the verified claims downstream.
+ * <p>
+ * Verified tokens are cached (bounded, keyed by token, each entry held until the token's
+ * exp claim), so the RS256 or ES256 signature of a token is checked once per gateway instance
+ * rather than on every request and every service hop. The verification key is selected by
+ * the token's kid from the auth service's JWKS ({@link JwksKeyStore}). Requests with an
+ * invalid or expired token are rejected with 401 before reaching a service.
+ * <p>
+ * For valid tokens the filter adds {@code X-FinPay-Auth: <base64url claims>.<base64url HMAC>},
+ * which downstream services check with a single HMAC-SHA256 instead of an RSA verification.
+ * Any client-supplied copy of that header is always removed.
+ */
+public class JwtVerificationFilter implements GlobalFilter, Ordered {
+
+    /** Header carrying the verified claims to downstream services */
+    public static final String INTERNAL_AUTH_HEADER = "X-FinPay-Auth";
+
+    /** Signature algorithms the auth service may sign with; the key's own type must match too */
+    private static final Set<JWSAlgorithm> ALLOWED_ALGORITHMS = Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256);
+
+    /** Runs before route filters such as the rate limiter */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final JwksKeyStore keys;
+    private final SecretKeySpec internalAuthKey;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Timer cacheHit;
+    private final Timer cacheMiss;
+    private final Counter rejected;
+
+    /**
+     * Creates the filter.
+     *
+     * @param keys Verification keys of the auth service
+     * @param internalAuthSecret Shared HMAC secret for the internal header; blank disables it
+     * @param cacheSize Maximum number of verified tokens cached
+     * @param meterRegistry Registry for verification metrics
+     */
+    public JwtVerificationFilter(JwksKeyStore keys, String internalAuthSecret, long cacheSize,
+                                 MeterRegistry meterRegistry) {
+        this.keys = keys;
+        this.internalAuthKey = internalAuthSecret == null || internalAuthSecret.isBlank()
+                ? null
+                : new SecretKeySpec(internalAuthSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new UntilExpiry())
+                .build();
+
+        this.cacheHit = verificationTimer(meterRegistry, "hit");
+        this.cacheMiss = verificationTimer(meterRegistry, "miss");
+        this.rejected = Counter.builder("finpay.gateway.jwt.rejected")
+                .description("Requests rejected because of an invalid or expired token")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the bearer token of the request, if any, and adds the internal header.
+     *
+     * @param exchange Current server exchange
+     * @param chain Gateway filter chain
+     * @return Mono completing when the request has been handled
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            if (headers.containsKey(INTERNAL_AUTH_HEADER)) {
+                return chain.filter(withInternalAuth(exchange, null));
+            }
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified != null) {
+            cacheHit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            verified = verify(token);
+            cacheMiss.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (verified == null) {
+                rejected.increment();
+                return unauthorized(exchange);
+            }
+            verifiedTokens.put(token, verified);
+        }
+        return chain.filter(withInternalAuth(exchange, verified.internalAuth()));
+    }
+
+    /**
+     * Gateway filter order.
+     *
+     * @return Order ahead of route filters
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Checks the token signature and validity period.
+     *
+     * @param token Raw JWT
+     * @return Verified token, or null if the token is malformed, forged or expired
+     */
+    private VerifiedToken verify(String token) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            JWSAlgorithm algorithm = jwt.getHeader().getAlgorithm();
+            JWSVerifier verifier = keys.verifier(jwt.getHeader().getKeyID());
+            if (verifier == null || !ALLOWED_ALGORITHMS.contains(algorithm)
+                    || !verifier.supportedJWSAlgorithms().contains(algorithm) || !jwt.verify(verifier)) {
+                return null;
+            }
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            Date expiresAt = claims.getExpirationTime();
+            Date notBefore = claims.getNotBeforeTime();
+            long now = System.currentTimeMillis();
+            if (expiresAt == null || expiresAt.getTime() <= now
+                    || (notBefore != null && notBefore.getTime() > now)) {
+                return null;
+            }
+            String payload = jwt.getParsedParts()[1].toString();
+            return new VerifiedToken(sign(payload), expiresAt.getTime());
+        } catch (ParseException | JOSEException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the internal header value for a token payload.
+     *
+     * @param payload Base64url-encoded claims of the verified token
+     * @return Header value, or null if the internal header is disabled
+     */
+    private String sign(String payload) {
+        if (internalAuthKey == null) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(internalAuthKey);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            return payload + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    /**
+     * Replaces any client-supplied internal header with the gateway's own.
+     *
+     * @param exchange Current server exchange
+     * @param internalAuth Header value to forward, or null to only strip it
+     * @return Exchange with the rewritten request
+     */
+    private ServerWebExchange withInternalAuth(ServerWebExchange exchange, String internalAuth) {
+        return exchange.mutate()
+                .request(r -> r.headers(h -> {
+                    h.remove(INTERNAL_AUTH_HEADER);
+                    if (internalAuth != null) {
+                        h.set(INTERNAL_AUTH_HEADER, internalAuth);
+                    }
+                }))
+                .build();
+    }
+
+    /**
+     * Completes the exchange with 401 Unauthorized.
+     *
+     * @param exchange Current server exchange
+     * @return Mono completing when the response is written
+     */
+    private Mono<Void> unauthorized(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        return response.setComplete();
+    }
+
+    private static Timer verificationTimer(MeterRegistry registry, String cache) {
+        return Timer.builder("finpay.gateway.jwt.verification")
+                .description("Time spent authenticating a bearer token at the gateway")
+                .tag("cache", cache)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * A token whose signature has been verified.
+     *
+     * @param internalAuth Internal header value to forward, null if disabled
+     * @param expiresAtMillis Token exp claim in epoch millis
+     */
+    private record VerifiedToken(String internalAuth, long expiresAtMillis) {
+    }
+
+    /**
+     * Keeps each cache entry until its token expires.
+     */
+    private static final class UntilExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            long remainingMillis = verified.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
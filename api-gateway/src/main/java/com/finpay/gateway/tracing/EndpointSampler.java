@@ -0,0 +1,123 @@
+package com.finpay.gateway.tracing;
+
+import brave.sampler.RateLimitingSampler;
+import brave.sampler.Sampler;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brave sampler giving each routed endpoint its own traces-per-second budget.
+ * <p>
+ * Rules use the same {@code "METHOD /path/pattern=tracesPerSecond"} format as the services'
+ * sampler (method may be {@code *}), and the first matching rule applies; traces not started
+ * by a matched request use the default rate. In tail mode the budgets only decide which
+ * traces that are neither failed nor slow are exported ({@link TailSamplingSpanHandler}); in
+ * head mode they decide up front, and downstream services keep that decision.
+ * <p>
+ * Brave samplers only see the trace id, so {@link EndpointSamplingReceiverHandler} resolves
+ * the rule of each request and binds it to the event loop thread while the server span is
+ * created. Each rule is a Brave RateLimitingSampler, so a decision never allocates.
+ */
+public class EndpointSampler extends Sampler {
+
+    private static final ThreadLocal<Sampler> CURRENT = new ThreadLocal<>();
+
+    private final List<Rule> rules;
+    private final Sampler defaultSampler;
+
+    /**
+     * Creates the sampler.
+     *
+     * @param rules Endpoint rules, e.g. "POST /transactions/transfer=20"
+     * @param defaultRate Traces per second of traces not matched by a rule
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public EndpointSampler(List<String> rules, int defaultRate) {
+        this.rules = new ArrayList<>(rules.size());
+        for (String rule : rules) {
+            if (!rule.isBlank()) {
+                this.rules.add(Rule.parse(rule.trim()));
+            }
+        }
+        this.defaultSampler = RateLimitingSampler.create(defaultRate);
+    }
+
+    /**
+     * Decides whether a trace starting on this thread is sampled, using the budget of the
+     * endpoint bound by {@link EndpointSamplingReceiverHandler}, or the default budget.
+     *
+     * @param traceId Id of the new trace
+     * @return True if the trace is recorded
+     */
+    @Override
+    public boolean isSampled(long traceId) {
+        return current().isSampled(traceId);
+    }
+
+    /**
+     * Budget of the endpoint bound to the current thread.
+     *
+     * @return Sampler of the current request's rule, or the default sampler
+     */
+    Sampler current() {
+        Sampler sampler = CURRENT.get();
+        return sampler != null ? sampler : defaultSampler;
+    }
+
+    /**
+     * Finds the budget of a request.
+     *
+     * @param method HTTP method
+     * @param path Request path within the application
+     * @return Sampler of the first matching rule, or the default sampler
+     */
+    Sampler samplerFor(HttpMethod method, PathContainer path) {
+        for (Rule rule : rules) {
+            if ((rule.method == null || rule.method.equals(method)) && rule.pattern.matches(path)) {
+                return rule.sampler;
+            }
+        }
+        return defaultSampler;
+    }
+
+    /**
+     * Binds a request's budget to the current thread.
+     *
+     * @param sampler Sampler of the request's rule
+     */
+    static void bind(Sampler sampler) {
+        CURRENT.set(sampler);
+    }
+
+    /**
+     * Clears the budget bound to the current thread.
+     */
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Endpoint rule: method, path pattern and its own rate limiter.
+     */
+    private record Rule(HttpMethod method, PathPattern pattern, Sampler sampler) {
+
+        static Rule parse(String rule) {
+            int space = rule.indexOf(' ');
+            int equals = rule.lastIndexOf('=');
+            if (space < 0 || equals < space) {
+                throw new IllegalArgumentException("Sampling rule must be 'METHOD /path=rate': " + rule);
+            }
+            String method = rule.substring(0, space).trim();
+            String path = rule.substring(space + 1, equals).trim();
+            int rate = Integer.parseInt(rule.substring(equals + 1).trim());
+            return new Rule("*".equals(method) ? null : HttpMethod.valueOf(method),
+                    PathPatternParser.defaultInstance.parse(path),
+                    RateLimitingSampler.create(rate));
+        }
+    }
+}
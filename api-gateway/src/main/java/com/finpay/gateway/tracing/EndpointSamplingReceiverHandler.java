@@ -0,0 +1,56 @@
+package com.finpay.gateway.tracing;
+
+import io.micrometer.observation.transport.ReceiverContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.PropagatingReceiverTracingObservationHandler;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+
+/**
+ * Receiver tracing handler that binds the request's sampling budget while the server span
+ * is created, for {@link EndpointSampler} (head decisions) and {@link TailSamplingSpanHandler}
+ * (keep budget).
+ * <p>
+ * WebFlux starts the http.server.requests observation before any WebFilter runs, so unlike
+ * the services' servlet filter, the gateway resolves the endpoint rule here. The span is
+ * started synchronously inside {@link #onStart}, on the same event loop thread, so the
+ * binding is cleared before the thread serves another request.
+ */
+public class EndpointSamplingReceiverHandler
+        extends PropagatingReceiverTracingObservationHandler<ReceiverContext<?>> {
+
+    private final EndpointSampler endpointSampler;
+
+    /**
+     * Creates the handler.
+     *
+     * @param tracer Tracer creating the server spans
+     * @param propagator Propagator extracting incoming trace context
+     * @param endpointSampler Per-endpoint budgets
+     */
+    public EndpointSamplingReceiverHandler(Tracer tracer, Propagator propagator, EndpointSampler endpointSampler) {
+        super(tracer, propagator);
+        this.endpointSampler = endpointSampler;
+    }
+
+    /**
+     * Starts the server span with the budget of the request's endpoint bound.
+     *
+     * @param context Receiver context of the observation
+     */
+    @Override
+    public void onStart(ReceiverContext<?> context) {
+        if (!(context instanceof ServerRequestObservationContext serverContext)) {
+            super.onStart(context);
+            return;
+        }
+        ServerHttpRequest request = serverContext.getCarrier();
+        EndpointSampler.bind(endpointSampler.samplerFor(request.getMethod(), request.getPath().pathWithinApplication()));
+        try {
+            super.onStart(context);
+        } finally {
+            EndpointSampler.unbind();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+-- Token bucket that hands out batches ("leases") of tokens to gateway instances.
+-- Unlike request_rate_limiter.lua it grants as many tokens as are available,
+-- up to the requested lease size, instead of all-or-nothing.
+
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+
+local fill_time = capacity / rate
+local ttl = math.floor(fill_time * 2)
+if ttl < 1 then
+  ttl = 1
+end
+
+local last_tokens = tonumber(redis.call("get", tokens_key))
+if last_tokens == nil then
+  last_tokens = capacity
+end
+
+local last_refreshed = tonumber(redis.call("get", timestamp_key))
+if last_refreshed == nil then
+  last_refreshed = 0
+end
+
+local delta = math.max(0, now - last_refreshed)
+local filled_tokens = math.min(capacity, last_tokens + (delta * rate))
+local granted = math.floor(math.min(filled_tokens, requested))
+local new_tokens = filled_tokens - granted
+
+redis.call("setex", tokens_key, ttl, new_tokens)
+redis.call("setex", timestamp_key, ttl, now)
+
+return granted
@@ -0,0 +1,200 @@
+package com.finpay.gateway.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Least-outstanding balancing against local stub upstreams, and release of the outstanding
+ * count when an exchange is cancelled.
+ */
+class LeastOutstandingLoadBalancerTest {
+
+    private static final String SERVICE_ID = "account-service";
+
+    private final List<HttpServer> upstreams = new ArrayList<>();
+    private final ExecutorService upstreamThreads = Executors.newCachedThreadPool();
+    private final Map<Integer, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final List<ServiceInstance> instances = new ArrayList<>();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private UpstreamInstanceTracker tracker;
+    private LeastOutstandingLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        startUpstream(Duration.ofMillis(2));
+        startUpstream(Duration.ofMillis(2));
+        startUpstream(Duration.ofMillis(100));
+
+        tracker = new UpstreamInstanceTracker(new SimpleMeterRegistry(), 5, Duration.ofSeconds(30), Duration.ofMinutes(5));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        });
+        loadBalancer = new LeastOutstandingLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                SERVICE_ID, tracker, LeastOutstandingLoadBalancer.Strategy.POWER_OF_TWO_CHOICES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreams.forEach(server -> server.stop(0));
+        upstreamThreads.shutdownNow();
+    }
+
+    @Test
+    void shiftsTrafficAwayFromSlowUpstream() throws Exception {
+        int requests = 600;
+        ExecutorService clients = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                calls.add(clients.submit(() -> {
+                    call();
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        int slowPort = instances.get(2).getPort();
+        int slowHits = hits.get(slowPort).get();
+        // Round robin would send a third of the requests to each upstream, the slow one included
+        assertThat(slowHits).isLessThan(requests / 5);
+        for (ServiceInstance instance : instances) {
+            assertThat(tracker.stats(instance).getOutstanding()).isZero();
+        }
+        assertThat(tracker.stats(instances.get(2)).getAverageLatencyNanos())
+                .isGreaterThan(tracker.stats(instances.get(0)).getAverageLatencyNanos());
+    }
+
+    @Test
+    void releasesOutstandingRequestWhenExchangeIsCancelled() {
+        UpstreamReleaseFilter filter = new UpstreamReleaseFilter(tracker);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/accounts"));
+        ServiceInstance instance = instances.get(0);
+        GatewayFilterChain hangingUpstream = ex -> {
+            Request<RequestDataContext> request = new DefaultRequest<>(
+                    new RequestDataContext(new RequestData(ex.getRequest(), ex.getAttributes())));
+            tracker.onStartRequest(request, new DefaultResponse(instance));
+            return Mono.never();
+        };
+
+        Disposable subscription = filter.filter(exchange, hangingUpstream).subscribe();
+        assertThat(tracker.stats(instance).getOutstanding()).isEqualTo(1);
+
+        subscription.dispose();
+        assertThat(tracker.stats(instance).getOutstanding()).isZero();
+    }
+
+    @Test
+    void releasesCompletedRequestOnlyOnce() {
+        UpstreamReleaseFilter filter = new UpstreamReleaseFilter(tracker);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/accounts"));
+        ServiceInstance instance = instances.get(0);
+        GatewayFilterChain completingUpstream = ex -> {
+            Request<RequestDataContext> request = new DefaultRequest<>(
+                    new RequestDataContext(new RequestData(ex.getRequest(), ex.getAttributes())));
+            Response<ServiceInstance> lbResponse = new DefaultResponse(instance);
+            tracker.onStartRequest(request, lbResponse);
+            return Mono.<Void>empty().doOnSuccess(done -> tracker.onComplete(
+                    new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse)));
+        };
+
+        filter.filter(exchange, completingUpstream).block();
+
+        assertThat(tracker.stats(instance).getOutstanding()).isZero();
+    }
+
+    /**
+     * Sends one request through the load balancer and tracker, as the gateway's load
+     * balancer client filter does.
+     */
+    private void call() throws Exception {
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext(new RequestData(
+                null, URI.create("http://" + SERVICE_ID + "/accounts"), new HttpHeaders(),
+                new LinkedMultiValueMap<>(), new HashMap<>())));
+        Response<ServiceInstance> lbResponse = loadBalancer.choose(request).block();
+        ServiceInstance instance = lbResponse.getServer();
+        tracker.onStartRequest(request, lbResponse);
+        HttpResponse<Void> response = httpClient.send(
+                HttpRequest.newBuilder(instance.getUri().resolve("/accounts")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        tracker.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse,
+                new ResponseData(HttpStatusCode.valueOf(response.statusCode()), new HttpHeaders(),
+                        new LinkedMultiValueMap<>(), request.getContext().getClientRequest())));
+    }
+
+    private void startUpstream(Duration latency) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        int port = server.getAddress().getPort();
+        hits.put(port, new AtomicInteger());
+        server.setExecutor(upstreamThreads);
+        server.createContext("/", exchange -> {
+            hits.get(port).incrementAndGet();
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        upstreams.add(server);
+        instances.add(new DefaultServiceInstance(SERVICE_ID + "-" + port, SERVICE_ID, "127.0.0.1", port, false));
+    }
+}
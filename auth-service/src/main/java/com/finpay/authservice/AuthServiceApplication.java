@@ -2,6 +2,7 @@ package com.finpay.authservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the FinPay Authentication Service.
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @SpringBootApplication enables auto-configuration, component scanning, and configuration properties.
  */
 @SpringBootApplication
+@EnableScheduling
 public class AuthServiceApplication {
     /**
      * Main entry point for the Auth Service application.
@@ -0,0 +1,86 @@
+package com.finpay.authservice.controllers;
+
+import com.finpay.authservice.services.ApiKeyService;
+import com.finpay.common.dto.users.ApiKeyDTO;
+import com.finpay.common.dto.users.ApiKeyIntrospection;
+import com.finpay.common.dto.users.CreateApiKeyRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for API keys of machine clients.
+ * Users manage their own keys; resource servers resolve keys through the introspection endpoint.
+ */
+@RestController
+@RequestMapping("/auth-services/api-keys")
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+
+    /**
+     * Constructs the controller.
+     *
+     * @param apiKeyService Service managing API keys
+     */
+    public ApiKeyController(ApiKeyService apiKeyService) {
+        this.apiKeyService = apiKeyService;
+    }
+
+    /**
+     * Issues an API key to the authenticated user.
+     * The key is returned only in this response.
+     *
+     * @param authentication Authenticated user
+     * @param request Name, scopes and lifetime of the key
+     * @return ResponseEntity with the issued key and HTTP 201 status
+     */
+    @PostMapping
+    public ResponseEntity<ApiKeyDTO> issue(Authentication authentication, @RequestBody CreateApiKeyRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(apiKeyService.issue(authentication.getName(), request));
+    }
+
+    /**
+     * Lists the API keys of the authenticated user.
+     *
+     * @param authentication Authenticated user
+     * @return API keys without the keys themselves
+     */
+    @GetMapping
+    public List<ApiKeyDTO> list(Authentication authentication) {
+        return apiKeyService.list(authentication.getName());
+    }
+
+    /**
+     * Revokes an API key of the authenticated user.
+     *
+     * @param authentication Authenticated user
+     * @param id Id of the key
+     * @return ResponseEntity with HTTP 204 status
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> revoke(Authentication authentication, @PathVariable("id") Long id) {
+        apiKeyService.revoke(authentication.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Resolves the owner and scopes of an active key from its hash, for resource servers.
+     * Only the keyed hash is accepted, so the endpoint is no oracle for guessed keys.
+     *
+     * @param request Body with the "hash" of the key
+     * @return Owner and scopes, or HTTP 404 if the key is unknown, revoked or expired
+     */
+    @PostMapping("/introspect")
+    public ResponseEntity<ApiKeyIntrospection> introspect(@RequestBody Map<String, String> request) {
+        String hash = request.get("hash");
+        if (hash == null || hash.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.of(apiKeyService.introspect(hash));
+    }
+}
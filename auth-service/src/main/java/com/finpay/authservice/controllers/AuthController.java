@@ -1,9 +1,18 @@
 package com.finpay.authservice.controllers;
 
+import com.finpay.authservice.exceptions.InvalidRefreshTokenException;
+import com.finpay.authservice.repositories.UserRepository;
+import com.finpay.authservice.securities.LoginThrottle;
+import com.finpay.authservice.securities.SigningKeys;
 import com.finpay.authservice.services.CustomUserDetails;
+import com.finpay.authservice.services.RefreshTokenService;
 import com.finpay.common.dto.users.JwtResponse;
 import com.finpay.common.dto.users.LoginRequest;
+import com.finpay.common.dto.users.RefreshTokenRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,12 +21,15 @@ import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.stream.Collectors;
 
 /**
  * REST controller for authentication operations.
- * Handles user login and JWT token generation.
+ * Handles user login, JWT token generation and refresh token exchange.
+ * Clients log in with their password once and then keep their short-lived
+ * access token fresh with refresh tokens, which never touch BCrypt.
  */
 @RestController
 @RequestMapping("/auth-services")
@@ -25,74 +37,123 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtEncoder jwtEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final UserRepository userRepository;
+    private final Duration accessTokenTtl;
+    private final SigningKeys signingKeys;
+    private final LoginThrottle loginThrottle;
 
     /**
      * Constructs the AuthController with required dependencies.
      *
      * @param jwtEncoder JWT encoder for generating tokens
      * @param authenticationManager Authentication manager for validating credentials
+     * @param refreshTokenService Service issuing and rotating refresh tokens
+     * @param userRepository Repository used to load the user of a refresh token
+     * @param accessTokenTtl Lifetime of access tokens
+     * @param signingKeys Keys and algorithm tokens are signed with
+     * @param loginThrottle Brute-force throttle checked before each login
      */
-    public AuthController(JwtEncoder jwtEncoder, AuthenticationManager authenticationManager) {
+    public AuthController(JwtEncoder jwtEncoder, AuthenticationManager authenticationManager,
+                          RefreshTokenService refreshTokenService, UserRepository userRepository,
+                          @Value("${finpay.auth.tokens.access-ttl:15m}") Duration accessTokenTtl,
+                          SigningKeys signingKeys, LoginThrottle loginThrottle) {
         this.jwtEncoder = jwtEncoder;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.userRepository = userRepository;
+        this.accessTokenTtl = accessTokenTtl;
+        this.signingKeys = signingKeys;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
      * Authenticates a user and generates a JWT token.
      * Validates username and password, then returns a signed JWT token
-     * that can be used for subsequent authenticated requests.
+     * that can be used for subsequent authenticated requests, and a refresh
+     * token starting a new token family.
+     * Usernames and client addresses with too many recent failures are refused
+     * with 429 before any lookup or hashing.
      *
      * @param loginRequest LoginRequest containing username and password
-     * @return JwtResponse containing the generated JWT token
+     * @param request Servlet request, for the client address
+     * @return JwtResponse containing the generated JWT and refresh token
      */
     @PostMapping("/login")
-    public JwtResponse authenticate(@RequestBody LoginRequest loginRequest) {
+    public JwtResponse authenticate(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        loginThrottle.check(loginRequest.getUsername(), request);
+
         // Authenticate user credentials
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getUsername(),
+                            loginRequest.getPassword()
+                    )
+            );
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(loginRequest.getUsername(), request);
+            throw e;
+        }
+
+        // Generate and return JWT and refresh token
+        CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
+        return new JwtResponse(createToken(user), refreshTokenService.issue(user.getId()),
+                accessTokenTtl.toSeconds());
+    }
 
-        // Generate and return JWT token
-        return new JwtResponse(createToken(authentication));
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     * The presented refresh token is consumed; presenting it again revokes
+     * every token issued since the original login. No password is checked.
+     *
+     * @param request RefreshTokenRequest containing the current refresh token
+     * @return JwtResponse containing the new JWT and refresh token
+     */
+    @PostMapping("/token/refresh")
+    public JwtResponse refresh(@RequestBody RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        CustomUserDetails user = userRepository.findById(rotation.userId())
+                .map(CustomUserDetails::new)
+                .orElseThrow(() -> new InvalidRefreshTokenException("User no longer exists"));
+        return new JwtResponse(createToken(user), rotation.refreshToken(), accessTokenTtl.toSeconds());
     }
 
     /**
      * Creates a JWT token for an authenticated user.
-     * The token includes user information (ID, email) and expires after 30 minutes.
+     * The token includes user information (ID, email) and expires after the access token lifetime.
      *
-     * @param authentication Authentication object containing user details
+     * @param user Details of the authenticated user
      * @return Signed JWT token string
      */
-    private String createToken(Authentication authentication) {
-        CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
+    private String createToken(CustomUserDetails user) {
+        Instant now = Instant.now();
 
         // Build JWT claims with user information and expiration
         var claims = JwtClaimsSet.builder()
                 .issuer("self")
-                .issuedAt(Instant.now())
-                .expiresAt(Instant.now().plusSeconds(60 * 30)) // Token expires in 30 minutes
-                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(accessTokenTtl))
+                .subject(user.getUsername())
                 .claim("user_id", user.getId())
                 .claim("email", user.getEmail())
-                .claim("scope", createScope(authentication)) // User roles/authorities
+                .claim("scope", createScope(user)) // User roles/authorities
                 .build();
 
         // Encode and return the JWT token
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        return jwtEncoder.encode(JwtEncoderParameters.from(signingKeys.header(), claims)).getTokenValue();
     }
 
     /**
      * Extracts user authorities (roles) and formats them as a space-separated string.
      * This scope is included in the JWT token for authorization purposes.
      *
-     * @param authentication Authentication object containing user authorities
+     * @param user Details of the authenticated user
      * @return Space-separated string of authorities (e.g., "ROLE_USER ROLE_ADMIN")
      */
-    private String createScope(Authentication authentication) {
-        return authentication
+    private String createScope(CustomUserDetails user) {
+        return user
                 .getAuthorities()
                 .stream()
                 .map(GrantedAuthority::getAuthority)
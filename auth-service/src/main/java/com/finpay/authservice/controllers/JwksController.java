@@ -0,0 +1,42 @@
+package com.finpay.authservice.controllers;
+
+import com.finpay.authservice.securities.SigningKeys;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST controller publishing the public keys that verify issued JWTs.
+ * Resource servers and the gateway fetch this set in the background and
+ * select the key by the token's kid header.
+ */
+@RestController
+public class JwksController {
+
+    private final Map<String, Object> jwks;
+
+    /**
+     * Constructs the JwksController.
+     *
+     * @param signingKeys Keys whose public halves are published
+     */
+    public JwksController(SigningKeys signingKeys) {
+        this.jwks = signingKeys.publishedKeys().toPublicJWKSet().toJSONObject();
+    }
+
+    /**
+     * Returns the published key set as a JWKS document.
+     *
+     * @return JWKS JSON, cacheable for five minutes
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(jwks);
+    }
+}
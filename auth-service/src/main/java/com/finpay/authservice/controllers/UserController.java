@@ -1,17 +1,26 @@
 package com.finpay.authservice.controllers;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 
 import com.finpay.authservice.models.UserEntity;
+import com.finpay.authservice.services.BulkUserImportService;
 import com.finpay.authservice.services.UserService;
+import com.finpay.common.dto.CursorPage;
+import com.finpay.common.dto.users.BulkImportResult;
 import com.finpay.common.dto.users.CreateUserRequest;
 import com.finpay.common.dto.users.UserDTO;
 import com.finpay.common.dto.users.UserLocationDTO;
 import com.finpay.common.enums.RoleEnum;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -21,29 +30,59 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 @RestController
 @RequestMapping("/auth-services")
 public class UserController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private UserService userService;
+    @Autowired
+    private BulkUserImportService bulkUserImportService;
 
     /**
-     * Retrieves all users with their location information.
+     * Retrieves user location information, one page at a time, in user id order.
      * Returns simplified user data including ID, email, and geographic coordinates.
+     * Follow nextCursor in the response to read the following page.
      *
-     * @return List of UserLocationDTO containing user location details
+     * @param cursor Cursor returned by the previous page; omit for the first page
+     * @param size Page size, between 1 and 500 (default 100)
+     * @return CursorPage of UserLocationDTO containing user location details
      */
     @GetMapping("/users-location")
-    public List<UserLocationDTO> getAlLUsersLocation() {
-        return userService.getAllUsersLocation();
+    public CursorPage<UserLocationDTO> getAlLUsersLocation(@RequestParam(name = "cursor", required = false) String cursor,
+                                                           @RequestParam(name = "size", defaultValue = "100") int size) {
+        checkPageSize(size);
+        return userService.getUsersLocation(cursor, size);
     }
 
     /**
-     * Retrieves all users with complete information.
+     * Retrieves users with complete information, one page at a time, in id order.
      * Returns full user details including personal info, role, and location.
+     * Follow nextCursor in the response to read the following page.
      *
-     * @return List of UserDTO containing complete user details
+     * @param cursor Cursor returned by the previous page; omit for the first page
+     * @param size Page size, between 1 and 500 (default 100)
+     * @return CursorPage of UserDTO containing complete user details
      */
     @GetMapping("/users")
-    public List<UserDTO> getAllUsers() {
-        return userService.getAllUsers();
+    public CursorPage<UserDTO> getAllUsers(@RequestParam(name = "cursor", required = false) String cursor,
+                                           @RequestParam(name = "size", defaultValue = "100") int size) {
+        checkPageSize(size);
+        return userService.getUsers(cursor, size);
+    }
+
+    /**
+     * Streams every user as newline-delimited JSON, for admin tooling.
+     * The table is read in batches while the response is written, so memory stays flat
+     * however many users there are. Restricted to administrators.
+     *
+     * @return Streaming response body of UserDTO lines
+     */
+    @GetMapping(value = "/users/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     /**
@@ -77,4 +116,63 @@ public class UserController {
 
         return ResponseEntity.created(location).body(userDTO);
     }
+
+    /**
+     * Creates many users in one request, e.g. when onboarding a partner bank.
+     * Passwords are hashed in parallel and users inserted in batched chunks.
+     * Restricted to administrators.
+     *
+     * @param users Users to create
+     * @return BulkImportResult with created, skipped and rejected counts
+     */
+    @PostMapping("/users/bulk")
+    public BulkImportResult bulkCreateUsers(@RequestBody List<CreateUserRequest> users) {
+        return bulkUserImportService.importUsers(users);
+    }
+
+    /**
+     * Imports users from a newline-delimited JSON body (one user per line), read while importing.
+     * If the import stops, send the same file again with skip set to the committed count
+     * of the last progress report to resume. Restricted to administrators.
+     *
+     * @param importId Identifier to report progress under; generated if omitted
+     * @param skip Number of leading records to skip (default 0)
+     * @param request Servlet request whose body is the NDJSON input
+     * @return BulkImportResult with the final counts
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/users/bulk/import", consumes = "application/x-ndjson")
+    public BulkImportResult importUsers(@RequestHeader(value = "X-Import-Id", required = false) String importId,
+                                        @RequestParam(name = "skip", defaultValue = "0") long skip,
+                                        HttpServletRequest request) throws IOException {
+        return bulkUserImportService.importStream(request.getInputStream(), importId, skip);
+    }
+
+    /**
+     * Returns the progress of a running or recently finished bulk import.
+     *
+     * @param importId Identifier of the import
+     * @return BulkImportResult with the current counts
+     * @throws ResponseStatusException with 404 status if the import is unknown
+     */
+    @GetMapping("/users/bulk/{importId}")
+    public BulkImportResult importProgress(@PathVariable("importId") String importId) {
+        BulkImportResult progress = bulkUserImportService.getProgress(importId);
+        if (progress == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown import " + importId);
+        }
+        return progress;
+    }
+
+    /**
+     * Rejects page sizes outside the supported range.
+     *
+     * @param size Requested page size
+     * @throws ResponseStatusException with 400 status if the size is out of range
+     */
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 }
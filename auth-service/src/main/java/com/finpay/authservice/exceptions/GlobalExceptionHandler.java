@@ -6,8 +6,10 @@ import java.util.Map;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Global exception handler for the Auth Service.
@@ -16,6 +18,66 @@ import org.springframework.http.HttpStatus;
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    /**
+     * Handles refresh tokens that are unknown, expired, revoked or reused.
+     * Returns HTTP 401 so the client falls back to a password login.
+     *
+     * @param ex The refusal
+     * @return ResponseEntity containing error details with HTTP 401 status
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
+    /**
+     * Handles logins and registrations rejected by the password hashing executor.
+     * Returns HTTP 429 with a Retry-After header so clients back off.
+     *
+     * @param ex The rejection
+     * @return ResponseEntity containing error details with HTTP 429 status
+     */
+    @ExceptionHandler(HashingCapacityException.class)
+    public ResponseEntity<Map<String, Object>> handleHashingCapacity(HashingCapacityException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Handles logins refused by the brute-force throttle.
+     * Returns HTTP 429 with a Retry-After header covering the remaining lockout.
+     *
+     * @param ex The refusal
+     * @return ResponseEntity containing error details with HTTP 429 status
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Map<String, Object>> handleLoginThrottled(LoginThrottledException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Handles request errors raised with an explicit status, such as a malformed cursor.
+     * Returns that status instead of falling through to HTTP 500.
+     *
+     * @param ex The exception carrying the status
+     * @return ResponseEntity containing error details with the exception's status
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleResponseStatus(ResponseStatusException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode()).body(error);
+    }
+
     /**
      * Handles all uncaught exceptions throughout the application.
      * Returns a standardized error response with HTTP 500 status.
@@ -0,0 +1,32 @@
+package com.finpay.authservice.exceptions;
+
+/**
+ * Thrown when a password hashing request is rejected because the hashing
+ * executor is saturated or the username already has too many hashes in flight.
+ * Mapped to HTTP 429 with a Retry-After header, by the controller advice for the login
+ * endpoint and by the HashingCapacityFilter for HTTP Basic authentication.
+ */
+public class HashingCapacityException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message Reason for the rejection
+     * @param retryAfterSeconds Suggested delay before retrying
+     */
+    public HashingCapacityException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Suggested delay before the client retries.
+     *
+     * @return Delay in seconds, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.finpay.authservice.exceptions;
+
+/**
+ * Thrown when a refresh token is unknown, expired, revoked or already used.
+ * Mapped to HTTP 401; the client has to log in again.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message Reason the token was refused
+     */
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.finpay.authservice.exceptions;
+
+/**
+ * Thrown when a login is refused because its username or client address has
+ * failed too many times recently.
+ * Mapped to HTTP 429 with a Retry-After header.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message Reason for the rejection
+     * @param retryAfterSeconds Time until the lockout ends
+     */
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Time until the client may try again.
+     *
+     * @return Delay in seconds, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,78 @@
+package com.finpay.authservice.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing an API key issued to a machine client.
+ * Only the HMAC of the key is stored; resource servers look keys up by that hash.
+ */
+@Entity
+@Table(name = "api_keys", indexes = {
+        @Index(name = "idx_api_keys_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiKey {
+
+    /**
+     * Unique identifier of the key.
+     * Auto-generated by the database.
+     */
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    /**
+     * Leading characters of the key, shown so owners can tell keys apart.
+     */
+    @Column(nullable = false, length = 16)
+    private String prefix;
+
+    /**
+     * Base64url HMAC-SHA256 of the key.
+     */
+    @Column(name = "key_hash", nullable = false, unique = true, length = 64)
+    private String keyHash;
+
+    /**
+     * Id of the user the key acts for.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Label given by the owner.
+     */
+    @Column(nullable = false)
+    private String name;
+
+    /**
+     * Space-separated authorities granted to the key.
+     */
+    @Column(nullable = false)
+    private String scope;
+
+    /**
+     * Time the key was issued.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Time after which the key is no longer accepted.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Whether the key was revoked by its owner.
+     */
+    @Column(nullable = false)
+    private boolean revoked;
+}
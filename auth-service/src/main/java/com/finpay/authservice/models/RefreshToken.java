@@ -0,0 +1,75 @@
+package com.finpay.authservice.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity class representing an issued refresh token.
+ * Only the SHA-256 hash of the opaque token is stored. Tokens rotated from one
+ * login share a family id, so reuse of an already rotated token revokes the family.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    /**
+     * Unique identifier of the token.
+     * Auto-generated by the database.
+     */
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    /**
+     * Base64url SHA-256 hash of the opaque token.
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    /**
+     * Id shared by all tokens rotated from the same login.
+     */
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    /**
+     * Id of the user the token was issued to.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Time the token was issued.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Time after which the token is no longer accepted.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Time the token was exchanged for a new one; null while unused.
+     */
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    /**
+     * Whether the token's family was revoked.
+     */
+    @Column(nullable = false)
+    private boolean revoked;
+}
@@ -0,0 +1,37 @@
+package com.finpay.authservice.models;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.security.core.userdetails.UserCache;
+
+/**
+ * JPA entity listener evicting a user from the authentication cache whenever the
+ * user row is inserted, updated (e.g. a password change) or deleted.
+ * Bulk JPQL updates bypass entity listeners and must evict explicitly.
+ */
+public class UserCacheEvictionListener {
+
+    private final UserCache userCache;
+
+    /**
+     * Creates the listener; instantiated by Hibernate through Spring.
+     *
+     * @param userCache Cache of user details used for authentication
+     */
+    public UserCacheEvictionListener(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+    /**
+     * Evicts the written user.
+     *
+     * @param user User whose row changed
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(UserEntity user) {
+        userCache.removeUserFromCache(user.getUsername());
+    }
+}
@@ -0,0 +1,17 @@
+package com.finpay.authservice.models;
+
+/**
+ * Read-only projection of a user with its role and place name.
+ * Selected column by column in a single query, without loading the entity graph.
+ *
+ * @param id User identifier
+ * @param username Username for authentication
+ * @param email User's email address
+ * @param firstName User's first name
+ * @param lastName User's last name
+ * @param roleName Name of the user's role, null if none is assigned
+ * @param place Name of the user's location
+ */
+public record UserSummary(Long id, String username, String email, String firstName, String lastName,
+                          String roleName, String place) {
+}
@@ -0,0 +1,45 @@
+package com.finpay.authservice.repositories;
+
+import com.finpay.authservice.models.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for ApiKey data access.
+ * Provides lookup by key hash for introspection and per-user listing and revocation.
+ */
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+    /**
+     * Finds an API key by its hash.
+     *
+     * @param keyHash Base64url HMAC-SHA256 of the key
+     * @return Optional containing the ApiKey if found, empty otherwise
+     */
+    Optional<ApiKey> findByKeyHash(String keyHash);
+
+    /**
+     * Returns the API keys of a user, newest first.
+     *
+     * @param userId Id of the owner
+     * @return API keys of the user
+     */
+    List<ApiKey> findByUserIdOrderByIdDesc(Long userId);
+
+    /**
+     * Revokes a key of the given user.
+     *
+     * @param id Key id
+     * @param userId Id of the owner; keys of other users are left untouched
+     * @return 1 if the key was revoked, 0 if it does not exist, belongs to someone else or was already revoked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ApiKey k SET k.revoked = true WHERE k.id = :id AND k.userId = :userId AND k.revoked = false")
+    int revoke(@Param("id") Long id, @Param("userId") Long userId);
+}
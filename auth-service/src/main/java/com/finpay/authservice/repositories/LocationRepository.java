@@ -3,10 +3,20 @@ package com.finpay.authservice.repositories;
 import com.finpay.authservice.models.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 /**
  * Repository interface for Location entity data access.
  * Provides CRUD operations and query methods for Location entities.
  * Extends JpaRepository to inherit standard database operations.
  */
 public interface LocationRepository extends JpaRepository<Location, Long> {
+    /**
+     * Finds a location by its place name.
+     * Used by bulk imports so users of the same place share one location row.
+     *
+     * @param place Place name to search for
+     * @return Optional containing the first matching Location, empty otherwise
+     */
+    Optional<Location> findFirstByPlace(String place);
 }
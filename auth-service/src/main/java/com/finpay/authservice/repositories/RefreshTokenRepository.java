@@ -0,0 +1,64 @@
+package com.finpay.authservice.repositories;
+
+import com.finpay.authservice.models.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for RefreshToken data access.
+ * Provides lookup by token hash and the atomic updates used for rotation and revocation.
+ */
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    /**
+     * Finds a refresh token by the hash of its value.
+     *
+     * @param tokenHash Base64url SHA-256 hash of the token
+     * @return Optional containing the RefreshToken if found, empty otherwise
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks a token as used if it is still unused and not revoked.
+     * The conditional update makes rotation atomic across concurrent refreshes and instances.
+     *
+     * @param id Token id
+     * @param usedAt Time of use
+     * @return 1 if this call used the token, 0 if it was already used or revoked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.usedAt = :usedAt WHERE t.id = :id AND t.usedAt IS NULL AND t.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("usedAt") Instant usedAt);
+
+    /**
+     * Revokes every token of a family.
+     *
+     * @param familyId Family id
+     * @return Number of tokens revoked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId AND t.revoked = false")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    /**
+     * Deletes up to batchSize tokens that expired before the cutoff.
+     *
+     * @param cutoff Tokens expiring before this instant are deleted
+     * @param batchSize Maximum number of rows deleted by this call
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "SELECT id FROM refresh_tokens WHERE expires_at < :cutoff ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
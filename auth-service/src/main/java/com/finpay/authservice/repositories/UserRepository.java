@@ -1,8 +1,15 @@
 package com.finpay.authservice.repositories;
 
 import com.finpay.authservice.models.UserEntity;
+import com.finpay.authservice.models.UserSummary;
+import com.finpay.common.dto.users.UserLocationDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,4 +26,43 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      * @return Optional containing the UserEntity if found, empty otherwise
      */
     Optional<UserEntity> findByUsername(String username);
+
+    /**
+     * Returns which of the given usernames are already taken.
+     * Used by bulk imports to skip existing users with one query per chunk.
+     *
+     * @param usernames Usernames to check
+     * @return The subset of usernames that exist
+     */
+    @Query("SELECT u.username FROM UserEntity u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Returns users with an id greater than afterId, in id order, as summaries.
+     * Selects only the listed columns with joins in one query, and keyset pagination
+     * keeps every page a primary key range scan however deep the client pages.
+     *
+     * @param afterId Id of the last user of the previous page, 0 for the first page
+     * @param limit Maximum number of rows to return
+     * @return User summaries ordered by id
+     */
+    @Query("SELECT new com.finpay.authservice.models.UserSummary(" +
+            "u.id, u.username, u.email, u.firstName, u.lastName, r.roleName, l.place) " +
+            "FROM UserEntity u LEFT JOIN u.role r JOIN u.location l " +
+            "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Returns the locations of users with an id greater than afterId, in id order.
+     * Selects only the location columns in one query (no entity or role loading).
+     *
+     * @param afterId Id of the last user of the previous page, 0 for the first page
+     * @param limit Maximum number of rows to return
+     * @return User locations ordered by user id
+     */
+    @Query("SELECT new com.finpay.common.dto.users.UserLocationDTO(" +
+            "u.id, u.email, l.place, l.longitude, l.latitude) " +
+            "FROM UserEntity u JOIN u.location l " +
+            "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserLocationDTO> findLocationsAfter(@Param("afterId") long afterId, Limit limit);
 }
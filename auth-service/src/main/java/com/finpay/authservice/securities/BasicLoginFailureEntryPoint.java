@@ -0,0 +1,55 @@
+package com.finpay.authservice.securities;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+
+import java.io.IOException;
+
+/**
+ * HTTP Basic entry point that counts wrong Basic passwords in the {@link LoginThrottle}
+ * before sending the usual 401 challenge.
+ * <p>
+ * The BasicAuthenticationFilter calls its entry point with the failure of the credentials
+ * it tried; only bad credentials are counted, not a missing login or a disabled account.
+ */
+public class BasicLoginFailureEntryPoint implements AuthenticationEntryPoint {
+
+    private final LoginThrottle loginThrottle;
+    private final BasicAuthenticationEntryPoint challenge = new BasicAuthenticationEntryPoint();
+
+    /**
+     * Creates the entry point.
+     *
+     * @param loginThrottle Throttle shared with the login endpoint
+     */
+    public BasicLoginFailureEntryPoint(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+        this.challenge.setRealmName("Realm");
+    }
+
+    /**
+     * Counts a failed Basic login, then answers with a Basic challenge.
+     *
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param authException Reason authentication failed or is required
+     * @throws IOException If I/O error occurs
+     * @throws ServletException If servlet error occurs
+     */
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException, ServletException {
+        if (authException instanceof BadCredentialsException) {
+            String username = BasicLoginThrottleFilter.basicUsername(request);
+            if (username != null) {
+                loginThrottle.recordFailure(username, request);
+            }
+        }
+        challenge.commence(request, response, authException);
+    }
+}
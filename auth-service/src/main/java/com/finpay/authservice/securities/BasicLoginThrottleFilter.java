@@ -0,0 +1,88 @@
+package com.finpay.authservice.securities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.authservice.exceptions.LoginThrottledException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies the {@link LoginThrottle} to HTTP Basic credentials, as the login endpoint does.
+ * <p>
+ * Placed before the BasicAuthenticationFilter: a request whose Basic username or client
+ * address is locked is answered with 429 and Retry-After before any user lookup or hashing.
+ * Failed Basic logins are counted by {@link BasicLoginFailureEntryPoint}.
+ * <p>
+ * Not a Spring bean: it is added to the security filter chain explicitly, so it does not
+ * also get registered as a plain servlet filter.
+ */
+public class BasicLoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final BasicAuthenticationConverter BASIC_CREDENTIALS = new BasicAuthenticationConverter();
+
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Creates the filter.
+     *
+     * @param loginThrottle Throttle shared with the login endpoint
+     */
+    public BasicLoginThrottleFilter(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    /**
+     * Refuses requests with locked Basic credentials, and runs the rest of the chain otherwise.
+     *
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param filterChain Filter chain to continue request processing
+     * @throws ServletException If servlet error occurs
+     * @throws IOException If I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String username = basicUsername(request);
+        if (username != null) {
+            try {
+                loginThrottle.check(username, request);
+            } catch (LoginThrottledException e) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), Map.of("error", e.getMessage()));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Reads the username of the request's HTTP Basic credentials.
+     *
+     * @param request HTTP request
+     * @return Username, or null if the request carries no well-formed Basic credentials
+     */
+    static String basicUsername(HttpServletRequest request) {
+        try {
+            UsernamePasswordAuthenticationToken credentials = BASIC_CREDENTIALS.convert(request);
+            return credentials != null ? credentials.getName() : null;
+        } catch (AuthenticationException malformed) {
+            return null;
+        }
+    }
+}
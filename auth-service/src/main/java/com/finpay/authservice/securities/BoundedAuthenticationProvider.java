@@ -0,0 +1,41 @@
+package com.finpay.authservice.securities;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * DaoAuthenticationProvider enforcing the per-username hashing cap of the
+ * {@link PasswordHashingExecutor} before any password is verified.
+ */
+public class BoundedAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordHashingExecutor hashingExecutor;
+
+    /**
+     * Creates the provider.
+     *
+     * @param hashingExecutor Executor whose per-username cap is applied
+     */
+    public BoundedAuthenticationProvider(PasswordHashingExecutor hashingExecutor) {
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    /**
+     * Authenticates while holding one of the username's hashing slots.
+     *
+     * @param authentication Username and password authentication request
+     * @return Fully authenticated object
+     * @throws AuthenticationException If authentication fails
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName() != null ? authentication.getName() : "";
+        hashingExecutor.acquireUser(username);
+        try {
+            return super.authenticate(authentication);
+        } finally {
+            hashingExecutor.releaseUser(username);
+        }
+    }
+}
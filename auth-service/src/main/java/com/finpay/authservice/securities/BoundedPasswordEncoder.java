@@ -0,0 +1,59 @@
+package com.finpay.authservice.securities;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder running the delegate's hashing on the {@link PasswordHashingExecutor}.
+ * Covers login verification (including the dummy hash of unknown usernames)
+ * and password hashing at registration.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor hashingExecutor;
+
+    /**
+     * Creates the encoder.
+     *
+     * @param delegate Encoder doing the actual hashing, e.g. BCrypt
+     * @param hashingExecutor Bounded executor the hashing runs on
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashingExecutor) {
+        this.delegate = delegate;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    /**
+     * Hashes a raw password on the hashing executor.
+     *
+     * @param rawPassword Password to hash
+     * @return Encoded password
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingExecutor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Verifies a raw password on the hashing executor.
+     *
+     * @param rawPassword Password presented by the client
+     * @param encodedPassword Stored password hash
+     * @return True if the password matches
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingExecutor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Delegates to the wrapped encoder; needs no hashing.
+     *
+     * @param encodedPassword Stored password hash
+     * @return True if the hash should be re-encoded
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,142 @@
+package com.finpay.authservice.securities;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size sliding-window failure counters with progressive lockout, for any number of keys.
+ * <p>
+ * Keys are hashed (with a random per-process seed) into two slots of a count-min sketch, so
+ * memory is fixed by the slot count however many distinct keys are seen, and no per-key
+ * objects are allocated. Each slot packs the current window number and the failure counts
+ * of the current and previous window into one long, updated with a CAS; the failures of a
+ * key are estimated as the smaller of its two slots, weighting the previous window by how
+ * much of it still overlaps the sliding window. Collisions can only overestimate.
+ * <p>
+ * Once a key's estimate reaches the limit, it is locked for the base backoff, doubled for
+ * each further failure, up to the maximum backoff. A lock is stored in both slots and the
+ * key is locked only while both are, so a colliding key is rarely affected.
+ */
+class FailureSketch {
+
+    private static final long COUNT_MASK = 0xFFFFL;
+
+    private final AtomicLongArray counters;
+    private final AtomicIntegerArray lockedUntilSeconds;
+    private final int slotMask;
+    private final long windowMillis;
+    private final int limit;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long seed = new SecureRandom().nextLong();
+    private final long originMillis = System.currentTimeMillis();
+
+    /**
+     * Creates the sketch.
+     *
+     * @param slots Number of slots, rounded up to a power of two (12 bytes each)
+     * @param windowMillis Length of the sliding window
+     * @param limit Failures within the window that trigger a lockout
+     * @param baseBackoffMillis Lockout after the limit is reached
+     * @param maxBackoffMillis Longest lockout
+     */
+    FailureSketch(int slots, long windowMillis, int limit, long baseBackoffMillis, long maxBackoffMillis) {
+        int size = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        this.counters = new AtomicLongArray(size);
+        this.lockedUntilSeconds = new AtomicIntegerArray(size);
+        this.slotMask = size - 1;
+        this.windowMillis = windowMillis;
+        this.limit = limit;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Returns how long a key is still locked.
+     *
+     * @param key Throttled key
+     * @param nowMillis Current time in epoch millis
+     * @return Remaining lockout in millis, 0 if the key is not locked
+     */
+    long lockedFor(String key, long nowMillis) {
+        long hash = hash(key);
+        long until = Math.min(lockedUntilSeconds.get(slot1(hash)), lockedUntilSeconds.get(slot2(hash)));
+        return Math.max(0, originMillis + until * 1000L - nowMillis);
+    }
+
+    /**
+     * Counts a failure of a key and locks the key if it reached the limit.
+     *
+     * @param key Throttled key
+     * @param nowMillis Current time in epoch millis
+     * @return Lockout started by this failure in millis, 0 if the key stays unlocked
+     */
+    long recordFailure(String key, long nowMillis) {
+        long hash = hash(key);
+        long window = nowMillis / windowMillis;
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        double estimate = Math.min(
+                increment(slot1(hash), window, previousWeight),
+                increment(slot2(hash), window, previousWeight));
+        if (estimate < limit) {
+            return 0;
+        }
+        int excess = (int) Math.min(30, estimate - limit);
+        long backoff = Math.min(maxBackoffMillis, baseBackoffMillis << excess);
+        // Seconds since creation keep the lock in an int
+        int until = (int) ((nowMillis - originMillis + backoff + 999) / 1000);
+        lockedUntilSeconds.accumulateAndGet(slot1(hash), until, Math::max);
+        lockedUntilSeconds.accumulateAndGet(slot2(hash), until, Math::max);
+        return backoff;
+    }
+
+    /**
+     * Adds one failure to a slot, rolling its windows forward first.
+     *
+     * @return Sliding-window failure estimate of the slot after the increment
+     */
+    private double increment(int slot, long window, double previousWeight) {
+        int windowTag = (int) window;
+        while (true) {
+            long packed = counters.get(slot);
+            int storedTag = (int) (packed >>> 32);
+            long current = (packed >>> 16) & COUNT_MASK;
+            long previous = packed & COUNT_MASK;
+            if (storedTag != windowTag) {
+                previous = storedTag == windowTag - 1 ? current : 0;
+                current = 0;
+            }
+            current = Math.min(COUNT_MASK, current + 1);
+            long updated = ((long) windowTag << 32) | (current << 16) | previous;
+            if (counters.compareAndSet(slot, packed, updated)) {
+                return current + previous * previousWeight;
+            }
+        }
+    }
+
+    private int slot1(long hash) {
+        return (int) hash & slotMask;
+    }
+
+    private int slot2(long hash) {
+        return (int) (hash >>> 32) & slotMask;
+    }
+
+    /**
+     * Seeded 64-bit FNV-1a over the key's characters, finished with a MurmurHash3 mix.
+     */
+    private long hash(String key) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
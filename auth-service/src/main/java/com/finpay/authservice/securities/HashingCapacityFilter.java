@@ -0,0 +1,58 @@
+package com.finpay.authservice.securities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.authservice.exceptions.HashingCapacityException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Answers HTTP Basic requests rejected by the {@link PasswordHashingExecutor} with 429.
+ * <p>
+ * Basic authentication hashes inside the security filter chain, where the controller
+ * advice does not apply, so a {@link HashingCapacityException} would otherwise end as 500.
+ * Placed before the BasicAuthenticationFilter, this writes the same 429 response with
+ * Retry-After as the login endpoint does.
+ * <p>
+ * Not a Spring bean: it is added to the security filter chain explicitly, so it does not
+ * also get registered as a plain servlet filter.
+ */
+public class HashingCapacityFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Runs the rest of the chain, turning a hashing rejection into 429.
+     *
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param filterChain Filter chain to continue request processing
+     * @throws ServletException If servlet error occurs
+     * @throws IOException If I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (HashingCapacityException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.resetBuffer();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Map.of("error", e.getMessage()));
+        }
+    }
+}
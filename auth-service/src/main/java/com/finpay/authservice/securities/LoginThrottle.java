@@ -0,0 +1,119 @@
+package com.finpay.authservice.securities;
+
+import com.finpay.authservice.exceptions.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Brute-force throttle for password logins, checked before any user lookup or hashing.
+ * <p>
+ * Failed logins are counted per username and per client address in sliding windows held
+ * in fixed-size {@link FailureSketch}es, so memory stays constant under credential stuffing
+ * with millions of distinct usernames. A key that reaches its limit is locked with a
+ * backoff that doubles with every further failure; locked logins are refused with 429
+ * without touching the database or the hashing executor.
+ * <p>
+ * Counters are local to each auth-service instance.
+ */
+public class LoginThrottle {
+
+    private final FailureSketch usernames;
+    private final FailureSketch addresses;
+    private final boolean trustForwardedFor;
+    private final Counter failures;
+    private final Counter throttledUsername;
+    private final Counter throttledAddress;
+
+    /**
+     * Creates the throttle.
+     *
+     * @param slots Slots per sketch (12 bytes each)
+     * @param window Length of the sliding window
+     * @param usernameLimit Failures of one username within the window before it is locked
+     * @param addressLimit Failures from one client address within the window before it is locked
+     * @param baseBackoff Lockout when a limit is reached
+     * @param maxBackoff Longest lockout
+     * @param trustForwardedFor Whether the client address is taken from X-Forwarded-For (set by the gateway)
+     * @param meterRegistry Registry for failure and rejection metrics
+     */
+    public LoginThrottle(int slots, Duration window, int usernameLimit, int addressLimit, Duration baseBackoff,
+                         Duration maxBackoff, boolean trustForwardedFor, MeterRegistry meterRegistry) {
+        this.usernames = new FailureSketch(slots, window.toMillis(), usernameLimit,
+                baseBackoff.toMillis(), maxBackoff.toMillis());
+        this.addresses = new FailureSketch(slots, window.toMillis(), addressLimit,
+                baseBackoff.toMillis(), maxBackoff.toMillis());
+        this.trustForwardedFor = trustForwardedFor;
+        this.failures = Counter.builder("finpay.auth.login.failures")
+                .description("Failed password logins")
+                .register(meterRegistry);
+        this.throttledUsername = throttledCounter(meterRegistry, "username");
+        this.throttledAddress = throttledCounter(meterRegistry, "address");
+    }
+
+    /**
+     * Refuses the login if its username or client address is locked.
+     *
+     * @param username Username of the login attempt
+     * @param request Login request, for the client address
+     * @throws LoginThrottledException If either key is locked
+     */
+    public void check(String username, HttpServletRequest request) {
+        long now = System.currentTimeMillis();
+        long usernameLock = usernames.lockedFor(usernameKey(username), now);
+        if (usernameLock > 0) {
+            throttledUsername.increment();
+            throw new LoginThrottledException("Too many failed logins for this user", toRetryAfter(usernameLock));
+        }
+        long addressLock = addresses.lockedFor(clientAddress(request), now);
+        if (addressLock > 0) {
+            throttledAddress.increment();
+            throw new LoginThrottledException("Too many failed logins from this address", toRetryAfter(addressLock));
+        }
+    }
+
+    /**
+     * Counts a failed login against its username and client address.
+     *
+     * @param username Username of the failed attempt
+     * @param request Login request, for the client address
+     */
+    public void recordFailure(String username, HttpServletRequest request) {
+        long now = System.currentTimeMillis();
+        failures.increment();
+        usernames.recordFailure(usernameKey(username), now);
+        addresses.recordFailure(clientAddress(request), now);
+    }
+
+    private static String usernameKey(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolves the client address; with a trusted gateway in front, the last
+     * X-Forwarded-For entry is the address the gateway saw.
+     */
+    private String clientAddress(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static long toRetryAfter(long lockMillis) {
+        return Math.max(1, (lockMillis + 999) / 1000);
+    }
+
+    private static Counter throttledCounter(MeterRegistry registry, String key) {
+        return Counter.builder("finpay.auth.login.throttled")
+                .description("Logins refused because their key is locked after repeated failures")
+                .tag("key", key)
+                .register(registry);
+    }
+}
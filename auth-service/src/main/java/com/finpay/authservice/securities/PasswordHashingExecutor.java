@@ -0,0 +1,191 @@
+package com.finpay.authservice.securities;
+
+import com.finpay.authservice.exceptions.HashingCapacityException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, CPU-sized executor for BCrypt hashing with admission control.
+ * <p>
+ * Hashes run on a fixed pool with a bounded queue instead of on request threads, so a
+ * login burst cannot pin every CPU. A hash is rejected up front when the queue is full or
+ * when its estimated queue wait (queued hashes times the average hash time, spread over
+ * the pool) exceeds the configured maximum, keeping latency flat for admitted requests.
+ * A per-username cap stops one account from monopolizing the pool.
+ */
+public class PasswordHashingExecutor {
+
+    private static final double EWMA_WEIGHT = 0.1;
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxQueueWaitNanos;
+    private final int perUserLimit;
+    private final ConcurrentMap<String, AtomicInteger> perUser = new ConcurrentHashMap<>();
+    private volatile double averageHashNanos;
+
+    private final Timer hashTime;
+    private final Timer queueWait;
+    private final Counter rejectedOverloaded;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedUserLimit;
+
+    /**
+     * Creates the executor.
+     *
+     * @param threads Hashing threads; 0 or less uses one per available processor
+     * @param queueCapacity Maximum hashes waiting for a thread
+     * @param maxQueueWait Longest estimated queue wait a hash is admitted with
+     * @param perUserLimit Maximum concurrent hashes for one username
+     * @param meterRegistry Registry for hash time, queue wait and rejection metrics
+     */
+    public PasswordHashingExecutor(int threads, int queueCapacity, Duration maxQueueWait,
+                                   int perUserLimit, MeterRegistry meterRegistry) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.perUserLimit = perUserLimit;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTime = Timer.builder("finpay.auth.hashing.time")
+                .description("Time spent computing a password hash")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("finpay.auth.hashing.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedOverloaded = rejectedCounter(meterRegistry, "overloaded");
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedUserLimit = rejectedCounter(meterRegistry, "user_limit");
+        Gauge.builder("finpay.auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a hashing task on the pool and waits for its result.
+     *
+     * @param task Hashing task
+     * @param <T> Result type
+     * @return Result of the task
+     * @throws HashingCapacityException If the task is not admitted
+     */
+    public <T> T execute(Callable<T> task) {
+        long estimatedWait = estimatedQueueWaitNanos();
+        if (estimatedWait > maxQueueWaitNanos) {
+            rejectedOverloaded.increment();
+            throw new HashingCapacityException("Password hashing is overloaded", retryAfterSeconds(estimatedWait));
+        }
+
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    hashTime.record(elapsed, TimeUnit.NANOSECONDS);
+                    averageHashNanos = averageHashNanos == 0
+                            ? elapsed
+                            : averageHashNanos + EWMA_WEIGHT * (elapsed - averageHashNanos);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw new HashingCapacityException("Password hashing queue is full",
+                    retryAfterSeconds(estimatedQueueWaitNanos()));
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    /**
+     * Takes one of a username's concurrent hashing slots.
+     * Must be paired with {@link #releaseUser(String)} once the hash is done.
+     *
+     * @param username Username being authenticated
+     * @throws HashingCapacityException If the username already uses all its slots
+     */
+    public void acquireUser(String username) {
+        AtomicInteger inFlight = perUser.compute(username, (key, count) -> {
+            AtomicInteger counter = count != null ? count : new AtomicInteger();
+            counter.incrementAndGet();
+            return counter;
+        });
+        if (inFlight.get() > perUserLimit) {
+            releaseUser(username);
+            rejectedUserLimit.increment();
+            throw new HashingCapacityException("Too many concurrent logins for this user", 1);
+        }
+    }
+
+    /**
+     * Returns a username's hashing slot.
+     *
+     * @param username Username passed to {@link #acquireUser(String)}
+     */
+    public void releaseUser(String username) {
+        perUser.computeIfPresent(username, (key, count) -> count.decrementAndGet() == 0 ? null : count);
+    }
+
+    /**
+     * Stops the hashing threads.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private long estimatedQueueWaitNanos() {
+        return (long) (executor.getQueue().size() * averageHashNanos / threads);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("finpay.auth.hashing.rejected")
+                .description("Password hashes rejected by admission control")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.finpay.authservice.securities;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+
+/**
+ * Keys and algorithm the auth service signs tokens with.
+ * <p>
+ * Both the RSA key and, when enabled, the P-256 key are published, so tokens signed
+ * with either algorithm verify everywhere. This allows switching between RS256 and
+ * ES256 without a flag day: publish the new key first, then change the algorithm,
+ * and tokens signed with the old one remain valid until they expire.
+ *
+ * @param signingKeys Private keys available to the encoder, one per key type
+ * @param publishedKeys Public keys published at /.well-known/jwks.json
+ * @param algorithm Algorithm new tokens are signed with
+ */
+public record SigningKeys(JWKSet signingKeys, JWKSet publishedKeys, SignatureAlgorithm algorithm) {
+
+    /**
+     * JWS header selecting the configured algorithm's key.
+     *
+     * @return Header for new tokens
+     */
+    public JwsHeader header() {
+        return JwsHeader.with(algorithm).build();
+    }
+}
@@ -4,32 +4,46 @@ import static org.springframework.security.config.Customizer.withDefaults;
 
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
-import java.util.UUID;
+import java.security.spec.InvalidKeySpecException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import com.finpay.authservice.services.UserService;
 import com.finpay.common.utils.PemUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
-import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 
 /**
  * Spring Security configuration for the Auth Service.
@@ -43,16 +57,17 @@ public class SpringSecurityConfiguration {
      * Sets up:
      * - Stateless session management (no server-side sessions)
      * - Authorization rules for different endpoints
-     * - HTTP Basic authentication
+     * - HTTP Basic authentication, throttled like the login endpoint
      * - OAuth2 resource server with JWT validation
      * - CSRF protection disabled (appropriate for stateless APIs)
      *
      * @param http HttpSecurity object to configure
+     * @param loginThrottle Brute-force throttle, also applied to HTTP Basic credentials
      * @return Configured SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, LoginThrottle loginThrottle) throws Exception {
 
         // Configure stateless session management (JWT-based, no server sessions)
         http.sessionManagement(
@@ -67,6 +82,17 @@ public class SpringSecurityConfiguration {
                         .requestMatchers(HttpMethod.POST, "/auth-services/users").permitAll()
                         // Allow public access to login endpoint
                         .requestMatchers(HttpMethod.POST, "/auth-services/login").permitAll()
+                        // Allow public access to refresh token exchange (the refresh token is the credential)
+                        .requestMatchers(HttpMethod.POST, "/auth-services/token/refresh").permitAll()
+                        // Resource servers resolve API key hashes without credentials (the keyed hash is the proof)
+                        .requestMatchers(HttpMethod.POST, "/auth-services/api-keys/introspect").permitAll()
+                        // Bulk export and import are for administrators only (JWT scope or HTTP Basic role)
+                        .requestMatchers(HttpMethod.GET, "/auth-services/users/export", "/auth-services/users/bulk/*")
+                                .hasAnyAuthority("SCOPE_ROLE_ADMIN", "ROLE_ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/auth-services/users/bulk", "/auth-services/users/bulk/import")
+                                .hasAnyAuthority("SCOPE_ROLE_ADMIN", "ROLE_ADMIN")
+                        // Allow public access to the published verification keys
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
                         // Allow public access to Swagger documentation and actuator endpoints
                         .requestMatchers(
                                 "/swagger-ui/**",
@@ -78,8 +104,12 @@ public class SpringSecurityConfiguration {
                         .anyRequest().authenticated()
         );
 
-        // Enable HTTP Basic authentication as fallback
-        http.httpBasic(withDefaults());
+        // Enable HTTP Basic authentication as fallback; wrong passwords count against the login throttle
+        http.httpBasic(basic -> basic.authenticationEntryPoint(new BasicLoginFailureEntryPoint(loginThrottle)));
+        // Basic logins rejected by the hashing executor get 429 + Retry-After instead of 500
+        http.addFilterBefore(new HashingCapacityFilter(), BasicAuthenticationFilter.class);
+        // Basic logins of locked usernames or addresses get 429 before any lookup or hashing
+        http.addFilterBefore(new BasicLoginThrottleFilter(loginThrottle), BasicAuthenticationFilter.class);
 
         // Disable CSRF protection (not needed for stateless JWT APIs)
         http.csrf(AbstractHttpConfigurer::disable);
@@ -92,64 +122,190 @@ public class SpringSecurityConfiguration {
 
     /**
      * Configures the authentication manager with DAO-based authentication.
-     * Uses the custom UserService for loading user details and BCrypt for password verification.
+     * Uses the custom UserService for loading user details and BCrypt for password verification,
+     * with at most a few concurrent verifications per username.
      *
      * @param userDetailsService Custom UserService that loads user details from database
      * @param passwordEncoder BCrypt password encoder for secure password comparison
+     * @param hashingExecutor Bounded executor enforcing the per-username cap
+     * @param userCache Cache of loaded user details; passwords are still verified on every login
      * @return Configured AuthenticationManager
      */
     @Bean
-    public AuthenticationManager authenticationManager(UserService userDetailsService, PasswordEncoder passwordEncoder) {
-        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+    public AuthenticationManager authenticationManager(UserService userDetailsService, PasswordEncoder passwordEncoder,
+                                                       PasswordHashingExecutor hashingExecutor,
+                                                       UserDetailsCache userCache) {
+        BoundedAuthenticationProvider authenticationProvider = new BoundedAuthenticationProvider(hashingExecutor);
         authenticationProvider.setUserDetailsService(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder); // Essential for password verification
+        authenticationProvider.setUserCache(userCache);
         return new ProviderManager(authenticationProvider);
     }
 
+    /**
+     * Creates the brute-force throttle checked before every password login.
+     *
+     * @param slots Slots per counter sketch; memory is 12 bytes per slot per sketch
+     * @param window Length of the sliding failure window
+     * @param usernameLimit Failures of one username within the window before it is locked
+     * @param addressLimit Failures from one client address within the window before it is locked
+     * @param baseBackoff Lockout when a limit is reached, doubled for each further failure
+     * @param maxBackoff Longest lockout
+     * @param trustForwardedFor Whether to take the client address from X-Forwarded-For; only safe
+     *                          when the service is reachable solely through the gateway
+     * @param meterRegistry Registry for failure and rejection metrics
+     * @return LoginThrottle used by the login endpoint and HTTP Basic authentication
+     */
+    @Bean
+    public LoginThrottle loginThrottle(
+            @Value("${finpay.auth.login-throttle.slots:1048576}") int slots,
+            @Value("${finpay.auth.login-throttle.window:15m}") Duration window,
+            @Value("${finpay.auth.login-throttle.username-limit:5}") int usernameLimit,
+            @Value("${finpay.auth.login-throttle.address-limit:50}") int addressLimit,
+            @Value("${finpay.auth.login-throttle.base-backoff:30s}") Duration baseBackoff,
+            @Value("${finpay.auth.login-throttle.max-backoff:1h}") Duration maxBackoff,
+            @Value("${finpay.auth.login-throttle.trust-forwarded-for:false}") boolean trustForwardedFor,
+            MeterRegistry meterRegistry) {
+        return new LoginThrottle(slots, window, usernameLimit, addressLimit, baseBackoff, maxBackoff,
+                trustForwardedFor, meterRegistry);
+    }
+
+    /**
+     * Creates the cache of user details used by password and HTTP Basic authentication,
+     * so repeated logins of a user do not query the user table every time.
+     *
+     * @param ttl How long loaded user details are reused
+     * @param maximumSize Maximum number of users cached
+     * @param meterRegistry Registry for cache and lookup metrics
+     * @return UserDetailsCache shared by the authentication provider and the eviction listener
+     */
+    @Bean
+    public UserDetailsCache userDetailsCache(
+            @Value("${finpay.auth.user-cache.ttl:5m}") Duration ttl,
+            @Value("${finpay.auth.user-cache.max-size:100000}") long maximumSize,
+            MeterRegistry meterRegistry) {
+        return new UserDetailsCache(ttl, maximumSize, meterRegistry);
+    }
+
 
     /**
-     * Creates a JWK (JSON Web Key) source for JWT signing and validation.
-     * The JWKSource provides the RSA key to the JWT encoder/decoder.
+     * Creates a JWK (JSON Web Key) source for JWT signing.
+     * The JWKSource provides the private keys to the JWT encoder, which picks
+     * the one matching the algorithm in the token header.
      *
-     * @param rsaKey The RSA key pair used for JWT operations
-     * @return JWKSource containing the RSA key
+     * @param signingKeys Keys the auth service signs with
+     * @return JWKSource containing the signing keys
      */
     @Bean
-    public JWKSource<SecurityContext> jwkSource(RSAKey rsaKey) {
-        JWKSet jwkSet = new JWKSet(rsaKey);
+    public JWKSource<SecurityContext> jwkSource(SigningKeys signingKeys) {
+        JWKSet jwkSet = signingKeys.signingKeys();
         return (selector, context) -> selector.select(jwkSet);
     }
 
     /**
-     * Loads RSA public and private keys from PEM files and creates an RSAKey.
-     * The public key is used to verify JWT signatures.
-     * The private key is used to sign JWTs.
+     * Loads the signing keys from PEM files and selects the signing algorithm.
+     * The RSA key (RS256) is always loaded; the P-256 key (ES256) is loaded when enabled.
+     * ES256 signatures are far cheaper to produce and tokens are smaller, while
+     * verification cost is comparable to RS256.
+     * Key IDs are RFC 7638 thumbprints, so they are stable across restarts and
+     * identical on every auth-service instance using the same keys.
+     * The published set contains both keys plus any additional public keys. To rotate
+     * a key, publish the new key as an additional key, wait for resource servers to
+     * refresh, make it the signing key, and keep the old key listed until its tokens
+     * have expired. Switching algorithms works the same way via ec-key.enabled.
      *
-     * @return RSAKey containing the public/private key pair with a unique key ID
+     * @param publicKeyLocation Classpath location of the RSA key's public half
+     * @param privateKeyLocation Classpath location of the RSA key's private half
+     * @param ecKeyEnabled Whether the P-256 key is loaded and published
+     * @param ecPublicKeyLocation Classpath location of the P-256 key's public half
+     * @param ecPrivateKeyLocation Classpath location of the P-256 key's private half
+     * @param algorithmName Algorithm new tokens are signed with (RS256 or ES256)
+     * @param additionalPublicKeys Classpath locations of further published public keys (RSA or P-256)
+     * @return SigningKeys with private, published keys and the signing algorithm
      * @throws Exception if key files cannot be read or parsed
      */
     @Bean
-    public RSAKey rsaKey() throws Exception {
-        RSAPublicKey publicKey = PemUtils.loadPublicKey("keys/public.pem");
-        RSAPrivateKey privateKey = PemUtils.loadPrivateKey("keys/private.pem");
+    public SigningKeys signingKeys(
+            @Value("${finpay.auth.jwks.signing-key.public-key-location:keys/public.pem}") String publicKeyLocation,
+            @Value("${finpay.auth.jwks.signing-key.private-key-location:keys/private.pem}") String privateKeyLocation,
+            @Value("${finpay.auth.jwks.ec-key.enabled:false}") boolean ecKeyEnabled,
+            @Value("${finpay.auth.jwks.ec-key.public-key-location:keys/ec-public.pem}") String ecPublicKeyLocation,
+            @Value("${finpay.auth.jwks.ec-key.private-key-location:keys/ec-private.pem}") String ecPrivateKeyLocation,
+            @Value("${finpay.auth.jwks.signing-algorithm:RS256}") String algorithmName,
+            @Value("${finpay.auth.jwks.additional-public-keys:}") List<String> additionalPublicKeys)
+            throws Exception {
+        RSAPublicKey publicKey = PemUtils.loadPublicKey(publicKeyLocation);
+        RSAPrivateKey privateKey = PemUtils.loadPrivateKey(privateKeyLocation);
 
-        return new RSAKey.Builder(publicKey)
+        List<JWK> signing = new ArrayList<>();
+        signing.add(new RSAKey.Builder(publicKey)
                 .privateKey(privateKey)
-                .keyID(UUID.randomUUID().toString())
-                .build();
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.RS256)
+                .keyIDFromThumbprint()
+                .build());
+        if (ecKeyEnabled) {
+            signing.add(new ECKey.Builder(Curve.P_256, PemUtils.loadEcPublicKey(ecPublicKeyLocation))
+                    .privateKey(PemUtils.loadEcPrivateKey(ecPrivateKeyLocation))
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.ES256)
+                    .keyIDFromThumbprint()
+                    .build());
+        }
+
+        SignatureAlgorithm algorithm = SignatureAlgorithm.from(algorithmName);
+        if (algorithm != SignatureAlgorithm.RS256 && algorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalStateException("Unsupported token signing algorithm " + algorithmName
+                    + "; use RS256 or ES256");
+        }
+        if (algorithm == SignatureAlgorithm.ES256 && !ecKeyEnabled) {
+            throw new IllegalStateException("ES256 signing requires finpay.auth.jwks.ec-key.enabled=true");
+        }
+
+        JWKSet signingKeys = new JWKSet(signing);
+        List<JWK> published = new ArrayList<>(signingKeys.toPublicJWKSet().getKeys());
+        for (String location : additionalPublicKeys) {
+            published.add(publicJwk(location));
+        }
+        return new SigningKeys(signingKeys, new JWKSet(published), algorithm);
     }
 
     /**
-     * Creates a JWT decoder using the RSA public key.
+     * Creates a JWT decoder verifying RS256 and ES256 tokens against every published key.
      * Used by Spring Security to validate incoming JWT tokens.
      *
-     * @param rsaKey The RSA key containing the public key for verification
+     * @param signingKeys Keys the auth service signs with and publishes
      * @return Configured JwtDecoder
-     * @throws JOSEException if decoder creation fails
      */
     @Bean
-    public JwtDecoder jwtDecoder(RSAKey rsaKey) throws JOSEException {
-        return NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+    public JwtDecoder jwtDecoder(SigningKeys signingKeys) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256),
+                new ImmutableJWKSet<>(signingKeys.publishedKeys())));
+        return new NimbusJwtDecoder(processor);
+    }
+
+    /**
+     * Loads a published public key (RSA or P-256) from a PEM file.
+     *
+     * @param location Classpath location of the public key
+     * @return Public JWK with its thumbprint key ID
+     * @throws Exception if the key file cannot be read or parsed
+     */
+    private static JWK publicJwk(String location) throws Exception {
+        try {
+            return new RSAKey.Builder(PemUtils.loadPublicKey(location))
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.RS256)
+                    .keyIDFromThumbprint()
+                    .build();
+        } catch (InvalidKeySpecException notRsa) {
+            return new ECKey.Builder(Curve.P_256, PemUtils.loadEcPublicKey(location))
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.ES256)
+                    .keyIDFromThumbprint()
+                    .build();
+        }
     }
 
     /**
@@ -164,14 +320,38 @@ public class SpringSecurityConfiguration {
         return new NimbusJwtEncoder(jwkSource);
     }
 
+    /**
+     * Creates the dedicated BCrypt hashing executor.
+     * Login bursts are queued or rejected with 429 here instead of pinning every CPU,
+     * so token issuing and user registration stay responsive.
+     *
+     * @param meterRegistry Registry for hash time, queue wait and rejection metrics
+     * @param threads Hashing threads (0 for one per processor)
+     * @param queueCapacity Maximum hashes waiting for a thread
+     * @param maxQueueWait Longest estimated queue wait a hash is admitted with
+     * @param perUserConcurrency Maximum concurrent logins of one username
+     * @return PasswordHashingExecutor shared by login and registration
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashingExecutor passwordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${finpay.auth.hashing.threads:0}") int threads,
+            @Value("${finpay.auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${finpay.auth.hashing.max-queue-wait:500ms}") Duration maxQueueWait,
+            @Value("${finpay.auth.hashing.per-user-concurrency:2}") int perUserConcurrency) {
+        return new PasswordHashingExecutor(threads, queueCapacity, maxQueueWait, perUserConcurrency, meterRegistry);
+    }
+
     /**
      * Provides a BCrypt password encoder for secure password hashing.
      * BCrypt is a strong, adaptive hashing algorithm resistant to brute-force attacks.
+     * Hashing runs on the bounded hashing executor rather than the request thread.
      *
-     * @return BCryptPasswordEncoder instance
+     * @param hashingExecutor Executor the hashing runs on
+     * @return BCrypt PasswordEncoder bounded by the hashing executor
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor hashingExecutor) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), hashingExecutor);
     }
 }
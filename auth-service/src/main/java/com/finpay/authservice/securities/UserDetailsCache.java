@@ -0,0 +1,109 @@
+package com.finpay.authservice.securities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of loaded user details for password and HTTP Basic authentication.
+ * <p>
+ * Only what the database would return is cached: the username, the stored password hash
+ * and the authorities. Every authentication still verifies the presented password against
+ * the hash, and DaoAuthenticationProvider reloads the user from the database when the
+ * password does not match the cached hash, so a changed password is never locked out.
+ * Entries expire after a short TTL and are evicted whenever the user row is written
+ * ({@link UserCacheEvictionListener}); the TTL bounds staleness across instances.
+ */
+public class UserDetailsCache implements UserCache {
+
+    private final Cache<String, UserDetails> users;
+    private final Timer cacheLookup;
+
+    /**
+     * Creates the cache and registers its metrics.
+     *
+     * @param ttl How long loaded user details are reused
+     * @param maximumSize Maximum number of users cached
+     * @param meterRegistry Registry for hit, miss and lookup latency metrics
+     */
+    public UserDetailsCache(Duration ttl, long maximumSize, MeterRegistry meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        FunctionCounter.builder("finpay.auth.userdetails.cache", users, cache -> cache.stats().hitCount())
+                .description("User details lookups during authentication")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("finpay.auth.userdetails.cache", users, cache -> cache.stats().missCount())
+                .description("User details lookups during authentication")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("finpay.auth.userdetails.cache.hit.ratio", users, cache -> cache.stats().hitRate())
+                .description("Share of authentications served without a user query")
+                .register(meterRegistry);
+        this.cacheLookup = lookupTimer(meterRegistry, "cache");
+    }
+
+    /**
+     * Creates the timer of user details lookups from one source.
+     *
+     * @param meterRegistry Registry to register the timer in
+     * @param source cache or database
+     * @return Lookup latency timer
+     */
+    public static Timer lookupTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("finpay.auth.userdetails.lookup")
+                .description("Time to look up user details for authentication")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached details of a user.
+     *
+     * @param username Username being authenticated
+     * @return Cached user details, or null on a miss
+     */
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        long start = System.nanoTime();
+        UserDetails user = users.getIfPresent(username);
+        if (user != null) {
+            cacheLookup.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+        return user;
+    }
+
+    /**
+     * Caches the details of a user loaded from the database.
+     *
+     * @param user Loaded user details
+     */
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * Evicts a user, e.g. after the user row changed.
+     *
+     * @param username Username to evict
+     */
+    @Override
+    public void removeUserFromCache(String username) {
+        if (username != null) {
+            users.invalidate(username);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.finpay.authservice.services;
+
+import com.finpay.authservice.models.ApiKey;
+import com.finpay.authservice.models.UserEntity;
+import com.finpay.authservice.repositories.ApiKeyRepository;
+import com.finpay.authservice.repositories.UserRepository;
+import com.finpay.common.dto.users.ApiKeyDTO;
+import com.finpay.common.dto.users.ApiKeyIntrospection;
+import com.finpay.common.dto.users.CreateApiKeyRequest;
+import com.finpay.common.security.ApiKeyHasher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class issuing, listing and revoking API keys for machine clients.
+ * <p>
+ * Keys are "fpk_" followed by 256 random bits. Only their HMAC is stored, and resource
+ * servers authenticate a key by asking {@link #introspect(String)} for the owner of its
+ * hash, caching the answer. A key can carry at most the authorities its owner holds.
+ */
+@Service
+public class ApiKeyService {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final int DISPLAY_PREFIX_LENGTH = 12;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final UserRepository userRepository;
+    private final ApiKeyHasher hasher;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Constructs the API key service.
+     *
+     * @param apiKeyRepository Repository storing key hashes
+     * @param userRepository Repository of key owners
+     * @param secret Shared HMAC secret of API keys, also configured on the resource servers; blank disables issuing
+     * @param defaultTtl Lifetime of a key when the request does not ask for one
+     * @param maxTtl Longest lifetime a key can be issued with
+     */
+    public ApiKeyService(
+            ApiKeyRepository apiKeyRepository,
+            UserRepository userRepository,
+            @Value("${finpay.security.api-keys.secret:}") String secret,
+            @Value("${finpay.auth.api-keys.default-ttl:90d}") Duration defaultTtl,
+            @Value("${finpay.auth.api-keys.max-ttl:365d}") Duration maxTtl) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.userRepository = userRepository;
+        this.hasher = secret == null || secret.isBlank() ? null : new ApiKeyHasher(secret);
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    /**
+     * Issues an API key to a user.
+     *
+     * @param username Username of the authenticated owner
+     * @param request Name, scopes and lifetime of the key
+     * @return The issued key, including the key itself which is not retrievable later
+     * @throws ResponseStatusException 400 if the name or lifetime is invalid, 403 if a scope is not held by the user,
+     *                                  503 if no API key secret is configured
+     */
+    public ApiKeyDTO issue(String username, CreateApiKeyRequest request) {
+        if (hasher == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "API keys are not configured");
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "API key name is required");
+        }
+        UserEntity user = owner(username);
+        Set<String> held = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> scopes = request.getScopes() == null || request.getScopes().isEmpty()
+                ? held
+                : new LinkedHashSet<>(request.getScopes());
+        if (!held.containsAll(scopes)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "API key scopes must be held by the user");
+        }
+        Duration ttl = request.getExpiresInDays() == null || request.getExpiresInDays() == 0
+                ? defaultTtl
+                : Duration.ofDays(request.getExpiresInDays());
+        if (ttl.isNegative() || ttl.compareTo(maxTtl) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "API key lifetime must be between 1 and " + maxTtl.toDays() + " days");
+        }
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String rawKey = ApiKeyHasher.PREFIX + ENCODER.encodeToString(bytes);
+
+        Instant now = Instant.now();
+        ApiKey apiKey = new ApiKey();
+        apiKey.setPrefix(rawKey.substring(0, DISPLAY_PREFIX_LENGTH));
+        apiKey.setKeyHash(hasher.hash(rawKey));
+        apiKey.setUserId(user.getId());
+        apiKey.setName(request.getName());
+        apiKey.setScope(String.join(" ", scopes));
+        apiKey.setCreatedAt(now);
+        apiKey.setExpiresAt(now.plus(ttl));
+        ApiKeyDTO issued = toDTO(apiKeyRepository.save(apiKey));
+        issued.setKey(rawKey);
+        return issued;
+    }
+
+    /**
+     * Lists the API keys of a user, without the keys themselves.
+     *
+     * @param username Username of the authenticated owner
+     * @return API keys of the user, newest first
+     */
+    public List<ApiKeyDTO> list(String username) {
+        return apiKeyRepository.findByUserIdOrderByIdDesc(owner(username).getId()).stream()
+                .map(ApiKeyService::toDTO)
+                .toList();
+    }
+
+    /**
+     * Revokes an API key of a user.
+     * Resource servers stop accepting it once their cached entry expires.
+     *
+     * @param username Username of the authenticated owner
+     * @param id Id of the key
+     * @throws ResponseStatusException 404 if the user has no such active key
+     */
+    public void revoke(String username, Long id) {
+        if (apiKeyRepository.revoke(id, owner(username).getId()) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "API key not found");
+        }
+    }
+
+    /**
+     * Resolves the owner and scopes of an active key from its hash.
+     *
+     * @param keyHash Base64url HMAC-SHA256 of the key
+     * @return Owner and scopes, empty if the key is unknown, revoked or expired
+     */
+    public Optional<ApiKeyIntrospection> introspect(String keyHash) {
+        Instant now = Instant.now();
+        return apiKeyRepository.findByKeyHash(keyHash)
+                .filter(key -> !key.isRevoked() && key.getExpiresAt().isAfter(now))
+                .flatMap(key -> userRepository.findById(key.getUserId())
+                        .map(user -> new ApiKeyIntrospection(user.getUsername(), user.getId(), user.getEmail(),
+                                key.getScope(), key.getExpiresAt())));
+    }
+
+    private UserEntity owner(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    }
+
+    private static ApiKeyDTO toDTO(ApiKey key) {
+        return new ApiKeyDTO(key.getId(), key.getName(), key.getPrefix(), key.getScope(),
+                key.getCreatedAt(), key.getExpiresAt(), key.isRevoked(), null);
+    }
+}
@@ -0,0 +1,389 @@
+package com.finpay.authservice.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.authservice.models.Location;
+import com.finpay.authservice.models.Role;
+import com.finpay.authservice.models.UserEntity;
+import com.finpay.authservice.repositories.LocationRepository;
+import com.finpay.authservice.repositories.RoleRepository;
+import com.finpay.authservice.repositories.UserRepository;
+import com.finpay.common.dto.users.BulkImportResult;
+import com.finpay.common.dto.users.CreateUserRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class importing users in bulk, e.g. when onboarding a partner bank.
+ * <p>
+ * Input is processed in chunks. For each chunk, existing usernames are found with one
+ * query, roles come from an in-memory cache, locations are deduplicated by place, passwords
+ * are hashed in parallel on a dedicated pool, and the users are inserted with JDBC batching
+ * in one transaction. A committed chunk is never redone: the progress reports how many input
+ * records are committed, and sending the same input with that skip count resumes after them.
+ * Re-sending already imported records is harmless too, since existing usernames are skipped.
+ * <p>
+ * The hashing pool is separate from the login hashing executor but competes with it for the
+ * same cores: while an import runs, login hashes take longer, the login executor's queue-wait
+ * estimate rises and logins can be rejected with 429. The pool is therefore kept small
+ * (two threads by default), which bounds how much of the CPU an import takes.
+ */
+@Service
+public class BulkUserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUserImportService.class);
+
+    private final UserRepository userRepository;
+    private final LocationRepository locationRepository;
+    private final RoleRepository roleRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder hashingEncoder = new BCryptPasswordEncoder();
+    private final ExecutorService hashingPool;
+    private final int chunkSize;
+    private final int maxRequestUsers;
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+    private final Cache<String, Progress> imports;
+    private final Counter createdUsers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructs the import service.
+     *
+     * @param userRepository Repository of users
+     * @param locationRepository Repository of locations
+     * @param roleRepository Repository of roles
+     * @param objectMapper Mapper reading NDJSON input
+     * @param transactionManager Transaction manager for per-chunk transactions
+     * @param meterRegistry Registry for the import counter
+     * @param hashingThreads Threads hashing passwords (0 for a quarter of the processors)
+     * @param chunkSize Records per committed chunk
+     * @param maxRequestUsers Maximum users in one JSON array request
+     * @param progressRetention How long progress of a finished import can be queried
+     */
+    public BulkUserImportService(
+            UserRepository userRepository,
+            LocationRepository locationRepository,
+            RoleRepository roleRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${finpay.auth.bulk-import.hashing-threads:2}") int hashingThreads,
+            @Value("${finpay.auth.bulk-import.chunk-size:1000}") int chunkSize,
+            @Value("${finpay.auth.bulk-import.max-request-users:10000}") int maxRequestUsers,
+            @Value("${finpay.auth.bulk-import.progress-retention:24h}") Duration progressRetention) {
+        this.userRepository = userRepository;
+        this.locationRepository = locationRepository;
+        this.roleRepository = roleRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRequestUsers = maxRequestUsers;
+        int threads = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.imports = Caffeine.newBuilder()
+                .expireAfterAccess(progressRetention)
+                .build();
+        this.createdUsers = Counter.builder("finpay.auth.bulk.import.created")
+                .description("Users created by bulk imports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports a list of users.
+     *
+     * @param users Users to create
+     * @return Outcome of the import
+     * @throws ResponseStatusException with 413 status if the list is larger than allowed
+     */
+    public BulkImportResult importUsers(List<CreateUserRequest> users) {
+        if (users.size() > maxRequestUsers) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxRequestUsers + " users per request; use the NDJSON import for more");
+        }
+        Progress progress = start(null, 0);
+        try {
+            for (int from = 0; from < users.size(); from += chunkSize) {
+                importChunk(users.subList(from, Math.min(users.size(), from + chunkSize)), progress);
+            }
+            return progress.finish(null);
+        } catch (RuntimeException e) {
+            log.error("Bulk import {} failed after {} records", progress.importId, progress.committed, e);
+            return progress.finish(e);
+        }
+    }
+
+    /**
+     * Imports users from newline-delimited JSON (one CreateUserRequest per line),
+     * reading the input while importing so memory stays bounded by one chunk.
+     *
+     * @param input NDJSON input stream
+     * @param importId Identifier to report progress under, or null to generate one
+     * @param skip Number of leading records to skip, from a previous import's committed count
+     * @return Outcome of the import
+     */
+    public BulkImportResult importStream(InputStream input, String importId, long skip) {
+        Progress progress = start(importId, skip);
+        try (MappingIterator<CreateUserRequest> records =
+                     objectMapper.readerFor(CreateUserRequest.class).readValues(input)) {
+            for (long i = 0; i < skip && records.hasNextValue(); i++) {
+                records.nextValue();
+            }
+            List<CreateUserRequest> chunk = new ArrayList<>(chunkSize);
+            while (records.hasNextValue()) {
+                chunk.add(records.nextValue());
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, progress);
+            return progress.finish(null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Bulk import {} failed after {} records", progress.importId, progress.committed, e);
+            return progress.finish(e);
+        }
+    }
+
+    /**
+     * Returns the progress of a running or recently finished import.
+     *
+     * @param importId Identifier of the import
+     * @return Progress snapshot, or null if the import is unknown
+     */
+    public BulkImportResult getProgress(String importId) {
+        Progress progress = imports.getIfPresent(importId);
+        return progress == null ? null : progress.snapshot();
+    }
+
+    /**
+     * Stops the hashing pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    private Progress start(String importId, long skip) {
+        Progress progress = new Progress(importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId,
+                skip);
+        imports.put(progress.importId, progress);
+        log.info("Bulk import {} started at record {}", progress.importId, skip);
+        return progress;
+    }
+
+    /**
+     * Creates the users of one chunk and commits them.
+     *
+     * @param chunk Records of the chunk
+     * @param progress Progress to update once the chunk is committed
+     */
+    private void importChunk(List<CreateUserRequest> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> usernames = new HashSet<>();
+        for (CreateUserRequest request : chunk) {
+            if (request.getUsername() != null) {
+                usernames.add(request.getUsername());
+            }
+        }
+        Set<String> taken = new HashSet<>(userRepository.findExistingUsernames(usernames));
+
+        List<CreateUserRequest> accepted = new ArrayList<>(chunk.size());
+        long skipped = 0;
+        long rejected = 0;
+        for (CreateUserRequest request : chunk) {
+            if (!isValid(request) || role(request.getRole()) == null) {
+                rejected++;
+            } else if (!taken.add(request.getUsername())) {
+                // Existing user, or a duplicate within the input
+                skipped++;
+            } else {
+                accepted.add(request);
+            }
+        }
+
+        List<String> hashes = hashPasswords(accepted);
+        Map<String, Location> locations = new HashMap<>();
+        List<UserEntity> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            CreateUserRequest request = accepted.get(i);
+            UserEntity user = new UserEntity();
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setEmail(request.getEmail());
+            user.setUsername(request.getUsername());
+            user.setPassword(hashes.get(i));
+            user.setRole(role(request.getRole()));
+            user.setLocation(locations.computeIfAbsent(request.getLocation(), this::location));
+            users.add(user);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (UserEntity user : users) {
+                entityManager.persist(user);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        createdUsers.increment(users.size());
+        progress.chunkCommitted(chunk.size(), users.size(), skipped, rejected);
+    }
+
+    /**
+     * Hashes the passwords of a chunk in parallel on the hashing pool.
+     *
+     * @param requests Records whose passwords to hash
+     * @return Hashes in the order of the records
+     */
+    private List<String> hashPasswords(List<CreateUserRequest> requests) {
+        List<Future<String>> futures = new ArrayList<>(requests.size());
+        for (CreateUserRequest request : requests) {
+            String password = request.getPassword();
+            futures.add(hashingPool.submit(() -> hashingEncoder.encode(password)));
+        }
+        List<String> hashes = new ArrayList<>(futures.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk import interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    /**
+     * Looks up a role by name, from the cache after the first lookup.
+     *
+     * @param roleName Role name from the input
+     * @return Role, or null if no such role exists
+     */
+    private Role role(String roleName) {
+        Role role = roles.get(roleName);
+        if (role == null) {
+            role = roleRepository.findByRoleName(roleName).orElse(null);
+            if (role != null) {
+                roles.put(roleName, role);
+            }
+        }
+        return role;
+    }
+
+    /**
+     * Returns the location row of a place, creating it if it does not exist yet.
+     *
+     * @param place Place name from the input
+     * @return Persisted Location
+     */
+    private Location location(String place) {
+        return locationRepository.findFirstByPlace(place).orElseGet(() -> {
+            Location location = new Location();
+            location.setPlace(place);
+            location.setDescription("Awesome");
+            location.setLongitude(40.5);
+            location.setLatitude(38.9);
+            return locationRepository.save(location);
+        });
+    }
+
+    private static boolean isValid(CreateUserRequest request) {
+        return request != null
+                && notBlank(request.getUsername())
+                && notBlank(request.getPassword())
+                && notBlank(request.getRole())
+                && notBlank(request.getLocation());
+    }
+
+    private static boolean notBlank(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Live counters of one import.
+     */
+    private static final class Progress {
+        private final String importId;
+        private final AtomicLong committed;
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile String state = "RUNNING";
+        private volatile String error;
+
+        Progress(String importId, long skip) {
+            this.importId = importId;
+            this.committed = new AtomicLong(skip);
+        }
+
+        void chunkCommitted(long records, long createdUsers, long skippedUsers, long rejectedUsers) {
+            created.addAndGet(createdUsers);
+            skipped.addAndGet(skippedUsers);
+            rejected.addAndGet(rejectedUsers);
+            long total = committed.addAndGet(records);
+            log.info("Bulk import {}: {} records committed, {} users created", importId, total, created.get());
+        }
+
+        BulkImportResult finish(Exception failure) {
+            error = failure == null ? null : failure.getMessage();
+            state = failure == null ? "COMPLETED" : "FAILED";
+            log.info("Bulk import {} {}: {} records committed, {} created, {} skipped, {} rejected",
+                    importId, state, committed.get(), created.get(), skipped.get(), rejected.get());
+            return snapshot();
+        }
+
+        BulkImportResult snapshot() {
+            return new BulkImportResult(importId, state, committed.get(), created.get(), skipped.get(),
+                    rejected.get(), error);
+        }
+    }
+}
@@ -10,19 +10,28 @@ import java.util.List;
 
 /**
  * Custom implementation of Spring Security's UserDetails interface.
- * Wraps the UserEntity to provide authentication and authorization information
- * required by Spring Security.
+ * Holds an immutable copy of the UserEntity's authentication and authorization
+ * information, so it can be cached and shared between requests without keeping
+ * the entity (or its lazy role) attached to a persistence context.
  */
 public class CustomUserDetails implements UserDetails {
-    private final UserEntity user;
+    private final Long id;
+    private final String email;
+    private final String username;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
 
     /**
-     * Constructs a CustomUserDetails wrapper around a UserEntity.
+     * Constructs a CustomUserDetails from a UserEntity.
      *
      * @param user The UserEntity containing user information from the database
      */
     public CustomUserDetails(UserEntity user) {
-        this.user = user;
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().getRoleName()));
     }
 
     /**
@@ -31,7 +40,7 @@ public class CustomUserDetails implements UserDetails {
      * @return User ID
      */
     public Long getId() {
-        return user.getId();
+        return id;
     }
 
     /**
@@ -40,7 +49,7 @@ public class CustomUserDetails implements UserDetails {
      * @return User's email
      */
     public String getEmail() {
-        return user.getEmail();
+        return email;
     }
 
     /**
@@ -51,7 +60,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().getRoleName()));
+        return authorities;
     }
 
     /**
@@ -61,7 +70,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     /**
@@ -71,7 +80,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     /**
@@ -0,0 +1,206 @@
+package com.finpay.authservice.services;
+
+import com.finpay.authservice.exceptions.InvalidRefreshTokenException;
+import com.finpay.authservice.models.RefreshToken;
+import com.finpay.authservice.repositories.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Service class issuing and rotating refresh tokens.
+ * <p>
+ * Refresh tokens are 256-bit random values. Only their SHA-256 hash is stored, so a
+ * refresh costs a hash lookup instead of a BCrypt check. Each refresh marks the presented
+ * token used and issues a new one in the same family; presenting a used token again is
+ * treated as theft and revokes the whole family.
+ * <p>
+ * Immutable token facts (id, family, user, expiry) are cached in memory so a refresh
+ * does not re-read the token row. Whether a token is still unused is always decided by
+ * a conditional update, so the cache never lets a token be used twice.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository repository;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final SecureRandom random = new SecureRandom();
+    private final Cache<String, IssuedToken> tokens;
+    private final Cache<UUID, Boolean> revokedFamilies;
+
+    private final Counter rotated;
+    private final Counter reused;
+    private final Counter rejected;
+
+    /**
+     * Constructs the refresh token service.
+     *
+     * @param repository Repository storing token hashes
+     * @param meterRegistry Registry for refresh outcome metrics
+     * @param ttl Lifetime of a refresh token; each rotation starts a new lifetime
+     * @param cacheSize Maximum tokens kept in the lookup cache
+     * @param purgeBatchSize Expired tokens deleted per transaction by the purge job
+     */
+    public RefreshTokenService(
+            RefreshTokenRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${finpay.auth.tokens.refresh-ttl:14d}") Duration ttl,
+            @Value("${finpay.auth.tokens.refresh-cache-size:100000}") long cacheSize,
+            @Value("${finpay.auth.tokens.purge-batch-size:500}") int purgeBatchSize) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.rotated = outcomeCounter(meterRegistry, "rotated");
+        this.reused = outcomeCounter(meterRegistry, "reused");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Issues the first refresh token of a new family, after a password login.
+     *
+     * @param userId Id of the authenticated user
+     * @return Opaque refresh token to hand to the client
+     */
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family.
+     *
+     * @param rawToken Refresh token presented by the client
+     * @return Rotation with the token's user and the new refresh token
+     * @throws InvalidRefreshTokenException If the token is unknown, expired, revoked or already used
+     */
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            rejected.increment();
+            throw new InvalidRefreshTokenException("Refresh token is missing");
+        }
+        String hash = hash(rawToken);
+        IssuedToken token = tokens.get(hash, key -> repository.findByTokenHash(key)
+                .map(IssuedToken::of)
+                .orElse(null));
+        if (token == null) {
+            rejected.increment();
+            throw new InvalidRefreshTokenException("Refresh token is invalid");
+        }
+        Instant now = Instant.now();
+        if (token.expiresAt().isBefore(now) || revokedFamilies.getIfPresent(token.familyId()) != null) {
+            tokens.invalidate(hash);
+            rejected.increment();
+            throw new InvalidRefreshTokenException("Refresh token is expired or revoked");
+        }
+
+        if (repository.markUsed(token.id(), now) == 0) {
+            // Already used or revoked: someone replayed a rotated token, so nobody in this family is trusted
+            tokens.invalidate(hash);
+            revokedFamilies.put(token.familyId(), Boolean.TRUE);
+            int revokedCount = repository.revokeFamily(token.familyId());
+            reused.increment();
+            log.warn("Refresh token reuse for user {}; revoked {} tokens of family {}",
+                    token.userId(), revokedCount, token.familyId());
+            throw new InvalidRefreshTokenException("Refresh token was already used");
+        }
+        tokens.invalidate(hash);
+        rotated.increment();
+        return new Rotation(token.userId(), issue(token.userId(), token.familyId()));
+    }
+
+    /**
+     * Deletes expired refresh tokens in small batches.
+     */
+    @Scheduled(fixedDelayString = "${finpay.auth.tokens.purge-interval:1h}",
+            initialDelayString = "${finpay.auth.tokens.purge-initial-delay:5m}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteExpiredBatch(cutoff, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Purged {} refresh tokens expired before {}", total, cutoff);
+        }
+    }
+
+    private String issue(Long userId, UUID familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String rawToken = ENCODER.encodeToString(bytes);
+
+        Instant now = Instant.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setUserId(userId);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plus(ttl));
+        RefreshToken saved = repository.save(token);
+        tokens.put(saved.getTokenHash(), IssuedToken.of(saved));
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("finpay.auth.refresh")
+                .description("Refresh token exchanges by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Result of a successful rotation.
+     *
+     * @param userId Id of the user the token belongs to
+     * @param refreshToken New refresh token replacing the presented one
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    /**
+     * Immutable facts of an issued token kept in the lookup cache.
+     */
+    private record IssuedToken(Long id, UUID familyId, Long userId, Instant expiresAt) {
+        static IssuedToken of(RefreshToken token) {
+            return new IssuedToken(token.getId(), token.getFamilyId(), token.getUserId(), token.getExpiresAt());
+        }
+    }
+}
@@ -3,21 +3,36 @@ package com.finpay.authservice.services;
 import com.finpay.authservice.models.Location;
 import com.finpay.authservice.models.Role;
 import com.finpay.authservice.models.UserEntity;
+import com.finpay.authservice.models.UserSummary;
 import com.finpay.authservice.repositories.LocationRepository;
 import com.finpay.authservice.repositories.RoleRepository;
 import com.finpay.authservice.repositories.UserRepository;
+import com.finpay.authservice.securities.UserDetailsCache;
+import com.finpay.common.dto.CursorPage;
 import com.finpay.common.dto.users.CreateUserRequest;
 import com.finpay.common.dto.users.UserDTO;
 import com.finpay.common.dto.users.UserLocationDTO;
 import com.finpay.common.enums.RoleEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -27,12 +42,31 @@ import java.util.stream.Collectors;
 @Service
 public class UserService implements UserDetailsService {
 
+    /** Rows read per query while exporting */
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
     @Autowired
     private UserRepository userRepository;
     @Autowired
     private LocationRepository locationRepository;
     @Autowired
     private RoleRepository roleRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Timer databaseLookup;
+
+    /**
+     * Registers the latency timer of user details loaded from the database.
+     *
+     * @param meterRegistry Registry for the lookup timer
+     */
+    @Autowired
+    void registerMetrics(MeterRegistry meterRegistry) {
+        this.databaseLookup = UserDetailsCache.lookupTimer(meterRegistry, "database");
+    }
 
     /**
      * Loads user details by username for Spring Security authentication.
@@ -43,69 +77,138 @@ public class UserService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEntity userEntity = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));;
+        long start = System.nanoTime();
+        try {
+            UserEntity userEntity = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        // Wrap the UserEntity in CustomUserDetails for Spring Security
-        return new CustomUserDetails(userEntity);
+            // Copy the UserEntity into CustomUserDetails for Spring Security
+            return new CustomUserDetails(userEntity);
+        } finally {
+            databaseLookup.record(Duration.ofNanos(System.nanoTime() - start));
+        }
     }
 
     /**
-     * Retrieves all users with their location information.
+     * Returns one page of user locations, in user id order.
+     * Uses keyset pagination on the user id with a projection query, so every page costs
+     * one index range scan and only the listed columns, regardless of table size or depth.
      *
-     * @return List of UserLocationDTO containing user ID, email, and location details
+     * @param cursor Opaque cursor from a previous page, or null for the first page
+     * @param size Maximum number of users on the page
+     * @return CursorPage of UserLocationDTO with the cursor of the next page
+     * @throws ResponseStatusException with 400 status if the cursor is malformed
      */
-    public List<UserLocationDTO> getAllUsersLocation() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::convertEntityToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<UserLocationDTO> getUsersLocation(String cursor, int size) {
+        // Fetch one extra row to know whether another page exists
+        List<UserLocationDTO> rows = userRepository.findLocationsAfter(decodeCursor(cursor), Limit.of(size + 1));
+        return page(rows, size, UserLocationDTO::getUserId);
     }
 
     /**
-     * Converts a UserEntity to UserLocationDTO containing location-specific information.
+     * Returns one page of users with their role and location, in id order.
+     * Uses keyset pagination on the id with a projection query (see getUsersLocation).
      *
-     * @param user the UserEntity to convert
-     * @return UserLocationDTO with user ID, email, and location coordinates
+     * @param cursor Opaque cursor from a previous page, or null for the first page
+     * @param size Maximum number of users on the page
+     * @return CursorPage of UserDTO with the cursor of the next page
+     * @throws ResponseStatusException with 400 status if the cursor is malformed
      */
-    private UserLocationDTO convertEntityToDTO(UserEntity user) {
-        UserLocationDTO userLocationDTO = new UserLocationDTO();
-        userLocationDTO.setUserId(user.getId());
-        userLocationDTO.setEmail(user.getEmail());
-        userLocationDTO.setPlace(user.getLocation().getPlace());
-        userLocationDTO.setLongitude(user.getLocation().getLongitude());
-        userLocationDTO.setLatitude(user.getLocation().getLatitude());
-        return userLocationDTO;
+    public CursorPage<UserDTO> getUsers(String cursor, int size) {
+        List<UserDTO> rows = userRepository.findSummariesAfter(decodeCursor(cursor), Limit.of(size + 1))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return page(rows, size, UserDTO::getId);
     }
 
     /**
-     * Retrieves all users with their complete information.
+     * Writes every user as newline-delimited JSON, in id order.
+     * Reads the table in keyset batches, each its own short query, so memory stays
+     * bounded by one batch and no transaction or cursor is held open while the client reads.
      *
-     * @return List of UserDTO containing all user details including role and location
+     * @param out Stream to write to; not closed
+     * @throws IOException if writing to the stream fails
      */
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream().map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public void exportUsers(OutputStream out) throws IOException {
+        long afterId = 0;
+        while (true) {
+            List<UserSummary> batch = userRepository.findSummariesAfter(afterId, Limit.of(EXPORT_BATCH_SIZE));
+            for (UserSummary user : batch) {
+                out.write(objectMapper.writeValueAsBytes(convertToDTO(user)));
+                out.write('\n');
+            }
+            out.flush();
+            if (batch.size() < EXPORT_BATCH_SIZE) {
+                return;
+            }
+            afterId = batch.get(batch.size() - 1).id();
+        }
     }
 
     /**
-     * Converts a UserEntity to UserDTO containing comprehensive user information.
+     * Converts a UserSummary to UserDTO containing comprehensive user information.
      *
-     * @param user the UserEntity to convert
+     * @param user the UserSummary to convert
      * @return UserDTO with complete user details including personal info, role, and location
      */
-    private UserDTO convertToDTO(UserEntity user) {
+    private UserDTO convertToDTO(UserSummary user) {
         UserDTO userDTO = new UserDTO();
-        userDTO.setId(user.getId());
-        userDTO.setUsername(user.getUsername());
-        userDTO.setEmail(user.getEmail());
-        userDTO.setFirstName(user.getFirstName());
-        userDTO.setLastName(user.getLastName());
-        userDTO.setRole(RoleEnum.valueOf(user.getRole().getRoleName()));
-        userDTO.setLocation(user.getLocation().getPlace());
+        userDTO.setId(user.id());
+        userDTO.setUsername(user.username());
+        userDTO.setEmail(user.email());
+        userDTO.setFirstName(user.firstName());
+        userDTO.setLastName(user.lastName());
+        userDTO.setRole(user.roleName() == null ? null : RoleEnum.valueOf(user.roleName()));
+        userDTO.setLocation(user.place());
         return userDTO;
     }
 
+    /**
+     * Cuts the extra look-ahead row off a page and builds the next cursor.
+     *
+     * @param rows Up to size + 1 rows in id order
+     * @param size Requested page size
+     * @param id Extracts the keyset id of a row
+     * @param <T> Type of the rows
+     * @return CursorPage with at most size items
+     */
+    private static <T> CursorPage<T> page(List<T> rows, int size, ToLongFunction<T> id) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, encodeCursor(id.applyAsLong(items.get(size - 1))));
+    }
+
+    /**
+     * Encodes the keyset position of a user as an opaque URL-safe cursor.
+     *
+     * @param id Id of the last user of a page
+     * @return Cursor string
+     */
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor back into the id it continues after.
+     *
+     * @param cursor Cursor produced by encodeCursor, or null for the first page
+     * @return Id of the last user of the previous page, 0 for the first page
+     * @throws ResponseStatusException with 400 status if the cursor is malformed
+     */
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
     /**
      * Creates a new user with the provided information.
      * This method:
@@ -131,9 +234,6 @@ public class UserService implements UserDetailsService {
         Role role = roleRepository.findByRoleName(request.getRole())
                 .orElseThrow(() -> new RuntimeException("Role not found"));
 
-        // Initialize password encoder for secure password hashing
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-
         // Create new user entity with provided details
         UserEntity userEntity = new UserEntity();
         userEntity.setFirstName(request.getFirstName());
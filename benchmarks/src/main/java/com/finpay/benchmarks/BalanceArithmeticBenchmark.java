@@ -0,0 +1,89 @@
+package com.finpay.benchmarks;
+
+import com.finpay.accounts.models.Account;
+import com.finpay.accounts.repositories.AccountRepository;
+import com.finpay.accounts.services.AccountService;
+import com.finpay.common.dto.accounts.AccountDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic of AccountService: the compareTo/subtract of a debit and the add
+ * of a credit, on scale-2 amounts as stored in the accounts table.
+ * <p>
+ * The arithmetic benchmarks isolate BigDecimal; the service benchmark runs the real
+ * debit and credit methods against an in-memory repository (no transaction or database
+ * cost), debiting and crediting the same amount so the balance stays put.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BalanceArithmeticBenchmark {
+
+    /** Account balance; the largest precision-19 balance no longer fits BigDecimal's compact long form */
+    @Param({"48210.40", "99999999999999999.99"})
+    public String balance;
+
+    private BigDecimal current;
+    private BigDecimal amount;
+
+    private AccountService accountService;
+    private UUID accountId;
+
+    /**
+     * Creates the balances and an account service over a single in-memory account.
+     */
+    @Setup
+    public void setUp() {
+        current = new BigDecimal(balance);
+        amount = new BigDecimal("1250.75");
+
+        AccountRepository repository = InMemoryRepositories.create(AccountRepository.class, Account::getId);
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setOwnerEmail("alice@finpay.com");
+        account.setBalance(current);
+        repository.save(account);
+
+        accountService = new AccountService(repository);
+        accountId = account.getId();
+    }
+
+    @Benchmark
+    public BigDecimal debitArithmetic() {
+        if (current.compareTo(amount) < 0) {
+            throw new IllegalArgumentException("Insufficient balance");
+        }
+        return current.subtract(amount);
+    }
+
+    @Benchmark
+    public BigDecimal creditArithmetic() {
+        return current.add(amount);
+    }
+
+    @Benchmark
+    public void debitThenCredit(Blackhole blackhole) {
+        AccountDto debited = accountService.debit(accountId, amount);
+        AccountDto credited = accountService.credit(accountId, amount);
+        blackhole.consume(debited);
+        blackhole.consume(credited);
+    }
+}
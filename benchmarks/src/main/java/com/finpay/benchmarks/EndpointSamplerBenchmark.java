@@ -0,0 +1,70 @@
+package com.finpay.benchmarks;
+
+import com.finpay.common.tracing.EndpointSampler;
+import com.finpay.common.tracing.SamplingEndpointFilter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of per-endpoint head sampling: SamplingEndpointFilter resolving the
+ * request's rule and binding it, then one EndpointSampler decision, as Brave makes when
+ * the server span starts. Rules are those of the transaction service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EndpointSamplerBenchmark {
+
+    /** Request line: first rule, second rule, and no matching rule */
+    @Param({"POST /transactions/transfer", "GET /transactions/3f1c/status", "GET /actuator/health"})
+    public String endpoint;
+
+    private EndpointSampler sampler;
+    private SamplingEndpointFilter filter;
+    private FilterChain chain;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private long traceId;
+
+    /**
+     * Creates the sampler, the filter and the request.
+     */
+    @Setup
+    public void setUp() {
+        sampler = new EndpointSampler(List.of("POST /transactions/transfer=20", "GET /transactions/**=2"), 10);
+        filter = new SamplingEndpointFilter(sampler);
+        chain = (req, res) -> sampler.isSampled(++traceId);
+
+        String[] requestLine = endpoint.split(" ", 2);
+        request = new MockHttpServletRequest(requestLine[0], requestLine[1]);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean defaultSampler() {
+        return sampler.isSampled(++traceId);
+    }
+
+    @Benchmark
+    public void endpointSampling() throws Exception {
+        filter.doFilter(request, response, chain);
+    }
+}
@@ -0,0 +1,57 @@
+package com.finpay.benchmarks;
+
+import com.finpay.common.dto.frauds.FraudCheckResponse;
+import com.finpay.frauds.models.FraudCheck;
+import com.finpay.frauds.repositories.FraudCheckRepository;
+import com.finpay.frauds.services.FraudService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fraud evaluation of FraudService.checkFraud: the threshold rule, the FraudCheck entity
+ * and the response DTO. The repository is in-memory, so the insert itself costs nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FraudCheckBenchmark {
+
+    /** Transaction amount, below and above the fraud threshold */
+    @Param({"1250.75", "15000.00"})
+    public String amount;
+
+    private FraudService fraudService;
+    private UUID transactionId;
+    private BigDecimal transactionAmount;
+
+    /**
+     * Creates the service over an in-memory repository.
+     */
+    @Setup
+    public void setUp() {
+        fraudService = new FraudService(InMemoryRepositories.create(FraudCheckRepository.class, FraudCheck::getId));
+        transactionId = UUID.randomUUID();
+        transactionAmount = new BigDecimal(amount);
+    }
+
+    @Benchmark
+    public FraudCheckResponse checkFraud() {
+        return fraudService.checkFraud(transactionId, transactionAmount);
+    }
+}
@@ -0,0 +1,51 @@
+package com.finpay.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for Spring Data repositories, so service methods can be benchmarked
+ * without a database.
+ * <p>
+ * Only findById and save are implemented; any other repository method throws. save keeps
+ * entities that have an id and returns new (id-less) entities unchanged, like a repository
+ * whose insert is free.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Creates a repository backed by a map.
+     *
+     * @param repositoryType Repository interface to implement
+     * @param idOf Function reading an entity's id
+     * @param <R> Repository type
+     * @param <T> Entity type
+     * @return Repository proxy
+     */
+    @SuppressWarnings("unchecked")
+    static <R, T> R create(Class<R> repositoryType, Function<T, Object> idOf) {
+        Map<Object, T> entities = new ConcurrentHashMap<>();
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(entities.get(args[0]));
+                    case "save" -> {
+                        T entity = (T) args[0];
+                        Object id = idOf.apply(entity);
+                        if (id != null) {
+                            entities.put(id, entity);
+                        }
+                        yield entity;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,95 @@
+package com.finpay.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.common.dto.accounts.AccountDto;
+import com.finpay.common.dto.transactions.TransactionCreatedEvent;
+import com.finpay.common.dto.transactions.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round trips of the DTOs on the transfer path: the Kafka transaction event,
+ * the transfer response and the account DTO returned by debit/credit calls.
+ * <p>
+ * Uses one shared ObjectMapper, as the services do, and byte arrays, as the Kafka
+ * serializers and HTTP message converters do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private TransactionCreatedEvent event;
+    private TransactionResponse response;
+    private AccountDto account;
+
+    private byte[] eventJson;
+    private byte[] responseJson;
+    private byte[] accountJson;
+
+    /**
+     * Builds representative DTOs and their serialized forms.
+     *
+     * @throws Exception if serialization fails
+     */
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+
+        UUID from = UUID.randomUUID();
+        event = new TransactionCreatedEvent(UUID.randomUUID(), new BigDecimal("1250.75"), "alice@finpay.com");
+        response = new TransactionResponse(event.getId(), from, UUID.randomUUID(), event.getAmount(), "COMPLETED");
+        account = new AccountDto(from, "alice@finpay.com", new BigDecimal("48210.40"));
+
+        eventJson = objectMapper.writeValueAsBytes(event);
+        responseJson = objectMapper.writeValueAsBytes(response);
+        accountJson = objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionCreatedEvent() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public TransactionCreatedEvent deserializeTransactionCreatedEvent() throws Exception {
+        return objectMapper.readValue(eventJson, TransactionCreatedEvent.class);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public TransactionResponse deserializeTransactionResponse() throws Exception {
+        return objectMapper.readValue(responseJson, TransactionResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeAccountDto() throws Exception {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public AccountDto deserializeAccountDto() throws Exception {
+        return objectMapper.readValue(accountJson, AccountDto.class);
+    }
+}
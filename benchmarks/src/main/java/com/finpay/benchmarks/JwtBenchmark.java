@@ -0,0 +1,165 @@
+package com.finpay.benchmarks;
+
+import com.finpay.common.security.CachedJwkSource;
+import com.finpay.common.security.CachingJwtDecoder;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token cost for RS256 and ES256: signing as the auth service does, parsing the
+ * payload without verification, full verification through the resource servers' decoder
+ * (CachedJwkSource.jwtDecoder()), and the CachingJwtDecoder hit path that serves repeat tokens.
+ * <p>
+ * The repository only ships public keys, so an RSA-2048 and a P-256 key pair are generated
+ * at setup; key size and curve match the deployed keys. The encoded token size of each
+ * algorithm is reported with the sign results: sign:signedBytes / sign:signedTokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    /** JWKS endpoint that never answers, so the bootstrap keys stay in use */
+    private static final String UNREACHABLE_JWKS_URI = "http://127.0.0.1:1/.well-known/jwks.json";
+
+    /** Signing algorithm */
+    @Param({"RS256", "ES256"})
+    public String algorithm;
+
+    private JwtEncoder encoder;
+    private JwsHeader header;
+    private JwtClaimsSet claims;
+
+    private CachedJwkSource jwkSource;
+    private JwtDecoder decoder;
+    private JwtDecoder cachingDecoder;
+
+    private String token;
+
+    /**
+     * Generates the key pair, wires encoder and decoders, and issues the token under test.
+     *
+     * @throws Exception if key generation fails
+     */
+    @Setup
+    public void setUp() throws Exception {
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(algorithm);
+        JWK key = signatureAlgorithm == SignatureAlgorithm.ES256
+                ? new ECKeyGenerator(Curve.P_256)
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.ES256)
+                        .keyIDFromThumbprint(true)
+                        .generate()
+                : new RSAKeyGenerator(2048)
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.RS256)
+                        .keyIDFromThumbprint(true)
+                        .generate();
+
+        encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        header = JwsHeader.with(signatureAlgorithm).build();
+        Instant now = Instant.now();
+        claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofDays(1)))
+                .subject("alice")
+                .claim("user_id", 42L)
+                .claim("email", "alice@finpay.com")
+                .claim("scope", "ROLE_USER")
+                .build();
+
+        jwkSource = new CachedJwkSource(UNREACHABLE_JWKS_URI, List.of(key.toPublicJWK()),
+                Duration.ofDays(1), Duration.ofDays(1));
+        decoder = jwkSource.jwtDecoder();
+        cachingDecoder = new CachingJwtDecoder(decoder, jwkSource::keyGeneration, 10_000, new SimpleMeterRegistry());
+
+        token = encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        cachingDecoder.decode(token);
+    }
+
+    /**
+     * Stops the key source's background refresh.
+     */
+    @TearDown
+    public void tearDown() {
+        jwkSource.close();
+    }
+
+    @Benchmark
+    public String sign(TokenSize tokenSize) {
+        String signed = encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        tokenSize.signedTokens++;
+        tokenSize.signedBytes += signed.length();
+        return signed;
+    }
+
+    @Benchmark
+    public JWTClaimsSet parseUnverified() throws Exception {
+        return SignedJWT.parse(token).getJWTClaimsSet();
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt verifyCached() {
+        return cachingDecoder.decode(token);
+    }
+
+    /**
+     * Counters of the tokens signed, reported by JMH as secondary results of sign (and in
+     * its JSON results). JMH sums event counters over threads, iterations and forks, so the
+     * token size is their ratio, signedBytes / signedTokens, whatever the run options.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TokenSize {
+
+        /** Number of tokens signed */
+        public long signedTokens;
+
+        /** Total encoded length of the signed tokens, in bytes (JWS compact serialization is ASCII) */
+        public long signedBytes;
+    }
+}
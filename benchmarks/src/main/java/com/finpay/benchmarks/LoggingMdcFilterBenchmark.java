@@ -0,0 +1,116 @@
+package com.finpay.benchmarks;
+
+import brave.Tracing;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import com.finpay.common.logging.LoggingMdcFilter;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.brave.bridge.BraveBaggageManager;
+import io.micrometer.tracing.brave.bridge.BraveCurrentTraceContext;
+import io.micrometer.tracing.brave.bridge.BraveTracer;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of LoggingMdcFilter compared to calling the chain directly.
+ * <p>
+ * The filter runs with or without a current span (a Brave tracer as in the services,
+ * without an MDC correlation decorator, so the filter fills the trace ids itself) and
+ * with or without a JWT principal in the security context. The chain does nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class LoggingMdcFilterBenchmark {
+
+    /** Whether a span is in scope when the filter runs */
+    @Param({"false", "true"})
+    public boolean traced;
+
+    /** Whether the security context holds a JWT principal */
+    @Param({"false", "true"})
+    public boolean authenticated;
+
+    private final FilterChain chain = (request, response) -> { };
+
+    private Tracing tracing;
+    private Span span;
+    private Tracer.SpanInScope spanInScope;
+
+    private LoggingMdcFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    /**
+     * Creates the filter and, on the benchmark thread, the span scope and security context.
+     */
+    @Setup
+    public void setUp() {
+        tracing = Tracing.newBuilder()
+                .currentTraceContext(ThreadLocalCurrentTraceContext.create())
+                .build();
+        Tracer tracer = new BraveTracer(tracing.tracer(),
+                new BraveCurrentTraceContext(tracing.currentTraceContext()), new BraveBaggageManager());
+        if (traced) {
+            span = tracer.nextSpan().name("http post /transactions/transfer").start();
+            spanInScope = tracer.withSpan(span);
+        }
+        if (authenticated) {
+            Jwt jwt = Jwt.withTokenValue("token")
+                    .header("alg", "RS256")
+                    .subject("alice")
+                    .claim("user_id", 42L)
+                    .claim("scope", "ROLE_USER")
+                    .build();
+            SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        }
+
+        filter = new LoggingMdcFilter(tracer);
+        request = new MockHttpServletRequest("POST", "/transactions/transfer");
+        response = new MockHttpServletResponse();
+    }
+
+    /**
+     * Closes the span scope and clears the security context.
+     */
+    @TearDown
+    public void tearDown() {
+        if (spanInScope != null) {
+            spanInScope.close();
+            span.end();
+        }
+        SecurityContextHolder.clearContext();
+        tracing.close();
+    }
+
+    @Benchmark
+    public void baseline() throws Exception {
+        chain.doFilter(request, response);
+    }
+
+    @Benchmark
+    public void loggingMdcFilter() throws Exception {
+        filter.doFilter(request, response, chain);
+    }
+}
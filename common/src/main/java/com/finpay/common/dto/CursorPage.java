@@ -0,0 +1,24 @@
+package com.finpay.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ *
+ * @param <T> Type of the listed items
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    /** Items on this page, in listing order */
+    private List<T> items;
+
+    /** Opaque cursor for the next page, null when this is the last page */
+    private String nextCursor;
+}
@@ -18,5 +18,7 @@ public class FraudCheckEvent {
     private UUID transactionId;
     /** Whether the transaction was flagged as fraudulent */
     private boolean fraudulent;
+    /** Email of the account owner who initiated the transaction */
+    private String userId;
 }
 
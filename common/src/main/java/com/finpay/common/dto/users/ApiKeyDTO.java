@@ -0,0 +1,33 @@
+package com.finpay.common.dto.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for an API key.
+ * The key itself is only returned once, in the response that issues it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiKeyDTO {
+    /** Unique key identifier */
+    private Long id;
+    /** Label of the key */
+    private String name;
+    /** Leading characters of the key, to tell keys apart */
+    private String prefix;
+    /** Space-separated authorities granted to the key */
+    private String scope;
+    /** Time the key was issued */
+    private Instant createdAt;
+    /** Time the key expires */
+    private Instant expiresAt;
+    /** Whether the key has been revoked */
+    private boolean revoked;
+    /** The API key, only set when it is issued */
+    private String key;
+}
@@ -0,0 +1,27 @@
+package com.finpay.common.dto.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Owner and scopes of an active API key, returned by the auth service to resource servers.
+ * The fields mirror the claims of an access token, so both credentials authorize alike.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiKeyIntrospection {
+    /** Username of the key's owner (sub claim) */
+    private String subject;
+    /** Id of the key's owner (user_id claim) */
+    private Long userId;
+    /** Email of the key's owner (email claim) */
+    private String email;
+    /** Space-separated authorities granted to the key (scope claim) */
+    private String scope;
+    /** Time the key expires, null if it does not expire */
+    private Instant expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.finpay.common.dto.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress or outcome of a bulk user import.
+ * To resume an interrupted import, send the same input again with skip set to committed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResult {
+    /** Identifier of the import, used to query its progress */
+    private String importId;
+    /** RUNNING, COMPLETED or FAILED */
+    private String state;
+    /** Input records whose chunk has been committed, counted from the start of the input */
+    private long committed;
+    /** Users created */
+    private long created;
+    /** Records skipped because the username already exists */
+    private long skipped;
+    /** Records rejected as invalid (missing fields or unknown role) */
+    private long rejected;
+    /** Error that stopped the import, null unless FAILED */
+    private String error;
+}
@@ -0,0 +1,22 @@
+package com.finpay.common.dto.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for issuing an API key to the authenticated user.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateApiKeyRequest {
+    /** Label of the key, e.g. the batch system using it */
+    private String name;
+    /** Authorities granted to the key (e.g. "ROLE_USER"); must be held by the user. Empty grants all of them */
+    private List<String> scopes;
+    /** Lifetime of the key in days; 0 or null for the configured default */
+    private Integer expiresInDays;
+}
@@ -6,7 +6,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Response DTO containing JWT authentication token.
- * Returned after successful user login.
+ * Returned after successful user login and after a token refresh.
  */
 @Data
 @AllArgsConstructor
@@ -14,4 +14,17 @@ import lombok.NoArgsConstructor;
 public class JwtResponse {
     /** JWT bearer token for authentication */
     private String token;
+    /** Opaque, single-use token exchanged for a new token pair at /auth-services/token/refresh */
+    private String refreshToken;
+    /** Lifetime of the access token in seconds */
+    private long expiresIn;
+
+    /**
+     * Creates a response carrying only an access token.
+     *
+     * @param token JWT bearer token
+     */
+    public JwtResponse(String token) {
+        this.token = token;
+    }
 }
@@ -0,0 +1,16 @@
+package com.finpay.common.dto.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for exchanging a refresh token for a new token pair.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequest {
+    /** Refresh token returned by the last login or refresh */
+    private String refreshToken;
+}
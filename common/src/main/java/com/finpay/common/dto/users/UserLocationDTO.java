@@ -1,8 +1,15 @@
 package com.finpay.common.dto.users;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+/**
+ * Data Transfer Object for a user's location.
+ */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserLocationDTO {
     private long userId;
     private String email;
@@ -0,0 +1,37 @@
+package com.finpay.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Async appender that never blocks the logging thread and counts what it drops.
+ * <p>
+ * Events are handed to a bounded queue drained by one worker thread. When the queue is
+ * full the event is dropped; once less than the discarding threshold is left, TRACE, DEBUG
+ * and INFO events are dropped first so WARN and ERROR still get through. Drops are counted
+ * as {@code finpay.logging.dropped{reason=queue-full}}.
+ */
+public class DroppingAsyncAppender extends AsyncAppender {
+
+    /**
+     * Creates the appender with neverBlock enabled; queueSize and discardingThreshold
+     * keep logback's defaults unless configured.
+     */
+    public DroppingAsyncAppender() {
+        setNeverBlock(true);
+    }
+
+    /**
+     * Queues an event, counting it when it is going to be dropped.
+     *
+     * @param event Log event
+     */
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            LogDropMetrics.QUEUE_FULL.increment();
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,43 @@
+package com.finpay.common.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts log events dropped by the logging pipeline and publishes them as
+ * {@code finpay.logging.dropped{reason}}.
+ * <p>
+ * Logback creates its filters and appenders before the application context exists, so they
+ * count into static adders; services expose them by registering this class as a bean.
+ */
+public class LogDropMetrics implements MeterBinder {
+
+    /** Events dropped because an async appender's queue was full */
+    static final LongAdder QUEUE_FULL = new LongAdder();
+    /** Events dropped by the per-logger rate limit */
+    static final LongAdder RATE_LIMITED = new LongAdder();
+    /** Events dropped because their trace was not sampled */
+    static final LongAdder UNSAMPLED = new LongAdder();
+
+    /**
+     * Registers one counter per drop reason.
+     *
+     * @param registry Registry to publish the counters to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "queue-full", QUEUE_FULL);
+        register(registry, "rate-limited", RATE_LIMITED);
+        register(registry, "unsampled", UNSAMPLED);
+    }
+
+    private static void register(MeterRegistry registry, String reason, LongAdder counter) {
+        FunctionCounter.builder("finpay.logging.dropped", counter, LongAdder::sum)
+                .description("Log events dropped instead of slowing down request threads")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
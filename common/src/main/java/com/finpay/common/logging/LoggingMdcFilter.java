@@ -1,36 +1,50 @@
 package com.finpay.common.logging;
 
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import io.micrometer.tracing.Tracer;
 import org.slf4j.MDC;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
-import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
 /**
  * MDC (Mapped Diagnostic Context) filter for enriching logs with contextual information.
- * Adds trace ID, span ID, and user ID to every log entry for distributed tracing and debugging.
- * Runs once per request to ensure consistent logging context across all services.
+ * Adds the user ID of the verified JWT, and trace and span IDs when the tracer has not
+ * already put them, to every log entry of the request.
+ * <p>
+ * Must run after Spring Security's filter chain so the request is already authenticated.
+ * The span is looked up once and its IDs are put as-is; only the keys this filter put are
+ * removed afterwards, so MDC entries owned by the tracer or outer filters survive.
+ * Work handed to other threads keeps the context through {@link MdcTaskDecorator}.
+ * <p>
+ * Not a Spring bean: services register it explicitly, ordered after the security filters.
  */
-@Component
 public class LoggingMdcFilter extends OncePerRequestFilter {
 
+    /** MDC key of the trace ID */
+    public static final String TRACE_ID = "traceId";
+    /** MDC key of the span ID */
+    public static final String SPAN_ID = "spanId";
+    /** MDC key of the authenticated user's ID */
+    public static final String USER_ID = "userId";
+
     /** Micrometer tracer for distributed tracing support */
     private final Tracer tracer;
 
     /**
      * Constructor for LoggingMdcFilter.
      *
-     * @param tracer Micrometer tracer instance for trace/span context
+     * @param tracer Micrometer tracer instance for trace/span context; Tracer.NOOP when tracing is off
      */
-    @Autowired
     public LoggingMdcFilter(Tracer tracer) {
         this.tracer = tracer;
     }
@@ -49,31 +63,51 @@ public class LoggingMdcFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
-            // Extract and set trace ID and span ID from Micrometer tracer
-            String traceId = tracer.currentSpan() != null ? tracer.currentSpan().context().traceId() : null;
-            String spanId = tracer.currentSpan() != null ? tracer.currentSpan().context().spanId() : null;
-
-            if (traceId != null) MDC.put("traceId", traceId);
-            if (spanId != null) MDC.put("spanId", spanId);
-
-            // Extract user ID from JWT token in security context
-            Object principal = org.springframework.security.core.context.SecurityContextHolder
-                    .getContext()
-                    .getAuthentication()
-                    .getPrincipal();
-
-            if (principal instanceof Jwt jwt) {
-                MDC.put("userId", jwt.getClaimAsString("user_id"));
-            } else if (principal instanceof JwtAuthenticationToken token) {
-                MDC.put("userId", token.getToken().getClaimAsString("user_id"));
+        // The tracer's correlation scope usually maps these already; only fill them in when it has not
+        boolean putTrace = false;
+        if (MDC.get(TRACE_ID) == null) {
+            Span span = tracer.currentSpan();
+            if (span != null) {
+                TraceContext context = span.context();
+                MDC.put(TRACE_ID, context.traceId());
+                MDC.put(SPAN_ID, context.spanId());
+                putTrace = true;
             }
+        }
+        String userId = userId(SecurityContextHolder.getContext().getAuthentication());
+        if (userId != null) {
+            MDC.put(USER_ID, userId);
+        }
 
-            // Continue filter chain with enriched MDC context
+        try {
             filterChain.doFilter(request, response);
         } finally {
-            // Clear MDC after request to prevent memory leaks
-            MDC.clear();
+            if (userId != null) {
+                MDC.remove(USER_ID);
+            }
+            if (putTrace) {
+                MDC.remove(TRACE_ID);
+                MDC.remove(SPAN_ID);
+            }
+        }
+    }
+
+    /**
+     * Extracts the user ID claim of an authenticated JWT principal.
+     *
+     * @param authentication Current authentication; null on unauthenticated paths
+     * @return User ID, or null if the request has no JWT principal
+     */
+    static String userId(Authentication authentication) {
+        Jwt jwt;
+        if (authentication instanceof JwtAuthenticationToken token) {
+            jwt = token.getToken();
+        } else if (authentication != null && authentication.getPrincipal() instanceof Jwt principal) {
+            jwt = principal;
+        } else {
+            return null;
         }
+        Object userId = jwt.getClaims().get("user_id");
+        return userId != null ? userId.toString() : null;
     }
 }
@@ -0,0 +1,30 @@
+package com.finpay.common.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.RingBufferFullException;
+import net.logstash.logback.appender.listener.TcpAppenderListener;
+
+/**
+ * Counts events a Logstash appender dropped because its ring buffer was full,
+ * as {@code finpay.logging.dropped{reason=queue-full}}.
+ * <p>
+ * Logstash appenders are already asynchronous and drop rather than block when their
+ * ring buffer is full (appendTimeout 0); this listener makes those drops visible.
+ */
+public class LogstashDropListener implements TcpAppenderListener<ILoggingEvent> {
+
+    /**
+     * Counts an event the appender failed to enqueue.
+     *
+     * @param appender Appender that dropped the event
+     * @param event Dropped event
+     * @param reason Cause of the failure
+     */
+    @Override
+    public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+        if (reason instanceof RingBufferFullException) {
+            LogDropMetrics.QUEUE_FULL.increment();
+        }
+    }
+}
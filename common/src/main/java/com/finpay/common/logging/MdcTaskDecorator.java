@@ -0,0 +1,54 @@
+package com.finpay.common.logging;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's MDC (trace, span and user IDs) over to the thread running a task.
+ * <p>
+ * Spring Boot applies a TaskDecorator bean to its task executor, which also serves
+ * {@code @Async} methods and async MVC requests, and to the virtual thread executor when
+ * virtual threads are enabled. Ad-hoc executors can wrap tasks with {@link #wrap(Runnable)}.
+ * The worker thread's previous MDC is restored afterwards, so pooled threads do not leak context.
+ */
+public class MdcTaskDecorator implements TaskDecorator {
+
+    /**
+     * Decorates a task with the current MDC.
+     *
+     * @param runnable Task to run on another thread
+     * @return Task running with the submitting thread's MDC
+     */
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return wrap(runnable);
+    }
+
+    /**
+     * Captures the current MDC and returns a task that runs with it.
+     *
+     * @param task Task to run on another thread
+     * @return Task running with the submitting thread's MDC
+     */
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null || context.isEmpty()) {
+            return task;
+        }
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            MDC.setContextMap(context);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+}
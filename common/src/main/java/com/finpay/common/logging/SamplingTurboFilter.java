@@ -0,0 +1,147 @@
+package com.finpay.common.logging;
+
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter sampling and rate limiting log events below a threshold level.
+ * <p>
+ * Runs before a logging event is created, so a dropped event costs neither formatting nor
+ * allocation. Events at or above the threshold (WARN by default) always pass. Below it:
+ * <ul>
+ *   <li>Head sampling: events logged inside a trace the tracer decided not to sample are
+ *       dropped, so logs are kept for the same requests whose traces are kept.</li>
+ *   <li>Rate limiting: each logger may log eventsPerSecond events on average, with bursts
+ *       of up to burst events; the rest is dropped.</li>
+ * </ul>
+ * Drops are counted as {@code finpay.logging.dropped{reason=unsampled|rate-limited}}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private Level threshold = Level.WARN;
+    private double eventsPerSecond = 100;
+    private int burst = 200;
+    private boolean traceSampled = true;
+
+    private long intervalNanos;
+    private long burstNanos;
+    private final ConcurrentMap<String, AtomicLong> nextFreeTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the filter after its properties have been set.
+     */
+    @Override
+    public void start() {
+        if (eventsPerSecond <= 0 || burst < 1) {
+            addError("eventsPerSecond must be positive and burst at least 1");
+            return;
+        }
+        intervalNanos = (long) (1_000_000_000L / eventsPerSecond);
+        burstNanos = intervalNanos * burst;
+        super.start();
+    }
+
+    /**
+     * Decides whether a logging call goes ahead.
+     *
+     * @param marker Marker of the call
+     * @param logger Logger called
+     * @param level Level of the call
+     * @param format Message format; null for isXxxEnabled checks
+     * @param params Message parameters
+     * @param t Throwable of the call
+     * @return DENY to drop the event, NEUTRAL to let logback's level check decide
+     */
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || level.isGreaterOrEqual(threshold)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            // Enabled checks, important events and disabled levels are not sampled or charged
+            return FilterReply.NEUTRAL;
+        }
+        if (traceSampled && isUnsampledTrace()) {
+            LogDropMetrics.UNSAMPLED.increment();
+            return FilterReply.DENY;
+        }
+        if (!tryAcquire(logger.getName())) {
+            LogDropMetrics.RATE_LIMITED.increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /**
+     * Tells whether the current thread is inside a trace that was not sampled.
+     *
+     * @return True if a trace is in scope and the tracer decided not to record it
+     */
+    private static boolean isUnsampledTrace() {
+        Tracing tracing = Tracing.current();
+        if (tracing == null) {
+            return false;
+        }
+        TraceContext context = tracing.currentTraceContext().get();
+        return context != null && Boolean.FALSE.equals(context.sampled());
+    }
+
+    /**
+     * Takes one event from a logger's budget (generic cell rate algorithm).
+     *
+     * @param loggerName Name of the logger
+     * @return True if the logger is within its rate
+     */
+    private boolean tryAcquire(String loggerName) {
+        AtomicLong nextFree = nextFreeTimes.get(loggerName);
+        if (nextFree == null) {
+            nextFree = nextFreeTimes.computeIfAbsent(loggerName, name -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long current = nextFree.get();
+            long next = (current == Long.MIN_VALUE ? now : Math.max(current, now)) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (nextFree.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param threshold Level from which events are never dropped (default WARN)
+     */
+    public void setThreshold(String threshold) {
+        this.threshold = Level.toLevel(threshold, Level.WARN);
+    }
+
+    /**
+     * @param eventsPerSecond Average events per second allowed per logger below the threshold
+     */
+    public void setEventsPerSecond(double eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+
+    /**
+     * @param burst Events a logger may log at once before the rate applies
+     */
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    /**
+     * @param traceSampled Whether to drop events of traces that were not sampled
+     */
+    public void setTraceSampled(boolean traceSampled) {
+        this.traceSampled = traceSampled;
+    }
+}
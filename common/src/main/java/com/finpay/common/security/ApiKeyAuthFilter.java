@@ -0,0 +1,271 @@
+package com.finpay.common.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finpay.common.dto.users.ApiKeyIntrospection;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates machine clients by the API key in the {@code X-API-Key} header.
+ * <p>
+ * The key is hashed with {@link ApiKeyHasher} and looked up in a local cache of key owners;
+ * only on a miss is the auth service asked for the owner of that hash. A cached request
+ * therefore costs one HMAC and one map lookup, with no BCrypt login and no RSA verification.
+ * Unknown keys are cached briefly as well, so repeated bad keys do not reach the auth service.
+ * A revoked key stops working once its cache entry expires.
+ * <p>
+ * The request is authenticated with the same JwtAuthenticationToken an access token of the
+ * owner would produce (sub, user_id, email and scope claims), so scopes map to the existing
+ * SCOPE_ authorities and controllers reading the Jwt principal work unchanged. The Jwt carries
+ * the {@link #TOKEN_TYPE} typ header and the key as its token value, so outgoing service calls
+ * can forward the key instead of a bearer token.
+ * <p>
+ * Not a Spring bean: each service adds it to its security filter chain explicitly, so it
+ * does not also get registered as a plain servlet filter.
+ */
+public class ApiKeyAuthFilter extends OncePerRequestFilter {
+
+    /** Header carrying the API key */
+    public static final String HEADER = "X-API-Key";
+
+    /** typ header of the Jwt built for API key requests */
+    public static final String TOKEN_TYPE = "api-key";
+
+    private static final Logger log = LoggerFactory.getLogger(ApiKeyAuthFilter.class);
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(2);
+    private static final ApiKeyIntrospection UNKNOWN = new ApiKeyIntrospection();
+
+    private final ApiKeyHasher hasher;
+    private final URI introspectionUri;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+    private final Cache<String, ApiKeyIntrospection> owners;
+    private final Timer cacheHit;
+    private final Timer cacheMiss;
+    private final Counter rejected;
+
+    /**
+     * Creates the filter.
+     *
+     * @param secret Shared HMAC secret of API keys; blank disables API key authentication
+     * @param introspectionUri URL of the auth service's API key introspection endpoint
+     * @param cacheTtl How long a known key's owner is reused; bounds how long a revoked key keeps working
+     * @param negativeCacheTtl How long an unknown key is remembered as unknown
+     * @param cacheSize Maximum number of keys cached
+     * @param meterRegistry Registry for verification metrics
+     */
+    public ApiKeyAuthFilter(String secret, String introspectionUri, Duration cacheTtl, Duration negativeCacheTtl,
+                            long cacheSize, MeterRegistry meterRegistry) {
+        this.hasher = secret == null || secret.isBlank() ? null : new ApiKeyHasher(secret);
+        this.introspectionUri = URI.create(introspectionUri);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(FETCH_TIMEOUT).build();
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new OwnerExpiry(cacheTtl.toNanos(), negativeCacheTtl.toNanos()))
+                .build();
+
+        this.cacheHit = verificationTimer(meterRegistry, "hit");
+        this.cacheMiss = verificationTimer(meterRegistry, "miss");
+        this.rejected = Counter.builder("finpay.security.apikey.rejected")
+                .description("Requests with an unknown, revoked or expired API key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Authenticates the request from its API key when one is present and valid.
+     * Requests already authenticated by the gateway's internal header are left alone.
+     *
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param filterChain Filter chain to continue request processing
+     * @throws ServletException If servlet error occurs
+     * @throws IOException If I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String apiKey = hasher != null ? request.getHeader(HEADER) : null;
+        if (apiKey != null && request.getAttribute(InternalAuthFilter.AUTHENTICATED_ATTRIBUTE) == null) {
+            ApiKeyIntrospection owner = lookup(apiKey);
+            if (owner != null) {
+                AbstractAuthenticationToken authentication = authenticationConverter.convert(toJwt(apiKey, owner));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+                // Also stops the resource server from resolving a bearer token
+                request.setAttribute(InternalAuthFilter.AUTHENTICATED_ATTRIBUTE, Boolean.TRUE);
+            } else {
+                rejected.increment();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Tells whether a Jwt principal was built from an API key.
+     *
+     * @param jwt Jwt principal of the current request
+     * @return True if the token value is an API key rather than an access token
+     */
+    public static boolean isApiKey(Jwt jwt) {
+        return TOKEN_TYPE.equals(jwt.getHeaders().get("typ"));
+    }
+
+    /**
+     * Resolves the owner of an API key, from the cache or the auth service.
+     *
+     * @param apiKey Raw API key
+     * @return Owner of the key, or null if the key is unknown, revoked or expired
+     */
+    private ApiKeyIntrospection lookup(String apiKey) {
+        if (!apiKey.startsWith(ApiKeyHasher.PREFIX)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        String hash = hasher.hash(apiKey);
+        ApiKeyIntrospection owner = owners.getIfPresent(hash);
+        if (owner != null) {
+            cacheHit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            owner = introspect(hash);
+            if (owner != null) {
+                owners.put(hash, owner);
+            }
+            cacheMiss.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (owner == null || owner == UNKNOWN
+                || (owner.getExpiresAt() != null && owner.getExpiresAt().isBefore(Instant.now()))) {
+            return null;
+        }
+        return owner;
+    }
+
+    /**
+     * Asks the auth service for the owner of a key hash.
+     *
+     * @param hash Hash of the API key
+     * @return Owner, UNKNOWN if the auth service does not know the key, or null if it could not be asked
+     */
+    private ApiKeyIntrospection introspect(String hash) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(introspectionUri)
+                    .timeout(FETCH_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("hash", hash))))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 404) {
+                return UNKNOWN;
+            }
+            if (response.statusCode() != 200) {
+                log.warn("API key introspection returned {}", response.statusCode());
+                return null;
+            }
+            return objectMapper.readValue(response.body(), ApiKeyIntrospection.class);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            log.warn("API key introspection failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds the Jwt principal an access token of the key's owner would have.
+     *
+     * @param apiKey Raw API key, kept as token value for forwarding
+     * @param owner Owner and scopes of the key
+     * @return Jwt with sub, user_id, email and scope claims
+     */
+    private static Jwt toJwt(String apiKey, ApiKeyIntrospection owner) {
+        Jwt.Builder jwt = Jwt.withTokenValue(apiKey)
+                .header("alg", "none")
+                .header("typ", TOKEN_TYPE)
+                .subject(owner.getSubject())
+                .claim("user_id", owner.getUserId())
+                .claim("scope", owner.getScope())
+                .issuedAt(Instant.now());
+        if (owner.getEmail() != null) {
+            jwt.claim("email", owner.getEmail());
+        }
+        if (owner.getExpiresAt() != null) {
+            jwt.expiresAt(owner.getExpiresAt());
+        }
+        return jwt.build();
+    }
+
+    private static Timer verificationTimer(MeterRegistry registry, String cache) {
+        return Timer.builder("finpay.security.apikey.verification")
+                .description("Time spent authenticating an API key")
+                .tag("cache", cache)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Keeps known keys for the cache TTL (or until they expire) and unknown keys briefly.
+     */
+    private static final class OwnerExpiry implements Expiry<String, ApiKeyIntrospection> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        OwnerExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String hash, ApiKeyIntrospection owner, long currentTime) {
+            if (owner == UNKNOWN) {
+                return negativeTtlNanos;
+            }
+            if (owner.getExpiresAt() == null) {
+                return ttlNanos;
+            }
+            long remainingMillis = owner.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String hash, ApiKeyIntrospection owner, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(hash, owner, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String hash, ApiKeyIntrospection owner, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.finpay.common.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Hashes API keys with HMAC-SHA256 under a secret shared by the auth service and the resource servers.
+ * <p>
+ * The auth service stores only this hash, and resource servers look keys up by it. Keys are
+ * 256-bit random values, so a keyed hash is as strong as a password hash here while costing
+ * about a microsecond; the shared secret also means a leaked api_keys table cannot be used
+ * to check guessed keys.
+ */
+public class ApiKeyHasher {
+
+    /** Prefix of every API key, so keys are recognisable in headers and secret scanners */
+    public static final String PREFIX = "fpk_";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Creates the hasher.
+     *
+     * @param secret Shared HMAC secret of API keys
+     * @throws IllegalArgumentException if the secret is blank
+     */
+    public ApiKeyHasher(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("API key secret must not be blank");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Hashes an API key.
+     *
+     * @param apiKey Raw API key
+     * @return Base64url HMAC-SHA256 of the key (43 characters)
+     */
+    public String hash(String apiKey) {
+        byte[] digest = macs.get().doFinal(apiKey.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    /**
+     * Creates a Mac for the calling thread; Mac instances are not thread-safe.
+     *
+     * @return Initialised HMAC-SHA256 Mac
+     */
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.finpay.common.security;
+
+import com.finpay.common.utils.PemUtils;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.spec.InvalidKeySpecException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JWK source backed by the auth service's JWKS endpoint, refreshed in the background.
+ * <p>
+ * Keys are held in memory indexed by key id, so verifying a token never fetches anything
+ * on the request thread. The set is refreshed on a fixed interval, and a token signed with
+ * an unknown key id triggers an early (rate-limited) background refresh, so a key rotation
+ * published by the auth service is picked up without a redeploy. Until the first successful
+ * fetch, the bootstrap key from the service's own classpath is used; a failed refresh keeps
+ * the last known set.
+ * <p>
+ * Not a Spring bean by itself: each service creates it in its security configuration.
+ */
+public class CachedJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CachedJwkSource.class);
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final URI jwksUri;
+    private final long minRefreshIntervalNanos;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong lastRefreshNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong keyGeneration = new AtomicLong();
+    private volatile KeySet keys;
+
+    /**
+     * Creates the source and schedules the first fetch immediately.
+     *
+     * @param jwksUri URL of the auth service's JWKS document
+     * @param bootstrapKeys Keys used until the first successful fetch
+     * @param refreshInterval Interval of the regular background refresh
+     * @param minRefreshInterval Minimum time between refreshes triggered by unknown key ids
+     */
+    public CachedJwkSource(String jwksUri, List<JWK> bootstrapKeys, Duration refreshInterval,
+                           Duration minRefreshInterval) {
+        this.jwksUri = URI.create(jwksUri);
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.keys = new KeySet(bootstrapKeys);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(FETCH_TIMEOUT).build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds a bootstrap key from a PEM public key (RSA or P-256) on the classpath.
+     * Its key id is the RFC 7638 thumbprint, which is how the auth service names its keys.
+     *
+     * @param path Classpath resource path to the public key PEM file
+     * @return RSA or EC JWK of the key
+     * @throws Exception If the key cannot be loaded or parsed
+     */
+    public static JWK bootstrapKey(String path) throws Exception {
+        try {
+            return new RSAKey.Builder(PemUtils.loadPublicKey(path))
+                    .keyUse(KeyUse.SIGNATURE)
+                    .keyIDFromThumbprint()
+                    .build();
+        } catch (InvalidKeySpecException notRsa) {
+            return new ECKey.Builder(Curve.P_256, PemUtils.loadEcPublicKey(path))
+                    .keyUse(KeyUse.SIGNATURE)
+                    .keyIDFromThumbprint()
+                    .build();
+        }
+    }
+
+    /**
+     * Creates a JwtDecoder verifying RS256 and ES256 tokens against this source,
+     * so the auth service can switch signing algorithms without a flag day.
+     *
+     * @return JwtDecoder with the default timestamp validation
+     */
+    public JwtDecoder jwtDecoder() {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+                Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256), this));
+        return new NimbusJwtDecoder(processor);
+    }
+
+    /**
+     * Returns the generation of the key set, incremented whenever a refresh changes the keys.
+     * Caches of verified tokens compare it to notice rotations and withdrawn keys.
+     *
+     * @return Current key generation
+     */
+    public long keyGeneration() {
+        return keyGeneration.get();
+    }
+
+    /**
+     * Returns the keys matching a selector, looking single key ids up directly.
+     * An unknown key id schedules an early refresh and matches nothing.
+     *
+     * @param selector Key selector of the token being verified
+     * @param context Unused security context
+     * @return Matching keys, possibly empty
+     */
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        KeySet current = keys;
+        JWKMatcher matcher = selector.getMatcher();
+        Set<String> keyIds = matcher.getKeyIDs();
+        if (keyIds == null || keyIds.size() != 1) {
+            return selector.select(current.set());
+        }
+        JWK key = current.byKeyId().get(keyIds.iterator().next());
+        if (key == null) {
+            requestRefresh();
+            return List.of();
+        }
+        return matcher.matches(key) ? List.of(key) : List.of();
+    }
+
+    /**
+     * Stops the background refresh.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void requestRefresh() {
+        long now = System.nanoTime();
+        long last = lastRefreshNanos.get();
+        if (now - last >= minRefreshIntervalNanos && lastRefreshNanos.compareAndSet(last, now)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        lastRefreshNanos.set(System.nanoTime());
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri).timeout(FETCH_TIMEOUT).GET().build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("JWKS refresh from {} returned {}; keeping {} known keys",
+                        jwksUri, response.statusCode(), keys.byKeyId().size());
+                return;
+            }
+            KeySet fetched = new KeySet(JWKSet.parse(response.body()).getKeys());
+            if (!fetched.byKeyId().keySet().equals(keys.byKeyId().keySet())) {
+                log.info("JWKS key ids changed to {}", fetched.byKeyId().keySet());
+            }
+            boolean changed = !fetched.byKeyId().equals(keys.byKeyId());
+            keys = fetched;
+            if (changed) {
+                keyGeneration.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("JWKS refresh from {} failed; keeping {} known keys: {}",
+                    jwksUri, keys.byKeyId().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Immutable snapshot of the known keys.
+     *
+     * @param set Keys as a JWK set
+     * @param byKeyId Keys indexed by key id
+     */
+    private record KeySet(JWKSet set, Map<String, JWK> byKeyId) {
+        KeySet(List<JWK> keys) {
+            this(new JWKSet(keys), index(keys));
+        }
+
+        private static Map<String, JWK> index(List<JWK> keys) {
+            Map<String, JWK> byKeyId = new LinkedHashMap<>();
+            for (JWK key : keys) {
+                if (key.getKeyID() != null) {
+                    byKeyId.put(key.getKeyID(), key);
+                }
+            }
+            return Map.copyOf(byKeyId);
+        }
+    }
+}
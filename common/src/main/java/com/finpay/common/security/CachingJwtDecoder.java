@@ -0,0 +1,147 @@
+package com.finpay.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * JwtDecoder remembering tokens it has already verified.
+ * <p>
+ * Clients reuse an access token for its whole lifetime, so most requests present a token
+ * whose signature this instance has checked before. Verified tokens are cached by the
+ * SHA-256 of the raw token (the token itself is never kept), and each entry expires at the
+ * token's exp claim; a cache hit costs one hash and one map lookup instead of a JSON parse
+ * and a signature verification. Tokens without exp and rejected tokens are never cached.
+ * <p>
+ * Entries remember the key generation they were verified under. When the key material
+ * changes (a rotation or a revoked key), cached tokens are verified again once, so a token
+ * signed with a withdrawn key stops being accepted at the next refresh of the key set.
+ * <p>
+ * Not a Spring bean by itself: each service creates it in its security configuration.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final LongSupplier keyGeneration;
+    private final Cache<String, VerifiedJwt> verified;
+
+    /**
+     * Creates the decoder and registers its metrics.
+     *
+     * @param delegate Decoder performing the actual verification
+     * @param keyGeneration Current generation of the verification keys
+     * @param maximumSize Maximum number of verified tokens cached
+     * @param meterRegistry Registry for the cache metrics
+     */
+    public CachingJwtDecoder(JwtDecoder delegate, LongSupplier keyGeneration, long maximumSize,
+                             MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.keyGeneration = keyGeneration;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpiry())
+                .recordStats()
+                .build();
+
+        FunctionCounter.builder("finpay.security.jwt.cache", verified, cache -> cache.stats().hitCount())
+                .description("Bearer token lookups in the verified-token cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("finpay.security.jwt.cache", verified, cache -> cache.stats().missCount())
+                .description("Bearer token lookups in the verified-token cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("finpay.security.jwt.cache.hit.ratio", verified, cache -> cache.stats().hitRate())
+                .description("Share of bearer tokens served without signature verification")
+                .register(meterRegistry);
+        Gauge.builder("finpay.security.jwt.cache.size", verified, Cache::estimatedSize)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached verification of a token, verifying it with the delegate on a miss
+     * or when the keys changed since it was cached.
+     *
+     * @param token Raw bearer token
+     * @return Verified Jwt
+     * @throws JwtException if the delegate rejects the token
+     */
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        long generation = keyGeneration.getAsLong();
+        VerifiedJwt cached = verified.getIfPresent(key);
+        if (cached != null && cached.keyGeneration() == generation) {
+            return cached.jwt();
+        }
+
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null) {
+            verified.put(key, new VerifiedJwt(jwt, generation));
+        }
+        return jwt;
+    }
+
+    /**
+     * Returns the share of lookups served from the cache since startup.
+     *
+     * @return Hit ratio between 0 and 1
+     */
+    public double hitRatio() {
+        return verified.stats().hitRate();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A verified token and the key generation it was verified under.
+     *
+     * @param jwt Verified token
+     * @param keyGeneration Key generation at verification time
+     */
+    private record VerifiedJwt(Jwt jwt, long keyGeneration) {
+    }
+
+    /**
+     * Keeps each cache entry until its token expires.
+     */
+    private static final class UntilExpiry implements Expiry<String, VerifiedJwt> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+            long remainingMillis = value.jwt().getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.finpay.common.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Authenticates requests from the signed internal header added by the API Gateway.
+ * <p>
+ * The gateway verifies the RS256 signature of the bearer token once and forwards its claims
+ * as {@code X-FinPay-Auth: <base64url claims>.<base64url HMAC-SHA256>}. Checking that HMAC
+ * is far cheaper than re-verifying the RSA signature on every hop. When the header is valid
+ * the request is authenticated with the same JwtAuthenticationToken the resource server
+ * would build, and {@link #bearerTokenResolver()} stops the resource server from verifying
+ * the bearer token again. Requests without a valid header fall back to normal JWT validation.
+ * <p>
+ * Not a Spring bean: each service adds it to its security filter chain explicitly, so it
+ * does not also get registered as a plain servlet filter.
+ */
+public class InternalAuthFilter extends OncePerRequestFilter {
+
+    /** Header carrying the gateway-verified claims */
+    public static final String HEADER = "X-FinPay-Auth";
+
+    /** Request attribute set once the internal header has been accepted */
+    public static final String AUTHENTICATED_ATTRIBUTE = InternalAuthFilter.class.getName() + ".AUTHENTICATED";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappedJwtClaimSetConverter claimSetConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+    private final JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+    private final DefaultBearerTokenResolver defaultBearerTokenResolver = new DefaultBearerTokenResolver();
+
+    /**
+     * Creates the filter.
+     *
+     * @param secret Shared HMAC secret; blank disables the internal header
+     */
+    public InternalAuthFilter(String secret) {
+        this.key = secret == null || secret.isBlank()
+                ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Bearer token resolver for the OAuth2 resource server.
+     * Returns no token for requests already authenticated by the internal header,
+     * so their RS256 signature is not verified a second time.
+     *
+     * @return BearerTokenResolver aware of internally authenticated requests
+     */
+    public BearerTokenResolver bearerTokenResolver() {
+        return request -> request.getAttribute(AUTHENTICATED_ATTRIBUTE) != null
+                ? null
+                : defaultBearerTokenResolver.resolve(request);
+    }
+
+    /**
+     * Authenticates the request from the internal header when it is present and valid.
+     *
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param filterChain Filter chain to continue request processing
+     * @throws ServletException If servlet error occurs
+     * @throws IOException If I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = key != null ? request.getHeader(HEADER) : null;
+        if (header != null) {
+            Jwt jwt = verify(header, request);
+            if (jwt != null) {
+                AbstractAuthenticationToken authentication = authenticationConverter.convert(jwt);
+                // Kept so outgoing service calls can forward the header
+                authentication.setDetails(header);
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+                request.setAttribute(AUTHENTICATED_ATTRIBUTE, Boolean.TRUE);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Checks the header signature and expiry and rebuilds the JWT it describes.
+     *
+     * @param header Internal header value
+     * @param request HTTP request, used for the original bearer token value
+     * @return Jwt built from the forwarded claims, or null if the header is invalid or expired
+     */
+    private Jwt verify(String header, HttpServletRequest request) {
+        int separator = header.lastIndexOf('.');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            String payload = header.substring(0, separator);
+            byte[] signature = Base64.getUrlDecoder().decode(header.substring(separator + 1));
+            byte[] expected = macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, signature)) {
+                return null;
+            }
+
+            Map<String, Object> claims = claimSetConverter.convert(
+                    objectMapper.readValue(Base64.getUrlDecoder().decode(payload), CLAIMS_TYPE));
+            Object expiresAt = claims.get("exp");
+            if (!(expiresAt instanceof Instant exp) || exp.isBefore(Instant.now())) {
+                return null;
+            }
+
+            String token = defaultBearerTokenResolver.resolve(request);
+            return Jwt.withTokenValue(token != null ? token : payload)
+                    .header("alg", "HS256")
+                    .header("typ", HEADER)
+                    .claims(c -> c.putAll(claims))
+                    .build();
+        } catch (IllegalArgumentException | IOException | OAuth2AuthenticationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a Mac for the calling thread; Mac instances are not thread-safe.
+     *
+     * @return Initialised HMAC-SHA256 Mac
+     */
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.finpay.common.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the sampling budget of each request's endpoint to the request thread, for
+ * {@link EndpointSampler} (head decisions) and {@link TailSamplingSpanHandler} (keep budget).
+ * <p>
+ * Must run before the server observation filter creates the request's span; services
+ * register it at the highest precedence. Not a Spring bean on its own.
+ */
+public class SamplingEndpointFilter extends OncePerRequestFilter {
+
+    private final EndpointSampler sampler;
+
+    /**
+     * Creates the filter.
+     *
+     * @param sampler Sampler holding the endpoint rules
+     */
+    public SamplingEndpointFilter(EndpointSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Binds the request's budget for the rest of the chain.
+     *
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param filterChain Filter chain to continue request processing
+     * @throws ServletException If servlet error occurs
+     * @throws IOException If I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        EndpointSampler.bind(sampler.samplerFor(request.getMethod(), path));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            EndpointSampler.unbind();
+        }
+    }
+}
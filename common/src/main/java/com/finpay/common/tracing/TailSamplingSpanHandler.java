@@ -0,0 +1,189 @@
+package com.finpay.common.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Brave span handler buffering the spans of each local trace and exporting only interesting traces.
+ * <p>
+ * Every trace is recorded (the sampler always samples), but finished spans are held back
+ * until the trace's local root span ends. The trace is then exported when the root span
+ * failed (error, or a 5xx status), took at least the slow threshold, or fits the endpoint's
+ * traces-per-second budget from {@link EndpointSampler}; otherwise all of its spans are
+ * dropped. Spans ending after their root follow the decision already taken.
+ * <p>
+ * Installed in front of the exporting handlers (Zipkin) through a TracingCustomizer, which
+ * moves them behind this handler, so nothing is exported without a decision. Buffers are
+ * bounded: traces whose root never ends are dropped after the buffer TTL or when too many
+ * traces are pending.
+ * <p>
+ * Decisions are per service: a trace kept here may be dropped by another service.
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    private static final Duration BUFFER_TTL = Duration.ofMinutes(1);
+
+    private final SpanHandler[] delegates;
+    private final EndpointSampler budgets;
+    private final long slowThresholdMicros;
+    private final Cache<Long, List<BufferedSpan>> pending;
+    private final Cache<Long, Boolean> decisions;
+
+    private final Counter spansExported;
+    private final Counter spansDropped;
+    private final Counter keptError;
+    private final Counter keptSlow;
+    private final Counter keptSampled;
+    private final Counter tracesDropped;
+
+    /**
+     * Creates the handler.
+     *
+     * @param delegates Handlers exporting kept spans, in their original order
+     * @param budgets Endpoint budgets for traces that are neither failed nor slow
+     * @param slowThreshold Root span duration from which a trace is always kept
+     * @param maxPendingTraces Maximum number of traces buffered while waiting for their root span
+     * @param meterRegistry Registry for span and trace decision counters
+     */
+    public TailSamplingSpanHandler(Collection<SpanHandler> delegates, EndpointSampler budgets,
+                                   Duration slowThreshold, long maxPendingTraces, MeterRegistry meterRegistry) {
+        this.delegates = delegates.toArray(SpanHandler[]::new);
+        this.budgets = budgets;
+        this.slowThresholdMicros = slowThreshold.toNanos() / 1000;
+
+        this.spansExported = spanCounter(meterRegistry, "exported");
+        this.spansDropped = spanCounter(meterRegistry, "dropped");
+        this.keptError = traceCounter(meterRegistry, "error");
+        this.keptSlow = traceCounter(meterRegistry, "slow");
+        this.keptSampled = traceCounter(meterRegistry, "sampled");
+        this.tracesDropped = traceCounter(meterRegistry, "dropped");
+
+        this.pending = Caffeine.newBuilder()
+                .maximumSize(maxPendingTraces)
+                .expireAfterWrite(BUFFER_TTL)
+                .removalListener((Long localRoot, List<BufferedSpan> spans, RemovalCause removal) -> {
+                    // Root span never ended in time or too many traces pending: the trace is lost
+                    if (removal.wasEvicted() && spans != null) {
+                        spansDropped.increment(spans.size());
+                    }
+                })
+                .build();
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maxPendingTraces)
+                .expireAfterWrite(BUFFER_TTL)
+                .build();
+    }
+
+    /**
+     * Buffers a finished span, or decides its trace when it is the local root.
+     *
+     * @param context Context of the span
+     * @param span Finished span
+     * @param cause Why the span ended
+     * @return Always false: later handlers only see spans this handler forwards
+     */
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED) {
+            return false;
+        }
+        long localRoot = context.localRootId();
+        if (!context.isLocalRoot()) {
+            Boolean decided = decisions.getIfPresent(localRoot);
+            if (decided != null) {
+                emit(context, span, cause, decided);
+            } else {
+                pending.asMap().compute(localRoot, (id, spans) -> {
+                    List<BufferedSpan> buffer = spans != null ? spans : new ArrayList<>(4);
+                    buffer.add(new BufferedSpan(context, span, cause));
+                    return buffer;
+                });
+            }
+            return false;
+        }
+
+        boolean keep = decide(context, span);
+        decisions.put(localRoot, keep);
+        List<BufferedSpan> buffered = pending.asMap().remove(localRoot);
+        if (buffered != null) {
+            for (BufferedSpan child : buffered) {
+                emit(child.context(), child.span(), child.cause(), keep);
+            }
+        }
+        emit(context, span, cause, keep);
+        return false;
+    }
+
+    /**
+     * Decides whether a trace is exported, from its local root span.
+     *
+     * @param context Context of the root span
+     * @param root Finished root span
+     * @return True if the trace is kept
+     */
+    private boolean decide(TraceContext context, MutableSpan root) {
+        if (root.error() != null || root.tag("error") != null || isServerError(root.tag("status"))) {
+            keptError.increment();
+            return true;
+        }
+        if (root.finishTimestamp() - root.startTimestamp() >= slowThresholdMicros) {
+            keptSlow.increment();
+            return true;
+        }
+        // The root span ends inside SamplingEndpointFilter, so the request's budget is still bound
+        if (budgets.current().isSampled(context.traceId())) {
+            keptSampled.increment();
+            return true;
+        }
+        tracesDropped.increment();
+        return false;
+    }
+
+    private void emit(TraceContext context, MutableSpan span, Cause cause, boolean keep) {
+        if (!keep) {
+            spansDropped.increment();
+            return;
+        }
+        spansExported.increment();
+        for (SpanHandler delegate : delegates) {
+            if (!delegate.end(context, span, cause)) {
+                break;
+            }
+        }
+    }
+
+    private static boolean isServerError(String status) {
+        return status != null && status.length() == 3 && status.charAt(0) == '5';
+    }
+
+    private static Counter spanCounter(MeterRegistry registry, String decision) {
+        return Counter.builder("finpay.tracing.spans")
+                .description("Finished spans by tail sampling decision")
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    private static Counter traceCounter(MeterRegistry registry, String decision) {
+        return Counter.builder("finpay.tracing.traces")
+                .description("Local traces by tail sampling decision and reason")
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    /**
+     * Finished span waiting for its trace's decision.
+     */
+    private record BufferedSpan(TraceContext context, MutableSpan span, Cause cause) {
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.core.io.ClassPathResource;
 
 import java.io.InputStream;
 import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -11,7 +13,7 @@ import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
 
 /**
- * Utility class for loading RSA keys from PEM files.
+ * Utility class for loading RSA and EC keys from PEM files.
  * Used for JWT token signing and validation in the authentication system.
  */
 public class PemUtils {
@@ -59,4 +61,30 @@ public class PemUtils {
         X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyBytes);
         return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(keySpec);
     }
+
+    /**
+     * Loads EC (e.g. P-256) private key from PKCS#8 PEM file for ES256 JWT signing.
+     *
+     * @param path Classpath resource path to private key PEM file
+     * @return ECPrivateKey instance for JWT signing
+     * @throws Exception If key cannot be loaded or parsed
+     */
+    public static ECPrivateKey loadEcPrivateKey(String path) throws Exception {
+        byte[] keyBytes = Base64.getDecoder().decode(readPem(path));
+        PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyBytes);
+        return (ECPrivateKey) KeyFactory.getInstance("EC").generatePrivate(keySpec);
+    }
+
+    /**
+     * Loads EC (e.g. P-256) public key from PEM file for ES256 JWT validation.
+     *
+     * @param path Classpath resource path to public key PEM file
+     * @return ECPublicKey instance for JWT validation
+     * @throws Exception If key cannot be loaded or parsed
+     */
+    public static ECPublicKey loadEcPublicKey(String path) throws Exception {
+        byte[] keyBytes = Base64.getDecoder().decode(readPem(path));
+        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyBytes);
+        return (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(keySpec);
+    }
 }
@@ -3,9 +3,12 @@ package com.finpay.frauds.controllers;
 import com.finpay.common.dto.frauds.FraudCheckRequest;
 import com.finpay.common.dto.frauds.FraudCheckResponse;
 import com.finpay.frauds.services.FraudService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for fraud detection operations.
@@ -40,13 +43,16 @@ public class FraudController {
 
     /**
      * Retrieves the fraud check status for a specific transaction.
+     * The response may be cached for one second per user to absorb polling.
      *
      * @param transactionId UUID of the transaction
-     * @return FraudCheckResponse with fraud check details
+     * @return ResponseEntity with FraudCheckResponse with fraud check details
      */
     @GetMapping("/transactions/{transactionId}")
-    public FraudCheckResponse getFraudStatus(@PathVariable("transactionId") UUID transactionId) {
-        return fraudService.getFraudStatus(transactionId);
+    public ResponseEntity<FraudCheckResponse> getFraudStatus(@PathVariable("transactionId") UUID transactionId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.SECONDS).cachePrivate())
+                .body(fraudService.getFraudStatus(transactionId));
     }
 }
 
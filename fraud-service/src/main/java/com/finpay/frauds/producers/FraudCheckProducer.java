@@ -0,0 +1,38 @@
+package com.finpay.frauds.producers;
+
+import com.finpay.common.dto.frauds.FraudCheckEvent;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Kafka producer for fraud check results.
+ * <p>
+ * Publishes {@link FraudCheckEvent} messages to the "fraud-check" topic, keyed by transaction ID,
+ * where the notification service fans them out as fraud alerts.
+ */
+@Service
+public class FraudCheckProducer {
+
+    /** Topic consumed by the notification service's fraud alert listener */
+    public static final String TOPIC = "fraud-check";
+
+    private final KafkaTemplate<String, FraudCheckEvent> kafkaTemplate;
+
+    /**
+     * Constructs the FraudCheckProducer with the Kafka template.
+     *
+     * @param kafkaTemplate Kafka template with JSON value serialization
+     */
+    public FraudCheckProducer(KafkaTemplate<String, FraudCheckEvent> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    /**
+     * Publishes a fraud check result.
+     *
+     * @param event Fraud check result including the account owner
+     */
+    public void sendFraudCheck(FraudCheckEvent event) {
+        kafkaTemplate.send(TOPIC, event.getTransactionId().toString(), event);
+    }
+}
@@ -1,36 +1,41 @@
 package com.finpay.frauds.services;
 
 import com.finpay.common.dto.frauds.FraudCheckEvent;
+import com.finpay.common.dto.frauds.FraudCheckResponse;
 import com.finpay.common.dto.transactions.TransactionCreatedEvent;
+import com.finpay.frauds.producers.FraudCheckProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 /**
  * Kafka consumer for transaction events.
  * Listens to transaction-topic and performs fraud checks on new transactions.
+ * Fraudulent transactions are published to the fraud-check topic for alerting.
  */
 @Service
 public class FraudConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(FraudConsumer.class);
     private final FraudService fraudService;
+    private final FraudCheckProducer fraudCheckProducer;
 
     /**
      * Constructs the FraudConsumer with required dependencies.
      *
      * @param fraudService Service for performing fraud checks
+     * @param fraudCheckProducer Producer publishing fraudulent results to the notification service
      */
-    public FraudConsumer(FraudService fraudService) {
+    public FraudConsumer(FraudService fraudService, FraudCheckProducer fraudCheckProducer) {
         this.fraudService = fraudService;
+        this.fraudCheckProducer = fraudCheckProducer;
     }
 
     /**
      * Consumes transaction created events from Kafka.
-     * Performs fraud check on each transaction and stores the result.
+     * Performs fraud check on each transaction and stores the result; fraudulent
+     * results are published with the owner's email so the owner can be alerted.
      *
      * @param event TransactionCreatedEvent containing transaction details
      */
@@ -39,12 +44,12 @@ public class FraudConsumer {
         log.info("Received transaction from Kafka | id={} | amount={} | user={}",
                 event.getId(), event.getAmount(), event.getUserId());
 
-        // Perform preliminary fraud check based on amount threshold
-        boolean fraudulent = event.getAmount().compareTo(BigDecimal.valueOf(1000)) > 0;
-
-        FraudCheckEvent fraudEvent = new FraudCheckEvent(event.getId(), fraudulent);
         // Execute fraud detection logic and save result
-        fraudService.checkFraud(fraudEvent.getTransactionId(), event.getAmount());
+        FraudCheckResponse result = fraudService.checkFraud(event.getId(), event.getAmount());
+
+        if (result.isFraudulent()) {
+            fraudCheckProducer.sendFraudCheck(new FraudCheckEvent(event.getId(), true, event.getUserId()));
+        }
     }
 }
 
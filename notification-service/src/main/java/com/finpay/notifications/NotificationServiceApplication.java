@@ -2,6 +2,7 @@ package com.finpay.notifications;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the FinPay Notification Service.
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * (EMAIL, SMS, etc.) and consumes fraud detection events from Kafka.
  */
 @SpringBootApplication
+@EnableScheduling
 public class NotificationServiceApplication {
     /**
      * Main entry point for the Notification Service application.
@@ -0,0 +1,107 @@
+package com.finpay.notifications.configs;
+
+import brave.TracingCustomizer;
+import brave.handler.SpanHandler;
+import brave.sampler.Sampler;
+import com.finpay.common.tracing.EndpointSampler;
+import com.finpay.common.tracing.SamplingEndpointFilter;
+import com.finpay.common.tracing.TailSamplingSpanHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class for distributed tracing.
+ * Configures Brave sampling with per-endpoint traces-per-second budgets, by default decided
+ * at the tail, so failed and slow requests are exported whatever the caller sampled.
+ * Kafka records share the default budget.
+ */
+@Configuration
+public class TracingConfig {
+
+    /** Sampling mode recording every trace and exporting only interesting ones */
+    private static final String TAIL_MODE = "tail";
+
+    /**
+     * Creates the per-endpoint traces-per-second budgets.
+     *
+     * @param rules Endpoint rules, "METHOD /path/pattern=tracesPerSecond"
+     * @param defaultRate Traces per second of traces matching no rule
+     * @return EndpointSampler used for head decisions and as tail keep budget
+     */
+    @Bean
+    public EndpointSampler endpointSampler(
+            @Value("${finpay.tracing.sampling.endpoints:}") List<String> rules,
+            @Value("${finpay.tracing.sampling.default-rate:10}") int defaultRate) {
+        return new EndpointSampler(rules, defaultRate);
+    }
+
+    /**
+     * Creates the Brave sampler deciding which traces starting here are recorded,
+     * replacing Spring Boot's probability sampler.
+     * In head mode the endpoint budgets decide up front; in tail mode every trace is
+     * recorded and the tail sampling handler decides what is exported.
+     *
+     * @param endpointSampler Per-endpoint budgets
+     * @param mode Sampling mode, head or tail
+     * @return Sampler used by Brave
+     */
+    @Bean
+    @Primary
+    public Sampler braveSampler(EndpointSampler endpointSampler,
+                                @Value("${finpay.tracing.sampling.mode:tail}") String mode) {
+        return TAIL_MODE.equals(mode) ? Sampler.ALWAYS_SAMPLE : endpointSampler;
+    }
+
+    /**
+     * Registers the filter binding each request's sampling budget, ahead of the
+     * server observation filter that starts the request's span.
+     *
+     * @param endpointSampler Per-endpoint budgets
+     * @return Registration of the SamplingEndpointFilter
+     */
+    @Bean
+    public FilterRegistrationBean<SamplingEndpointFilter> samplingEndpointFilter(EndpointSampler endpointSampler) {
+        FilterRegistrationBean<SamplingEndpointFilter> registration =
+                new FilterRegistrationBean<>(new SamplingEndpointFilter(endpointSampler));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * In tail mode, puts the tail sampling handler in front of the exporting span handlers
+     * (Zipkin), so only kept traces are exported.
+     *
+     * @param endpointSampler Per-endpoint budgets for traces that are neither failed nor slow
+     * @param mode Sampling mode, head or tail
+     * @param slowThreshold Root span duration from which a trace is always exported
+     * @param maxPendingTraces Maximum number of traces buffered while waiting for their root span
+     * @param meterRegistry Registry for span export counters
+     * @return TracingCustomizer applied by Spring Boot when building Brave's Tracing
+     */
+    @Bean
+    public TracingCustomizer tailSamplingCustomizer(
+            EndpointSampler endpointSampler,
+            @Value("${finpay.tracing.sampling.mode:tail}") String mode,
+            @Value("${finpay.tracing.sampling.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${finpay.tracing.sampling.max-pending-traces:10000}") long maxPendingTraces,
+            MeterRegistry meterRegistry) {
+        return builder -> {
+            if (!TAIL_MODE.equals(mode)) {
+                return;
+            }
+            List<SpanHandler> exporters = new ArrayList<>(builder.spanHandlers());
+            builder.clearSpanHandlers();
+            builder.addSpanHandler(new TailSamplingSpanHandler(exporters, endpointSampler, slowThreshold,
+                    maxPendingTraces, meterRegistry));
+        };
+    }
+}
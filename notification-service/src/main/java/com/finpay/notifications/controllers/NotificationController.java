@@ -1,13 +1,22 @@
 package com.finpay.notifications.controllers;
 
 import com.finpay.notifications.models.Notification;
+import com.finpay.notifications.models.NotificationPage;
 import com.finpay.notifications.models.NotificationRequest;
 import com.finpay.notifications.services.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * REST controller for notification operations.
@@ -18,8 +27,55 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class NotificationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /** Authority allowed to read any user's notification history */
+    private static final String ADMIN_AUTHORITY = "SCOPE_ROLE_ADMIN";
+
     private final NotificationService service;
 
+    /**
+     * Returns a user's notification history, newest first, one page at a time.
+     * Follow nextCursor in the response to read older notifications.
+     * Callers read their own history (the email claim of their token); only admins
+     * may name another user.
+     *
+     * @param jwt Authenticated caller
+     * @param userId User identifier (email address); defaults to the caller's email
+     * @param cursor Cursor returned by the previous page; omit for the first page
+     * @param size Page size, between 1 and 100 (default 20)
+     * @return NotificationPage with notifications and the next cursor
+     * @throws ResponseStatusException with 403 status if the caller may not read the user's history
+     */
+    @GetMapping
+    public NotificationPage history(@AuthenticationPrincipal Jwt jwt,
+                                    @RequestParam(name = "userId", required = false) String userId,
+                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                    @RequestParam(name = "size", defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String email = jwt != null ? jwt.getClaimAsString("email") : null;
+        if (userId == null || userId.isBlank()) {
+            userId = email;
+        }
+        if (userId == null || (!userId.equals(email) && !isAdmin())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to read this user's notifications");
+        }
+        return service.getHistory(userId, cursor, size);
+    }
+
+    /**
+     * Checks whether the current caller has the admin scope.
+     *
+     * @return True if the caller may read any user's history
+     */
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+    }
+
     /**
      * Creates and sends a notification to a user.
      * Accepts notification details and attempts delivery via the specified channel.
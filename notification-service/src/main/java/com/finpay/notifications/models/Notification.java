@@ -5,12 +5,20 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
 
 /**
  * Entity class representing a notification sent to a user.
  * Stores notification details and delivery status.
+ * Indexed on (user_id, created_at) to serve per-user history pages.
  */
 @Entity
+@Table(name = "notification", indexes = {
+        @Index(name = "idx_notification_user_created", columnList = "user_id, created_at"),
+        @Index(name = "uk_notification_dedup_key", columnList = "dedup_key", unique = true)
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -27,6 +35,7 @@ public class Notification {
     /**
      * User identifier (typically email) to whom the notification is sent.
      */
+    @Column(name = "user_id")
     private String userId;
 
     /**
@@ -43,5 +52,27 @@ public class Notification {
      * Current status of the notification (PENDING, SENT, FAILED).
      */
     private String status;
+
+    /**
+     * Delivery priority (NORMAL, HIGH). Fraud alerts are sent with HIGH priority.
+     */
+    @Builder.Default
+    private String priority = "NORMAL";
+
+    /**
+     * Key of the event this notification was created for (one fraud alert per transaction
+     * and recipient), so a redelivered event does not notify twice.
+     * Null for notifications requested directly.
+     */
+    @Column(name = "dedup_key")
+    private String dedupKey;
+
+    /**
+     * Timestamp when the notification was created.
+     * Automatically set by Hibernate on entity creation.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
 }
 
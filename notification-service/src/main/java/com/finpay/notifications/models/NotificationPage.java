@@ -0,0 +1,22 @@
+package com.finpay.notifications.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a user's notification history.
+ * Pass nextCursor back as the cursor parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPage {
+    /** Notifications on this page, newest first */
+    private List<Notification> items;
+
+    /** Opaque cursor for the next page, null when this is the last page */
+    private String nextCursor;
+}
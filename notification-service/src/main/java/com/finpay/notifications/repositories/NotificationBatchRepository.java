@@ -0,0 +1,27 @@
+package com.finpay.notifications.repositories;
+
+import com.finpay.notifications.models.Notification;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for bulk notification writes.
+ * Implemented with JDBC batching because the IDENTITY id strategy on
+ * Notification prevents Hibernate from batching inserts.
+ */
+public interface NotificationBatchRepository {
+    /**
+     * Inserts all notifications in a single JDBC batch.
+     * Notifications whose dedup key is already stored are skipped.
+     *
+     * @param notifications Notifications to persist (ids are assigned by the database)
+     */
+    void insertAll(List<Notification> notifications);
+
+    /**
+     * Updates the status of stored notifications in a single JDBC batch.
+     *
+     * @param notifications Notifications with their id and new status
+     */
+    void updateStatuses(List<Notification> notifications);
+}
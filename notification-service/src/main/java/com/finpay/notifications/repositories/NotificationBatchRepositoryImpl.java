@@ -0,0 +1,64 @@
+package com.finpay.notifications.repositories;
+
+import com.finpay.notifications.models.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JDBC implementation of NotificationBatchRepository.
+ * Spring Data picks this up by the "Impl" suffix and merges it into NotificationRepository.
+ */
+@RequiredArgsConstructor
+public class NotificationBatchRepositoryImpl implements NotificationBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (user_id, message, channel, status, priority, created_at, dedup_key) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (dedup_key) DO NOTHING";
+
+    private static final String UPDATE_STATUS_SQL = "UPDATE notification SET status = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all notifications with one batched statement; rows conflicting on the
+     * dedup key are left as stored.
+     *
+     * @param notifications Notifications to persist
+     */
+    @Override
+    public void insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, notifications, notifications.size(), (ps, n) -> {
+            ps.setString(1, n.getUserId());
+            ps.setString(2, n.getMessage());
+            ps.setString(3, n.getChannel());
+            ps.setString(4, n.getStatus());
+            ps.setString(5, n.getPriority());
+            ps.setTimestamp(6, n.getCreatedAt() != null ? Timestamp.from(n.getCreatedAt()) : now);
+            ps.setString(7, n.getDedupKey());
+        });
+    }
+
+    /**
+     * Updates the statuses with one batched statement.
+     *
+     * @param notifications Notifications with their id and new status
+     */
+    @Override
+    public void updateStatuses(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, notifications, notifications.size(), (ps, n) -> {
+            ps.setString(1, n.getStatus());
+            ps.setLong(2, n.getId());
+        });
+    }
+}
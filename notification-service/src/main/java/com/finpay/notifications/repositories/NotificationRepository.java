@@ -1,13 +1,122 @@
 package com.finpay.notifications.repositories;
 
 import com.finpay.notifications.models.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Notification entity data access.
  * Provides CRUD operations for Notification entities.
- * Extends JpaRepository to inherit standard database operations.
+ * Extends JpaRepository to inherit standard database operations,
+ * and NotificationBatchRepository for multi-row inserts.
  */
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationBatchRepository {
+    /**
+     * Finds the most recent notification delivered to a user with the given status.
+     * Used to pick the channel a user was last reached on.
+     *
+     * @param userId User identifier (typically email address)
+     * @param status Delivery status to match (e.g., SENT)
+     * @return Optional containing the latest matching Notification, empty otherwise
+     */
+    Optional<Notification> findTopByUserIdAndStatusOrderByIdDesc(String userId, String status);
+
+    /**
+     * Finds the stored notifications with the given dedup keys and status.
+     * Used to deliver the alerts of a batch that are still pending, including those of an
+     * earlier attempt at the same batch.
+     *
+     * @param dedupKeys Dedup keys of the notifications
+     * @param status Delivery status to match (e.g., PENDING)
+     * @return Matching notifications
+     */
+    List<Notification> findByDedupKeyInAndStatus(Collection<String> dedupKeys, String status);
+
+    /**
+     * Returns the newest notifications of a user (first history page).
+     * Served by the (user_id, created_at) index.
+     *
+     * @param userId User identifier (typically email address)
+     * @param limit Maximum number of rows to return
+     * @return Notifications ordered newest first
+     */
+    List<Notification> findByUserIdOrderByCreatedAtDescIdDesc(String userId, Limit limit);
+
+    /**
+     * Returns the notifications of a user strictly older than the given keyset position.
+     * Keyset pagination keeps every page an index range scan, however deep the client pages.
+     *
+     * @param userId User identifier (typically email address)
+     * @param createdAt Creation time of the last row of the previous page
+     * @param id Id of the last row of the previous page (tie-breaker)
+     * @param limit Maximum number of rows to return
+     * @return Notifications ordered newest first
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageAfter(@Param("userId") String userId,
+                                     @Param("createdAt") Instant createdAt,
+                                     @Param("id") Long id,
+                                     Limit limit);
+
+    /**
+     * Deletes up to batchSize notifications created before the cutoff.
+     * Rows without a creation time are kept; the retention job backfills them first.
+     * Runs in its own short transaction so row locks are held only for one small batch.
+     *
+     * @param cutoff Notifications created before this instant are expired
+     * @param batchSize Maximum number of rows deleted by this call
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notification WHERE id IN (" +
+            "SELECT id FROM notification WHERE created_at < :cutoff ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+
+    /**
+     * Sets the creation time of up to batchSize rows that predate the created_at column.
+     * Such rows sort first in history pages and cannot be paged past, so they get the
+     * migration time, from which their retention period starts.
+     *
+     * @param createdAt Migration time used as their creation time
+     * @param batchSize Maximum number of rows updated by this call
+     * @return Number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE notification SET created_at = :createdAt WHERE id IN (" +
+            "SELECT id FROM notification WHERE created_at IS NULL ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int backfillCreatedAtBatch(@Param("createdAt") Instant createdAt, @Param("batchSize") int batchSize);
+
+    /**
+     * Returns the planner's row estimate for the notification table.
+     * Cheap alternative to COUNT(*) for metrics on a large table.
+     *
+     * @return Estimated number of rows
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'notification'",
+            nativeQuery = true)
+    Long estimateRowCount();
+
+    /**
+     * Returns the on-disk size of the notification table including indexes.
+     *
+     * @return Size in bytes
+     */
+    @Query(value = "SELECT pg_total_relation_size('notification')", nativeQuery = true)
+    Long totalRelationSize();
 }
 
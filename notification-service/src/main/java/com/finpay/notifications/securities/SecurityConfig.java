@@ -1,13 +1,26 @@
 package com.finpay.notifications.securities;
 
+import com.finpay.common.security.ApiKeyAuthFilter;
+import com.finpay.common.security.CachedJwkSource;
+import com.finpay.common.security.CachingJwtDecoder;
+import com.finpay.common.security.InternalAuthFilter;
+import com.nimbusds.jose.jwk.JWK;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Security configuration for the Notification Service.
  * Configures JWT-based authentication and authorization rules.
@@ -21,14 +34,34 @@ public class SecurityConfig {
      * Sets up:
      * - CSRF protection disabled (appropriate for stateless JWT APIs)
      * - Public access to Swagger documentation and actuator endpoints
-     * - JWT authentication for all other endpoints
+     * - JWT authentication for all other endpoints, skipping RSA verification
+     *   when the gateway's signed internal header is present and valid
+     * - API key authentication for machine clients sending X-API-Key
      *
      * @param http HttpSecurity object to configure
+     * @param internalAuthSecret Shared secret of the gateway's internal auth header
+     * @param apiKeySecret Shared HMAC secret of API keys; blank disables API keys
+     * @param apiKeyIntrospectionUri URL of the auth service's API key introspection endpoint
+     * @param apiKeyCacheTtl How long a resolved key is reused; bounds how long a revoked key keeps working
+     * @param apiKeyNegativeCacheTtl How long an unknown key is remembered as unknown
+     * @param apiKeyCacheSize Maximum number of keys cached
+     * @param meterRegistry Registry for API key verification metrics
      * @return Configured SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${finpay.security.internal-auth.secret:}") String internalAuthSecret,
+                                                   @Value("${finpay.security.api-keys.secret:}") String apiKeySecret,
+                                                   @Value("${finpay.security.api-keys.introspection-uri:http://localhost:8081/auth-services/api-keys/introspect}") String apiKeyIntrospectionUri,
+                                                   @Value("${finpay.security.api-keys.cache-ttl:5m}") Duration apiKeyCacheTtl,
+                                                   @Value("${finpay.security.api-keys.negative-cache-ttl:30s}") Duration apiKeyNegativeCacheTtl,
+                                                   @Value("${finpay.security.api-keys.cache-size:10000}") long apiKeyCacheSize,
+                                                   MeterRegistry meterRegistry)
+            throws Exception {
+        InternalAuthFilter internalAuthFilter = new InternalAuthFilter(internalAuthSecret);
+        ApiKeyAuthFilter apiKeyAuthFilter = new ApiKeyAuthFilter(apiKeySecret, apiKeyIntrospectionUri,
+                apiKeyCacheTtl, apiKeyNegativeCacheTtl, apiKeyCacheSize, meterRegistry);
         http
                 // Disable CSRF for stateless API
                 .csrf(AbstractHttpConfigurer::disable)
@@ -44,10 +77,57 @@ public class SecurityConfig {
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
+                // Accept claims already verified by the gateway
+                .addFilterBefore(internalAuthFilter, BearerTokenAuthenticationFilter.class)
+                // Authenticate machine clients by API key
+                .addFilterBefore(apiKeyAuthFilter, BearerTokenAuthenticationFilter.class)
                 // Enable OAuth2 resource server with JWT validation
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()));
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .bearerTokenResolver(internalAuthFilter.bearerTokenResolver())
+                        .jwt(Customizer.withDefaults()));
 
         return http.build();
     }
+
+    /**
+     * Creates the auth service's key set, fetched from its JWKS endpoint and
+     * refreshed in the background, so key rotations need no redeploy.
+     *
+     * @param jwksUri URL of the auth service's JWKS document
+     * @param fallbackPublicKeys Classpath public keys (RSA or P-256) used until the first fetch succeeds
+     * @param refreshInterval Interval of the background refresh
+     * @param minRefreshInterval Minimum time between refreshes triggered by unknown key ids
+     * @return CachedJwkSource used to verify bearer tokens
+     * @throws Exception if the fallback key cannot be loaded
+     */
+    @Bean(destroyMethod = "close")
+    public CachedJwkSource jwkSource(
+            @Value("${finpay.security.jwks.uri:http://localhost:8081/.well-known/jwks.json}") String jwksUri,
+            @Value("${finpay.security.jwks.fallback-public-keys:keys/public.pem}") List<String> fallbackPublicKeys,
+            @Value("${finpay.security.jwks.refresh-interval:5m}") Duration refreshInterval,
+            @Value("${finpay.security.jwks.min-refresh-interval:30s}") Duration minRefreshInterval) throws Exception {
+        List<JWK> bootstrapKeys = new ArrayList<>();
+        for (String location : fallbackPublicKeys) {
+            bootstrapKeys.add(CachedJwkSource.bootstrapKey(location));
+        }
+        return new CachedJwkSource(jwksUri, bootstrapKeys, refreshInterval, minRefreshInterval);
+    }
+
+    /**
+     * Creates the JWT decoder verifying bearer tokens against the cached key set,
+     * looking keys up by the token's key id. Verified tokens are cached until they
+     * expire, so a reused token is checked once rather than on every request.
+     *
+     * @param jwkSource Cached key set of the auth service
+     * @param cacheSize Maximum number of verified tokens cached
+     * @param meterRegistry Registry for the cache hit ratio
+     * @return Configured JwtDecoder
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(CachedJwkSource jwkSource,
+                                 @Value("${finpay.security.jwt.cache-size:50000}") long cacheSize,
+                                 MeterRegistry meterRegistry) {
+        return new CachingJwtDecoder(jwkSource.jwtDecoder(), jwkSource::keyGeneration, cacheSize, meterRegistry);
+    }
 }
 
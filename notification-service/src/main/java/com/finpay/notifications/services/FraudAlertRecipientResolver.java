@@ -0,0 +1,87 @@
+package com.finpay.notifications.services;
+
+import com.finpay.notifications.models.Notification;
+import com.finpay.notifications.repositories.NotificationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves who should receive a fraud alert for a transaction.
+ * Recipients are the account owner plus the configured ops distribution list.
+ * The owner's channel is the one they were last successfully reached on; that lookup
+ * is cached so a burst of alerts for the same owner hits the database once.
+ */
+@Service
+public class FraudAlertRecipientResolver {
+
+    private static final String DEFAULT_CHANNEL = "EMAIL";
+
+    private final NotificationRepository repository;
+    private final List<String> opsRecipients;
+    private final Cache<String, String> ownerChannels;
+
+    /**
+     * Constructs the resolver with its recipient sources.
+     *
+     * @param repository Repository used to look up an owner's last delivered channel
+     * @param opsRecipients Ops distribution list that receives every fraud alert
+     * @param cacheSize Maximum number of owners kept in the channel cache
+     * @param cacheTtl How long a resolved owner channel stays cached
+     */
+    public FraudAlertRecipientResolver(
+            NotificationRepository repository,
+            @Value("${finpay.notifications.fraud-alerts.ops-recipients:}") List<String> opsRecipients,
+            @Value("${finpay.notifications.fraud-alerts.recipient-cache-size:10000}") long cacheSize,
+            @Value("${finpay.notifications.fraud-alerts.recipient-cache-ttl:10m}") Duration cacheTtl) {
+        this.repository = repository;
+        this.opsRecipients = List.copyOf(opsRecipients);
+        this.ownerChannels = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Resolves the recipients of a fraud alert.
+     *
+     * @param ownerId Account owner identifier (email), may be null if unknown
+     * @return Owner recipient (if known) followed by the ops distribution list
+     */
+    public List<Recipient> resolve(String ownerId) {
+        List<Recipient> recipients = new ArrayList<>(opsRecipients.size() + 1);
+        if (ownerId != null && !ownerId.isBlank()) {
+            recipients.add(new Recipient(ownerId, ownerChannels.get(ownerId, this::lookupChannel)));
+        }
+        for (String ops : opsRecipients) {
+            recipients.add(new Recipient(ops, DEFAULT_CHANNEL));
+        }
+        return recipients;
+    }
+
+    /**
+     * Loads the channel an owner was last successfully notified on.
+     *
+     * @param ownerId Account owner identifier
+     * @return Channel name, EMAIL if the owner has never been notified
+     */
+    private String lookupChannel(String ownerId) {
+        return repository.findTopByUserIdAndStatusOrderByIdDesc(ownerId, "SENT")
+                .map(Notification::getChannel)
+                .orElse(DEFAULT_CHANNEL);
+    }
+
+    /**
+     * A single fraud alert recipient.
+     *
+     * @param address Recipient address (email for EMAIL channel)
+     * @param channel Delivery channel (EMAIL, SMS, PUSH)
+     */
+    public record Recipient(String address, String channel) {
+    }
+}
@@ -1,28 +1,134 @@
 package com.finpay.notifications.services;
 
 import com.finpay.common.dto.frauds.FraudCheckEvent;
+import com.finpay.notifications.models.Notification;
+import com.finpay.notifications.repositories.NotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Kafka consumer for fraud detection events.
- * Listens to fraud-check topic and sends alerts when fraudulent transactions are detected.
+ * Listens to fraud-check topic in batches and fans out HIGH priority alerts
+ * to the account owner and the ops distribution list for every fraudulent transaction.
  */
 @Service
 public class FraudNotificationConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(FraudNotificationConsumer.class);
+
+    private final NotificationService notificationService;
+    private final FraudAlertRecipientResolver recipientResolver;
+    private final NotificationRepository repository;
+    private final Timer sentLatency;
+    private final Timer failedLatency;
+
     /**
-     * Consumes fraud check events from Kafka.
-     * When a fraudulent transaction is detected, sends an alert notification.
+     * Constructs the FraudNotificationConsumer with required dependencies.
      *
-     * @param event FraudCheckEvent containing transaction ID and fraud status
+     * @param notificationService Channel pipeline used to deliver alerts
+     * @param recipientResolver Resolver for owner and ops recipients
+     * @param repository Repository used to batch-insert alerts and record their delivery
+     * @param meterRegistry Registry for the end-to-end alert latency timer
      */
-    @KafkaListener(topics = "fraud-check", groupId = "notification-service-group")
-    public void consume(FraudCheckEvent event) {
-        if (event.isFraudulent()) {
-            // Send fraud alert notification to relevant parties
-            System.out.println("🚨 Send fraud alert for tx: " + event.getTransactionId());
+    public FraudNotificationConsumer(NotificationService notificationService,
+                                     FraudAlertRecipientResolver recipientResolver,
+                                     NotificationRepository repository,
+                                     MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.recipientResolver = recipientResolver;
+        this.repository = repository;
+        this.sentLatency = alertLatencyTimer(meterRegistry, "SENT");
+        this.failedLatency = alertLatencyTimer(meterRegistry, "FAILED");
+    }
+
+    /**
+     * Consumes a batch of fraud check events from Kafka.
+     * Every fraudulent event produces one HIGH priority notification per recipient, keyed
+     * by transaction and recipient. The batch is persisted first as PENDING, with a single
+     * batch insert skipping alerts already stored; the alerts still pending are then
+     * delivered through the normal channel pipeline and their statuses written back.
+     * A redelivered batch thus only sends the alerts that were not delivered yet.
+     *
+     * @param records Batch of fraud check events with their Kafka timestamps
+     */
+    @KafkaListener(topics = "fraud-check", groupId = "notification-service-group", batch = "true")
+    public void consume(List<ConsumerRecord<String, FraudCheckEvent>> records) {
+        List<Notification> alerts = new ArrayList<>();
+        Map<String, Long> producedAt = new HashMap<>();
+
+        for (ConsumerRecord<String, FraudCheckEvent> record : records) {
+            FraudCheckEvent event = record.value();
+            if (event == null || !event.isFraudulent()) {
+                continue;
+            }
+
+            for (FraudAlertRecipientResolver.Recipient recipient : recipientResolver.resolve(event.getUserId())) {
+                Notification alert = Notification.builder()
+                        .userId(recipient.address())
+                        .message("Fraud alert: transaction " + event.getTransactionId()
+                                + " was flagged as fraudulent and has been held for review.")
+                        .channel(recipient.channel())
+                        .status("PENDING")
+                        .priority("HIGH")
+                        .dedupKey(dedupKey(event, recipient))
+                        .build();
+                if (producedAt.putIfAbsent(alert.getDedupKey(), record.timestamp()) == null) {
+                    alerts.add(alert);
+                }
+            }
+        }
+
+        if (alerts.isEmpty()) {
+            return;
+        }
+        repository.insertAll(alerts);
+
+        List<Notification> pending = repository.findByDedupKeyInAndStatus(producedAt.keySet(), "PENDING");
+        for (Notification alert : pending) {
+            notificationService.deliver(alert);
+
+            // End-to-end latency: event produced -> alert handed to the channel
+            Timer latency = "SENT".equals(alert.getStatus()) ? sentLatency : failedLatency;
+            latency.record(System.currentTimeMillis() - producedAt.get(alert.getDedupKey()), TimeUnit.MILLISECONDS);
         }
+        repository.updateStatuses(pending);
+        log.info("Sent {} fraud alert notifications for batch of {} events", pending.size(), records.size());
     }
-}
 
+    /**
+     * Builds the dedup key of a fraud alert: one alert per transaction and recipient.
+     *
+     * @param event Fraud check event
+     * @param recipient Alert recipient
+     * @return Dedup key stored with the notification
+     */
+    private static String dedupKey(FraudCheckEvent event, FraudAlertRecipientResolver.Recipient recipient) {
+        return "fraud:" + event.getTransactionId() + ":" + recipient.channel() + ":" + recipient.address();
+    }
+
+    /**
+     * Creates the fraud alert latency timer for a delivery status.
+     *
+     * @param registry Meter registry
+     * @param status Delivery status tag (SENT or FAILED)
+     * @return Timer with percentile histogram enabled
+     */
+    private static Timer alertLatencyTimer(MeterRegistry registry, String status) {
+        return Timer.builder("finpay.notifications.fraud.alert.latency")
+                .description("Time from fraud event timestamp to alert delivery")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
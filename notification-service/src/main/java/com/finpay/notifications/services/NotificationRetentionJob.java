@@ -0,0 +1,158 @@
+package com.finpay.notifications.services;
+
+import com.finpay.notifications.repositories.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that purges expired notifications.
+ * Deletes in small batches, each in its own transaction, so the job never holds
+ * locks on many rows at once and never blocks inserts from the REST or Kafka paths.
+ * Publishes purge counts and table size as metrics.
+ */
+@Service
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    private final NotificationRepository repository;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pauseBetweenBatches;
+    private final Counter purged;
+    private final Timer runTimer;
+    private final AtomicLong tableRows = new AtomicLong();
+    private final AtomicLong tableBytes = new AtomicLong();
+
+    /**
+     * Constructs the retention job.
+     *
+     * @param repository Repository used for batch deletes and table statistics
+     * @param meterRegistry Registry for purge and table size metrics
+     * @param retention How long notifications are kept
+     * @param batchSize Rows deleted per transaction
+     * @param maxBatchesPerRun Upper bound on batches per run, so one run cannot hog the database
+     * @param pauseBetweenBatches Pause between batches to leave room for regular traffic
+     */
+    public NotificationRetentionJob(
+            NotificationRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${finpay.notifications.retention.ttl:90d}") Duration retention,
+            @Value("${finpay.notifications.retention.batch-size:500}") int batchSize,
+            @Value("${finpay.notifications.retention.max-batches-per-run:200}") int maxBatchesPerRun,
+            @Value("${finpay.notifications.retention.pause-between-batches:50ms}") Duration pauseBetweenBatches) {
+        this.repository = repository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseBetweenBatches = pauseBetweenBatches;
+        this.purged = Counter.builder("finpay.notifications.retention.purged")
+                .description("Notifications deleted by the retention job")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("finpay.notifications.retention.run")
+                .description("Duration of a retention job run")
+                .register(meterRegistry);
+        Gauge.builder("finpay.notifications.table.rows", tableRows, AtomicLong::get)
+                .description("Estimated number of rows in the notification table")
+                .register(meterRegistry);
+        Gauge.builder("finpay.notifications.table.size", tableBytes, AtomicLong::get)
+                .description("Size of the notification table including indexes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gives rows that predate the created_at column the migration time as creation time,
+     * batch by batch until none is left, so history cursors can page past them.
+     * Their real age is unknown, so their retention period starts at the migration.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCreatedAt() {
+        Instant migratedAt = Instant.now();
+        long total = 0;
+        try {
+            while (true) {
+                int updated = repository.backfillCreatedAtBatch(migratedAt, batchSize);
+                total += updated;
+                if (updated < batchSize || !pause()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to backfill created_at of legacy notifications", e);
+        }
+        if (total > 0) {
+            log.info("Backfilled created_at of {} legacy notifications with {}", total, migratedAt);
+        }
+    }
+
+    /**
+     * Deletes notifications older than the retention period, batch by batch,
+     * then refreshes the table size gauges.
+     */
+    @Scheduled(fixedDelayString = "${finpay.notifications.retention.interval:1h}",
+            initialDelayString = "${finpay.notifications.retention.initial-delay:5m}")
+    public void purgeExpired() {
+        runTimer.record(() -> {
+            Instant cutoff = Instant.now().minus(retention);
+            long total = 0;
+
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int deleted = repository.deleteExpiredBatch(cutoff, batchSize);
+                total += deleted;
+                purged.increment(deleted);
+                if (deleted < batchSize || !pause()) {
+                    break;
+                }
+            }
+
+            refreshTableStats();
+            if (total > 0) {
+                log.info("Purged {} notifications created before {}", total, cutoff);
+            }
+        });
+    }
+
+    /**
+     * Refreshes the table row estimate and on-disk size gauges.
+     */
+    private void refreshTableStats() {
+        try {
+            Long rows = repository.estimateRowCount();
+            Long bytes = repository.totalRelationSize();
+            tableRows.set(rows != null ? Math.max(rows, 0) : 0);
+            tableBytes.set(bytes != null ? bytes : 0);
+        } catch (Exception e) {
+            log.warn("Failed to refresh notification table statistics", e);
+        }
+    }
+
+    /**
+     * Sleeps between batches.
+     *
+     * @return false if the thread was interrupted and the run should stop
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
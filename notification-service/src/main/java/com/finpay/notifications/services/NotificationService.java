@@ -1,14 +1,23 @@
 package com.finpay.notifications.services;
 
 import com.finpay.notifications.models.Notification;
+import com.finpay.notifications.models.NotificationPage;
 import com.finpay.notifications.models.NotificationRequest;
 import com.finpay.notifications.repositories.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 
 /**
  * Service class handling notification sending logic.
@@ -39,18 +48,35 @@ public class NotificationService {
                 .status("PENDING")
                 .build();
 
+        deliver(notification);
+
+        return repository.save(notification);
+    }
+
+    /**
+     * Delivers a notification through its channel and records the outcome.
+     * This is the single channel pipeline shared by REST requests and Kafka-driven alerts.
+     * HIGH priority notifications are flagged as urgent in the message subject.
+     * The notification is not persisted here; callers decide how to store it.
+     *
+     * @param notification Notification to deliver; its status is set to SENT or FAILED
+     */
+    public void deliver(Notification notification) {
         try {
             // Send via EMAIL channel using JavaMailSender
-            if ("EMAIL".equalsIgnoreCase(request.getChannel())) {
+            if ("EMAIL".equalsIgnoreCase(notification.getChannel())) {
                 SimpleMailMessage mail = new SimpleMailMessage();
                 mail.setFrom("noreply@finpay.com");
-                mail.setTo(request.getUserId()); // userId is assumed to be email address
-                mail.setSubject("FinPay Notification");
-                mail.setText(request.getMessage());
+                mail.setTo(notification.getUserId()); // userId is assumed to be email address
+                mail.setSubject("HIGH".equals(notification.getPriority())
+                        ? "[URGENT] FinPay Notification"
+                        : "FinPay Notification");
+                mail.setText(notification.getMessage());
                 mailSender.send(mail);
             } else {
                 // For other channels (SMS, PUSH), simulate the notification
-                log.info("Simulating {} notification for {}: {}", request.getChannel(), request.getUserId(), request.getMessage());
+                log.info("Simulating {} {} notification for {}: {}", notification.getPriority(),
+                        notification.getChannel(), notification.getUserId(), notification.getMessage());
             }
 
             notification.setStatus("SENT");
@@ -58,8 +84,69 @@ public class NotificationService {
             log.error("Failed to send notification", e);
             notification.setStatus("FAILED");
         }
+    }
 
-        return repository.save(notification);
+    /**
+     * Returns one page of a user's notification history, newest first.
+     * Uses keyset pagination on (createdAt, id): the cursor encodes the last row
+     * of the previous page, so every page costs the same regardless of depth.
+     *
+     * @param userId User identifier (typically email address)
+     * @param cursor Opaque cursor from a previous page, or null for the first page
+     * @param size Maximum number of notifications on the page
+     * @return NotificationPage with the items and the cursor of the next page
+     * @throws ResponseStatusException with 400 status if the cursor is malformed
+     */
+    public NotificationPage getHistory(String userId, String cursor, int size) {
+        // Fetch one extra row to know whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = repository.findPageAfter(userId, Instant.parse(position[0]), Long.parseLong(position[1]), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new NotificationPage(rows, null);
+        }
+        List<Notification> items = rows.subList(0, size);
+        Notification last = items.get(size - 1);
+        return new NotificationPage(items, encodeCursor(last));
+    }
+
+    /**
+     * Encodes the keyset position of a notification as an opaque URL-safe cursor.
+     * Rows created before created_at existed are backfilled with the migration time by the
+     * retention job. Until then they sort first, and their cursor uses the current time, so
+     * the next page continues with the rows that have a creation time.
+     *
+     * @param notification Last notification of a page
+     * @return Cursor string
+     */
+    private String encodeCursor(Notification notification) {
+        Instant createdAt = notification.getCreatedAt() != null ? notification.getCreatedAt() : Instant.now();
+        String position = createdAt + "|" + notification.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
     }
-}
 
+    /**
+     * Decodes a cursor back into its createdAt and id parts.
+     *
+     * @param cursor Cursor produced by encodeCursor
+     * @return Two-element array: ISO-8601 createdAt and id
+     * @throws ResponseStatusException with 400 status if the cursor is malformed
+     */
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            Instant.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
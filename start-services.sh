@@ -11,6 +11,12 @@ LOG_DIR="$PROJECT_DIR/logs"
 # Create logs directory if it doesn't exist
 mkdir -p "$LOG_DIR"
 
+# The gateway/service HMAC secret has no default; generate one per run for local development
+export FINPAY_INTERNAL_AUTH_SECRET="${FINPAY_INTERNAL_AUTH_SECRET:-$(openssl rand -hex 32)}"
+# Neither has the API key secret. Keys are stored as hashes under it, so keys issued with a
+# generated secret stop working on the next run; export a fixed secret to keep them
+export FINPAY_API_KEY_SECRET="${FINPAY_API_KEY_SECRET:-$(openssl rand -hex 32)}"
+
 # Colors for output
 GREEN='\033[0;32m'
 YELLOW='\033[1;33m'
@@ -1,5 +1,7 @@
 package com.finpay.transactions.configs;
 
+import com.finpay.common.security.ApiKeyAuthFilter;
+import com.finpay.common.security.InternalAuthFilter;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +22,9 @@ public class FeignConfig {
      * Extracts the JWT token from the current security context and adds it
      * to the Authorization header of outgoing Feign requests.
      * This ensures that inter-service calls maintain the user's authentication context.
+     * The gateway's signed internal header is forwarded too when the request came with one,
+     * so downstream services can skip verifying the token signature again.
+     * Requests authenticated by API key forward the key instead of a bearer token.
      *
      * @return RequestInterceptor that adds Authorization header to Feign requests
      */
@@ -29,8 +34,17 @@ public class FeignConfig {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+                if (ApiKeyAuthFilter.isApiKey(jwt)) {
+                    // The token value is the caller's API key, not a JWT
+                    template.header(ApiKeyAuthFilter.HEADER, jwt.getTokenValue());
+                    return;
+                }
                 // Forward the Authorization header with the Bearer token to downstream services
                 template.header("Authorization", "Bearer " + jwt.getTokenValue());
+                // Set by InternalAuthFilter when the gateway already verified the token
+                if (authentication.getDetails() instanceof String internalAuth) {
+                    template.header(InternalAuthFilter.HEADER, internalAuth);
+                }
             }
         };
     }
@@ -0,0 +1,47 @@
+package com.finpay.transactions.configs;
+
+import com.finpay.transactions.metrics.TransferBreakdownEndpoint;
+import com.finpay.transactions.metrics.TransferMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for the per-stage transfer timers.
+ * Splits transfer latency into account lookup, event publish, debit, credit,
+ * notification and save.
+ */
+@Configuration
+public class TransferMetricsConfig {
+
+    /**
+     * Creates the stage timers.
+     *
+     * @param meterRegistry Registry the timers are registered with
+     * @param window Rolling window of the percentiles and the breakdown endpoint
+     * @param slos Latency buckets published for SLO tracking
+     * @return TransferMetrics shared by TransactionService and the endpoint
+     */
+    @Bean
+    public TransferMetrics transferMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${finpay.transactions.metrics.window:2m}") Duration window,
+            @Value("${finpay.transactions.metrics.slos:25ms,50ms,100ms,250ms,500ms,1s}") List<Duration> slos) {
+        return new TransferMetrics(meterRegistry, window, slos);
+    }
+
+    /**
+     * Creates the actuator endpoint summarizing stage time over the rolling window.
+     *
+     * @param transferMetrics Stage timers
+     * @return TransferBreakdownEndpoint exposed as /actuator/transfer-breakdown
+     */
+    @Bean
+    public TransferBreakdownEndpoint transferBreakdownEndpoint(TransferMetrics transferMetrics) {
+        return new TransferBreakdownEndpoint(transferMetrics);
+    }
+}
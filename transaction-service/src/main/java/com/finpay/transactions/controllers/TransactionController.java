@@ -6,11 +6,13 @@ import com.finpay.transactions.services.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for managing transaction operations.
@@ -77,7 +79,9 @@ public class TransactionController {
      * </ul>
      * <p>
      * Returns HTTP 202 (Accepted) to indicate async processing, though the transaction
-     * is typically completed synchronously.
+     * is typically completed synchronously. Only COMPLETED results may be replayed by the
+     * gateway; any other result is marked with {@code Idempotency-Retryable: true} so a
+     * retry reaches this service and sees the retried or progressed transaction.
      *
      * @param key unique idempotency key to prevent duplicate transactions (required header)
      * @param request the transfer request containing fromAccountId, toAccountId, and amount
@@ -95,6 +99,9 @@ public class TransactionController {
             @RequestBody TransferRequest request
     ) {
         TransactionResponse tx = service.transfer(key, request);
+        if (!"COMPLETED".equals(tx.getStatus())) {
+            return ResponseEntity.accepted().header("Idempotency-Retryable", "true").body(tx);
+        }
         return ResponseEntity.accepted().body(tx);
     }
 
@@ -103,13 +110,17 @@ public class TransactionController {
      * <p>
      * This endpoint allows clients to check the current status of a transaction,
      * which is useful for polling after an async transfer request.
+     * The response may be cached for one second per user, so the gateway can
+     * absorb tight polling loops.
      *
      * @param id the unique identifier of the transaction
      * @return TransactionResponse containing the transaction details and status
      */
     @GetMapping("/{id}")
-    public TransactionResponse status(@PathVariable UUID id) {
-        return service.getStatus(id);
+    public ResponseEntity<TransactionResponse> status(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.SECONDS).cachePrivate())
+                .body(service.getStatus(id));
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.finpay.transactions.metrics;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint summarizing where transfer time goes over the rolling window
+ * ({@code /actuator/transfer-breakdown}, mapped from the id transferbreakdown).
+ * For each stage: count, failures, total and mean time, share of all stage time,
+ * and the windowed percentiles of successful runs. Times are in milliseconds.
+ */
+@Endpoint(id = "transferbreakdown")
+public class TransferBreakdownEndpoint {
+
+    private final TransferMetrics metrics;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param metrics Stage timers
+     */
+    public TransferBreakdownEndpoint(TransferMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Breakdown of every stage.
+     *
+     * @return Window length and per-stage summaries, in stage order
+     */
+    @ReadOperation
+    public Map<String, Object> breakdown() {
+        TransferStage[] stages = TransferStage.values();
+        TransferMetrics.WindowTotals[] totals = new TransferMetrics.WindowTotals[stages.length];
+        long allNanos = 0;
+        for (TransferStage stage : stages) {
+            totals[stage.ordinal()] = metrics.totals(stage);
+            allNanos += totals[stage.ordinal()].nanos();
+        }
+
+        Map<String, Object> byStage = new LinkedHashMap<>();
+        for (TransferStage stage : stages) {
+            TransferMetrics.WindowTotals stageTotals = totals[stage.ordinal()];
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", stageTotals.count());
+            summary.put("failures", stageTotals.failures());
+            summary.put("totalMs", toMillis(stageTotals.nanos()));
+            summary.put("meanMs", stageTotals.count() > 0 ? toMillis(stageTotals.nanos()) / stageTotals.count() : 0.0);
+            summary.put("share", allNanos > 0 ? (double) stageTotals.nanos() / allNanos : 0.0);
+            HistogramSnapshot snapshot = metrics.timer(stage, true).takeSnapshot();
+            summary.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                summary.put("p" + formatPercentile(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            byStage.put(stage.tag(), summary);
+        }
+
+        Map<String, Object> breakdown = new LinkedHashMap<>();
+        breakdown.put("window", metrics.window().toString());
+        breakdown.put("totalMs", toMillis(allNanos));
+        breakdown.put("stages", byStage);
+        return breakdown;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return Double.toString(percentile * 100).replaceAll("\\.0$", "").replace(".", "_");
+    }
+}
@@ -0,0 +1,197 @@
+package com.finpay.transactions.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage, per-outcome timers of the transfer flow ({@code finpay.transfer.stage}).
+ * <p>
+ * Timers are created up front and looked up by array index, so recording allocates nothing
+ * beyond the caller's lambda. They publish percentiles over a rolling window, Prometheus
+ * histogram buckets (which carry the Brave trace id as exemplar) and SLO buckets. Time and
+ * count per stage are also kept in a small ring of time slices, so the breakdown endpoint
+ * can tell where time went over the same window.
+ */
+public class TransferMetrics {
+
+    private static final String SUCCESS = "success";
+    private static final String FAILURE = "failure";
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final int SLICES = 12;
+
+    private final Timer[] timers;
+    private final Duration window;
+    private final long sliceNanos;
+    private final AtomicLongArray sliceEpochs;
+    private final AtomicLongArray sliceCounts;
+    private final AtomicLongArray sliceFailures;
+    private final AtomicLongArray sliceNanosTotal;
+
+    /**
+     * Creates the stage timers.
+     *
+     * @param meterRegistry Registry the timers are registered with
+     * @param window Rolling window of the percentiles and of the breakdown
+     * @param slos Latency buckets to publish for SLO tracking
+     */
+    public TransferMetrics(MeterRegistry meterRegistry, Duration window, List<Duration> slos) {
+        TransferStage[] stages = TransferStage.values();
+        this.timers = new Timer[stages.length * 2];
+        Duration[] sloBuckets = slos.toArray(Duration[]::new);
+        for (TransferStage stage : stages) {
+            timers[index(stage, true)] = timer(meterRegistry, stage, SUCCESS, window, sloBuckets);
+            timers[index(stage, false)] = timer(meterRegistry, stage, FAILURE, window, sloBuckets);
+        }
+        this.window = window;
+        this.sliceNanos = Math.max(1, window.toNanos() / SLICES);
+        this.sliceEpochs = new AtomicLongArray(stages.length * SLICES);
+        this.sliceCounts = new AtomicLongArray(stages.length * SLICES);
+        this.sliceFailures = new AtomicLongArray(stages.length * SLICES);
+        this.sliceNanosTotal = new AtomicLongArray(stages.length * SLICES);
+        for (int i = 0; i < sliceEpochs.length(); i++) {
+            sliceEpochs.set(i, -1);
+        }
+    }
+
+    /**
+     * Times a stage returning a value. A thrown exception is recorded as failure and rethrown.
+     *
+     * @param stage Stage being run
+     * @param body Work of the stage
+     * @param <T> Result type
+     * @return Result of the stage
+     */
+    public <T> T time(TransferStage stage, Supplier<T> body) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = body.get();
+            success = true;
+            return result;
+        } finally {
+            record(stage, start, success);
+        }
+    }
+
+    /**
+     * Times a stage without result. A thrown exception is recorded as failure and rethrown.
+     *
+     * @param stage Stage being run
+     * @param body Work of the stage
+     */
+    public void run(TransferStage stage, Runnable body) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            body.run();
+            success = true;
+        } finally {
+            record(stage, start, success);
+        }
+    }
+
+    /**
+     * Records a stage that started at the given time and ends now.
+     *
+     * @param stage Stage that ran
+     * @param startNanos System.nanoTime() when the stage started
+     * @param success Whether the stage completed normally
+     */
+    public void record(TransferStage stage, long startNanos, boolean success) {
+        long now = System.nanoTime();
+        long elapsed = now - startNanos;
+        timers[index(stage, success)].record(elapsed, TimeUnit.NANOSECONDS);
+
+        long epoch = Math.floorDiv(now, sliceNanos);
+        int slot = stage.ordinal() * SLICES + Math.floorMod(epoch, SLICES);
+        long seen = sliceEpochs.get(slot);
+        if (seen != epoch && sliceEpochs.compareAndSet(slot, seen, epoch)) {
+            // First recording of a new slice: drop what the slot held a window ago
+            sliceCounts.set(slot, 0);
+            sliceFailures.set(slot, 0);
+            sliceNanosTotal.set(slot, 0);
+        }
+        sliceCounts.incrementAndGet(slot);
+        sliceNanosTotal.addAndGet(slot, elapsed);
+        if (!success) {
+            sliceFailures.incrementAndGet(slot);
+        }
+    }
+
+    /**
+     * Rolling window of the percentiles and the breakdown.
+     *
+     * @return Window length
+     */
+    Duration window() {
+        return window;
+    }
+
+    /**
+     * Timer of a stage and outcome.
+     *
+     * @param stage Stage
+     * @param success Outcome
+     * @return Timer whose snapshot holds the windowed percentiles
+     */
+    Timer timer(TransferStage stage, boolean success) {
+        return timers[index(stage, success)];
+    }
+
+    /**
+     * Totals of a stage over the rolling window. Approximate: a recording racing a
+     * slice reset can be lost.
+     *
+     * @param stage Stage
+     * @return Count, failures and time of the stage in the window
+     */
+    WindowTotals totals(TransferStage stage) {
+        long epoch = Math.floorDiv(System.nanoTime(), sliceNanos);
+        long count = 0;
+        long failures = 0;
+        long nanos = 0;
+        for (int i = 0; i < SLICES; i++) {
+            int slot = stage.ordinal() * SLICES + i;
+            if (epoch - sliceEpochs.get(slot) < SLICES) {
+                count += sliceCounts.get(slot);
+                failures += sliceFailures.get(slot);
+                nanos += sliceNanosTotal.get(slot);
+            }
+        }
+        return new WindowTotals(count, failures, nanos);
+    }
+
+    private static int index(TransferStage stage, boolean success) {
+        return stage.ordinal() * 2 + (success ? 0 : 1);
+    }
+
+    private static Timer timer(MeterRegistry registry, TransferStage stage, String outcome,
+                               Duration window, Duration[] slos) {
+        return Timer.builder("finpay.transfer.stage")
+                .description("Time spent in one stage of a transfer")
+                .tags("stage", stage.tag(), "outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slos)
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .distributionStatisticExpiry(window)
+                .register(registry);
+    }
+
+    /**
+     * Totals of one stage over the rolling window.
+     *
+     * @param count Recordings
+     * @param failures Recordings that ended in an exception
+     * @param nanos Time spent in the stage
+     */
+    record WindowTotals(long count, long failures, long nanos) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.finpay.transactions.metrics;
+
+/**
+ * Stages of a transfer timed by {@link TransferMetrics}, in the order they run.
+ */
+public enum TransferStage {
+    /** Loading the source account from the Account Service */
+    ACCOUNT_LOOKUP("account_lookup"),
+    /** Handing the TransactionCreatedEvent to the Kafka producer */
+    EVENT_PUBLISH("event_publish"),
+    /** Debiting the source account */
+    DEBIT("debit"),
+    /** Crediting the destination account */
+    CREDIT("credit"),
+    /** Sending the success or failure notification */
+    NOTIFICATION("notification"),
+    /** Persisting the final transaction state */
+    SAVE("save");
+
+    private final String tag;
+
+    TransferStage(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Value of the stage tag on the stage timers.
+     *
+     * @return Stage name in snake case
+     */
+    public String tag() {
+        return tag;
+    }
+}
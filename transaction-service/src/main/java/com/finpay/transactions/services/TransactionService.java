@@ -12,6 +12,8 @@ import com.finpay.common.dto.transactions.TransferRequest;
 import com.finpay.transactions.clients.AccountClient;
 import com.finpay.transactions.clients.FraudClient;
 import com.finpay.transactions.clients.NotificationClient;
+import com.finpay.transactions.metrics.TransferMetrics;
+import com.finpay.transactions.metrics.TransferStage;
 import com.finpay.transactions.models.Transaction;
 import com.finpay.transactions.producers.TransactionProducer;
 import com.finpay.transactions.repositories.TransactionRepository;
@@ -57,6 +59,7 @@ public class TransactionService {
     private final NotificationClient notificationClient;
     private final FraudClient fraudClient;
     private final TransactionProducer transactionProducer;
+    private final TransferMetrics transferMetrics;
 
     /**
      * Constructs a new TransactionService with required dependencies.
@@ -68,19 +71,22 @@ public class TransactionService {
      * @param notificationClient Feign client for sending notifications to users
      * @param fraudClient Feign client for fraud detection checks
      * @param transactionProducer Kafka producer for publishing transaction events
+     * @param transferMetrics Timers of the individual transfer stages
      */
     public TransactionService(
             TransactionRepository repository,
             AccountClient accountClient,
             NotificationClient notificationClient,
             FraudClient fraudClient,
-            TransactionProducer transactionProducer
+            TransactionProducer transactionProducer,
+            TransferMetrics transferMetrics
     ) {
         this.repository = repository;
         this.accountClient = accountClient;
         this.notificationClient = notificationClient;
         this.fraudClient = fraudClient;
         this.transactionProducer = transactionProducer;
+        this.transferMetrics = transferMetrics;
     }
 
     /**
@@ -122,11 +128,11 @@ public class TransactionService {
 
         if (existing.isPresent()) {
             Transaction tx = existing.get();
-            log.info("Found existing transaction | key={} | status={}", idempotencyKey, tx.getStatus());
+            log.debug("Found existing transaction | key={} | status={}", idempotencyKey, tx.getStatus());
             return switch (tx.getStatus()) {
                 case COMPLETED, PENDING -> {
                     // Return existing transaction for idempotency (safe to retry)
-                    log.info("Returning existing transaction | key={} | status={}", idempotencyKey, tx.getStatus());
+                    log.debug("Returning existing transaction | key={} | status={}", idempotencyKey, tx.getStatus());
                     yield toResponse(tx);
                 }
                 case FAILED -> {
@@ -147,7 +153,7 @@ public class TransactionService {
         newTx.setCreatedAt(Instant.now());
         repository.save(newTx);
 
-        log.info("Creating new transaction | key={}", idempotencyKey);
+        log.debug("Creating new transaction | key={}", idempotencyKey);
         return processAndSave(newTx, request);
     }
 
@@ -183,6 +189,8 @@ public class TransactionService {
      * <p>
      * If any step fails (e.g., insufficient funds, service unavailable), the transaction
      * is marked as FAILED and an error notification is sent to the user.
+     * <p>
+     * Each step is timed as a stage of {@code finpay.transfer.stage} (see /actuator/transfer-breakdown).
      *
      * @param tx the transaction entity to process
      * @param request the transfer request with source, destination, and amount
@@ -191,35 +199,40 @@ public class TransactionService {
     @Transactional
     private TransactionResponse processAndSave(Transaction tx, TransferRequest request) {
         // Retrieve account details to get owner email for notifications
-        AccountDto accDto = accountClient.getAccount(request.getFromAccountId());
+        AccountDto accDto = transferMetrics.time(TransferStage.ACCOUNT_LOOKUP,
+                () -> accountClient.getAccount(request.getFromAccountId()));
 
         // Publish event to Kafka for event-driven processing (analytics, audit logs, etc.)
-        transactionProducer.sendTransaction(new TransactionCreatedEvent(
-                tx.getId(),
-                tx.getAmount(),
-                accDto.getOwnerEmail()
-        ));
+        transferMetrics.run(TransferStage.EVENT_PUBLISH, () -> transactionProducer.sendTransaction(
+                new TransactionCreatedEvent(
+                        tx.getId(),
+                        tx.getAmount(),
+                        accDto.getOwnerEmail()
+                )));
 
         try {
             // Debit source account - will fail if insufficient funds
-            log.info("Debiting account={} amount={}", tx.getFromAccountId(), tx.getAmount());
-            accountClient.debit(new DebitRequest(tx.getFromAccountId(), tx.getAmount()));
+            log.debug("Debiting account={} amount={}", tx.getFromAccountId(), tx.getAmount());
+            transferMetrics.run(TransferStage.DEBIT,
+                    () -> accountClient.debit(new DebitRequest(tx.getFromAccountId(), tx.getAmount())));
 
             // Credit destination account
-            log.info("Crediting account={} amount={}", tx.getToAccountId(), tx.getAmount());
-            accountClient.credit(new CreditRequest(tx.getToAccountId(), tx.getAmount()));
+            log.debug("Crediting account={} amount={}", tx.getToAccountId(), tx.getAmount());
+            transferMetrics.run(TransferStage.CREDIT,
+                    () -> accountClient.credit(new CreditRequest(tx.getToAccountId(), tx.getAmount())));
 
             // Mark transaction as completed
             tx.setStatus(Transaction.Status.COMPLETED);
             log.info("Transaction completed id={} | key={}", tx.getId(), tx.getIdempotencyKey());
 
             // Send success notification to user
-            notificationClient.sendNotification(NotificationRequest.builder()
-                    .userId(accDto.getOwnerEmail())
-                    .message("Transaction Completed Successfully")
-                    .channel("EMAIL")
-                    .build()
-            );
+            transferMetrics.run(TransferStage.NOTIFICATION, () -> notificationClient.sendNotification(
+                    NotificationRequest.builder()
+                            .userId(accDto.getOwnerEmail())
+                            .message("Transaction Completed Successfully")
+                            .channel("EMAIL")
+                            .build()
+            ));
 
         } catch (Exception e) {
             // Handle any errors during transaction processing
@@ -228,15 +241,16 @@ public class TransactionService {
                     tx.getId(), tx.getIdempotencyKey(), e.getMessage(), e);
 
             // Send failure notification to user
-            notificationClient.sendNotification(NotificationRequest.builder()
-                    .userId(accDto.getOwnerEmail())
-                    .message("Transaction failed. Please try again.")
-                    .channel("EMAIL")
-                    .build());
+            transferMetrics.run(TransferStage.NOTIFICATION, () -> notificationClient.sendNotification(
+                    NotificationRequest.builder()
+                            .userId(accDto.getOwnerEmail())
+                            .message("Transaction failed. Please try again.")
+                            .channel("EMAIL")
+                            .build()));
         }
 
         // Persist final transaction state to database
-        Transaction saved = repository.save(tx);
+        Transaction saved = transferMetrics.time(TransferStage.SAVE, () -> repository.save(tx));
         return toResponse(saved);
     }
 